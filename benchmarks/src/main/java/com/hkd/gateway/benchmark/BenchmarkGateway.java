@@ -0,0 +1,248 @@
+package com.hkd.gateway.benchmark;
+
+import com.hkd.auth.grpc.AuthServiceGrpc;
+import com.hkd.auth.grpc.ValidateTokenResponse;
+import com.hkd.gateway.accesslog.AccessLogger;
+import com.hkd.gateway.client.AuthRevocationSubscriber;
+import com.hkd.gateway.client.AuthServiceClient;
+import com.hkd.gateway.config.ApiRateLimitProperties;
+import com.hkd.gateway.config.AuthWhitelistProperties;
+import com.hkd.gateway.config.HedgingProperties;
+import com.hkd.gateway.config.IpRateLimitProperties;
+import com.hkd.gateway.config.UserRateLimitProperties;
+import com.hkd.gateway.filter.AccessLogFilter;
+import com.hkd.gateway.filter.JwtAuthenticationFilter;
+import com.hkd.gateway.filter.RateLimitFilter;
+import com.hkd.gateway.filter.RequestContextFilter;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.route.GatewayPolicyRegistry;
+import com.hkd.gateway.service.AuthWhitelist;
+import com.hkd.gateway.service.GcraAlgorithm;
+import com.hkd.gateway.service.HybridRateLimiter;
+import com.hkd.gateway.service.RequestHedging;
+import com.hkd.gateway.service.TokenBucketAlgorithm;
+import com.hkd.gateway.service.TokenBucketRateLimiter;
+import com.hkd.gateway.service.TokenValidationCache;
+import com.hkd.gateway.service.UserTierService;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.MethodDescriptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.annotation.AnnotationAwareOrderComparator;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试用的网关运行环境
+ *
+ * 启动进程内 Redis，并用网关自身的 application.yml（可按基准覆盖部分配置）
+ * 装配真实的过滤器、限流器和Token缓存；auth-service 以固定结果的桩代替（不走 gRPC）。
+ * 上下文中没有路由表，策略快照只含配置中的白名单和限流策略，不建路由索引
+ *
+ * @author HKD Team
+ */
+public final class BenchmarkGateway implements AutoCloseable {
+
+    /**
+     * 桩 auth-service 视为有效的 Token，对应用户 {@link #USER_ID}
+     */
+    public static final String VALID_TOKEN = "benchmark-token";
+
+    public static final String USER_ID = "10001";
+
+    private final RedisServer redisServer;
+    private final AnnotationConfigApplicationContext context;
+    private final Path accessLogFile;
+
+    private BenchmarkGateway(Map<String, Object> overrides) throws IOException {
+        int port = freePort();
+        this.redisServer = RedisServer.newRedisServer()
+                .port(port)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redisServer.start();
+
+        this.accessLogFile = Files.createTempFile("hkd-gateway-benchmark-access", ".log");
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("benchmark.redis.port", port);
+        properties.put("hkd.access-log.file", accessLogFile.toString());
+        // 没有 auth-service，不订阅吊销推送，Token 缓存只依赖 TTL
+        properties.put("hkd.auth.revocation.enabled", false);
+        properties.putAll(overrides);
+
+        this.context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        for (PropertySource<?> source : new YamlPropertySourceLoader()
+                .load("application.yml", new ClassPathResource("application.yml"))) {
+            context.getEnvironment().getPropertySources().addLast(source);
+        }
+        context.register(GatewayBeans.class);
+        context.refresh();
+    }
+
+    /**
+     * 启动
+     *
+     * @param overrides 覆盖 application.yml 的配置项
+     */
+    public static BenchmarkGateway start(Map<String, Object> overrides) {
+        try {
+            return new BenchmarkGateway(overrides);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * 按 Ordered 排序的全局过滤器
+     */
+    public List<GlobalFilter> globalFilters() {
+        List<GlobalFilter> filters = new ArrayList<>(context.getBeansOfType(GlobalFilter.class).values());
+        AnnotationAwareOrderComparator.sort(filters);
+        return filters;
+    }
+
+    /**
+     * 清空 Redis 中的限流状态
+     */
+    public void flushRedis() {
+        bean(ReactiveStringRedisTemplate.class).execute(connection -> connection.serverCommands().flushAll())
+                .blockLast();
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        redisServer.stop();
+        Files.deleteIfExists(accessLogFile);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Configuration
+    @EnableConfigurationProperties(HttpClientProperties.class)
+    @Import({
+            RequestContextFilter.class, JwtAuthenticationFilter.class, RateLimitFilter.class, AccessLogFilter.class,
+            AccessLogger.class, AuthWhitelist.class, AuthWhitelistProperties.class, TokenValidationCache.class,
+            AuthRevocationSubscriber.class,
+            HybridRateLimiter.class, TokenBucketRateLimiter.class, TokenBucketAlgorithm.class, GcraAlgorithm.class,
+            UserTierService.class, UserRateLimitProperties.class, IpRateLimitProperties.class,
+            ApiRateLimitProperties.class, GatewayPolicyRegistry.class, GatewayMetrics.class,
+            RequestHedging.class, HedgingProperties.class
+    })
+    static class GatewayBeans {
+
+        @Bean(destroyMethod = "destroy")
+        LettuceConnectionFactory redisConnectionFactory(Environment environment) {
+            int port = environment.getRequiredProperty("benchmark.redis.port", Integer.class);
+            return new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        }
+
+        @Bean
+        ReactiveStringRedisTemplate reactiveStringRedisTemplate(LettuceConnectionFactory connectionFactory) {
+            return new ReactiveStringRedisTemplate(connectionFactory);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        CircuitBreaker authServiceCircuitBreaker() {
+            return CircuitBreaker.ofDefaults("auth-service");
+        }
+
+        /**
+         * AuthServiceClient 依赖的 gRPC stub；桩客户端不发起调用，通道不连接任何实例
+         */
+        @Bean
+        AuthServiceGrpc.AuthServiceStub authServiceStub() {
+            return AuthServiceGrpc.newStub(new UnavailableChannel());
+        }
+
+        @Bean
+        AuthServiceClient authServiceClient() {
+            return new StubAuthServiceClient();
+        }
+    }
+
+    /**
+     * 不可用的 gRPC 通道：基准中出现 gRPC 调用说明桩没有覆盖到，直接失败
+     */
+    static class UnavailableChannel extends Channel {
+
+        @Override
+        public <Q, R> ClientCall<Q, R> newCall(MethodDescriptor<Q, R> method, CallOptions callOptions) {
+            throw new UnsupportedOperationException("No auth-service in benchmark context: " + method.getFullMethodName());
+        }
+
+        @Override
+        public String authority() {
+            return "benchmark";
+        }
+    }
+
+    /**
+     * 桩 auth-service：{@link #VALID_TOKEN} 有效（1小时后过期），其余 Token 无效
+     */
+    static class StubAuthServiceClient extends AuthServiceClient {
+
+        private static final ValidateTokenResponse INVALID = ValidateTokenResponse.newBuilder()
+                .setValid(false)
+                .build();
+
+        @Override
+        public Mono<ValidateTokenResponse> validateToken(String accessToken) {
+            if (!VALID_TOKEN.equals(accessToken)) {
+                return Mono.just(INVALID);
+            }
+            return Mono.just(ValidateTokenResponse.newBuilder()
+                    .setValid(true)
+                    .setUserId(USER_ID)
+                    .setUsername("benchmark")
+                    .setEmail("benchmark@hkd.com")
+                    .addRoles("USER")
+                    .setExpiresAt(System.currentTimeMillis() / 1000 + 3600)
+                    .build());
+        }
+    }
+}
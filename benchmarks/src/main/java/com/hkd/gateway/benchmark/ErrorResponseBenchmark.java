@@ -0,0 +1,65 @@
+package com.hkd.gateway.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hkd.gateway.util.ErrorResponseEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 429 错误响应编码基准：预编码模板对比原先 HashMap + Jackson 的实现
+ *
+ * @author HKD Team
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ErrorResponseBenchmark {
+
+    private static final ErrorResponseEncoder.Template TOO_MANY_REQUESTS = ErrorResponseEncoder.template(
+            HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED", "请求过于频繁，请稍后再试");
+
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+    }
+
+    @Benchmark
+    public ServerHttpResponse template() {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        TOO_MANY_REQUESTS.write(response).block();
+        return response;
+    }
+
+    @Benchmark
+    public ServerHttpResponse jackson() throws Exception {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, Object> error = new HashMap<>();
+        error.put("code", "RATE_LIMIT_EXCEEDED");
+        error.put("message", "请求过于频繁，请稍后再试");
+        error.put("timestamp", System.currentTimeMillis());
+
+        DataBuffer buffer = response.bufferFactory().wrap(objectMapper.writeValueAsBytes(error));
+        response.writeWith(Mono.just(buffer)).block();
+        return response;
+    }
+}
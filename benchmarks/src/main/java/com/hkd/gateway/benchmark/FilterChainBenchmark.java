@@ -0,0 +1,136 @@
+package com.hkd.gateway.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.adapter.DefaultServerWebExchange;
+import org.springframework.web.server.i18n.AcceptHeaderLocaleContextResolver;
+import org.springframework.web.server.i18n.LocaleContextResolver;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 全局过滤器链基准：RequestContextFilter → JwtAuthenticationFilter → RateLimitFilter → AccessLogFilter
+ *
+ * 场景：
+ * - whitelisted：白名单路径，匿名访问
+ * - authenticated：已认证用户正常放行（Token 缓存命中；IP/用户维度走本地租约，API 维度一次 Redis 往返）
+ * - missingToken：缺少 Authorization，401
+ * - rateLimited：API 维度令牌耗尽，429（模拟攻击流量）
+ *
+ * 每次调用新建请求 / 响应 / exchange（约占分配量的一部分，可用 whitelisted 场景作为基线）
+ *
+ * @author HKD Team
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FilterChainBenchmark {
+
+    private static final String LIMITED_ROUTE = "benchmark-limited";
+
+    /**
+     * 编解码器等与请求无关的组件共享（MockServerWebExchange.from 每次都会新建，开销远大于被测代码）
+     */
+    private static final ServerCodecConfigurer CODEC_CONFIGURER = ServerCodecConfigurer.create();
+    private static final WebSessionManager SESSION_MANAGER = new DefaultWebSessionManager();
+    private static final LocaleContextResolver LOCALE_CONTEXT_RESOLVER = new AcceptHeaderLocaleContextResolver();
+
+    @Param({"whitelisted", "authenticated", "missingToken", "rateLimited"})
+    public String scenario;
+
+    private BenchmarkGateway gateway;
+    private List<GlobalFilter> filters;
+    private Route route;
+    private Route limitedRoute;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // IP / 用户 / 默认API维度放宽到不会触发，只有 LIMITED_ROUTE 路由每秒1个令牌
+        gateway = BenchmarkGateway.start(Map.of(
+                "hkd.rate-limit.ip.capacity", 1_000_000_000,
+                "hkd.rate-limit.ip.refill-rate", 1_000_000_000,
+                "hkd.rate-limit.user.default-capacity", 1_000_000_000,
+                "hkd.rate-limit.api.default-capacity", 1_000_000_000,
+                "hkd.rate-limit.api.routes." + LIMITED_ROUTE + ".capacity", 1));
+        filters = gateway.globalFilters();
+        route = route("benchmark-route");
+        limitedRoute = route(LIMITED_ROUTE);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        gateway.close();
+    }
+
+    @Benchmark
+    public HttpStatus filterChain() {
+        ServerWebExchange exchange = switch (scenario) {
+            case "whitelisted" -> exchange("/api/v1/market/public/ticker/BTC-USDT", null, route);
+            case "authenticated" -> exchange("/api/v1/orders/123456", BenchmarkGateway.VALID_TOKEN, route);
+            case "missingToken" -> exchange("/api/v1/orders/123456", null, route);
+            case "rateLimited" -> exchange("/api/v1/orders/123456", BenchmarkGateway.VALID_TOKEN, limitedRoute);
+            default -> throw new IllegalArgumentException(scenario);
+        };
+        new Chain(filters, 0).filter(exchange).block();
+        return (HttpStatus) exchange.getResponse().getStatusCode();
+    }
+
+    private static ServerWebExchange exchange(String path, String token, Route route) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get(path)
+                .header("X-Forwarded-For", "203.0.113.7, 10.0.0.1");
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        ServerWebExchange exchange = new DefaultServerWebExchange(request.build(), new MockServerHttpResponse(),
+                SESSION_MANAGER, CODEC_CONFIGURER, LOCALE_CONTEXT_RESOLVER);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private static Route route(String id) {
+        return Route.async()
+                .id(id)
+                .uri(URI.create("http://localhost:8080"))
+                .predicate(exchange -> true)
+                .build();
+    }
+
+    /**
+     * 依次执行全局过滤器，链尾模拟后端返回 200
+     */
+    private record Chain(List<GlobalFilter> filters, int index) implements GatewayFilterChain {
+
+        @Override
+        public Mono<Void> filter(ServerWebExchange exchange) {
+            if (index == filters.size()) {
+                exchange.getResponse().setStatusCode(HttpStatus.OK);
+                return exchange.getResponse().setComplete();
+            }
+            return filters.get(index).filter(exchange, new Chain(filters, index + 1));
+        }
+    }
+}
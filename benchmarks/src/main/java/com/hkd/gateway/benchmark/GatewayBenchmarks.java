@@ -0,0 +1,45 @@
+package com.hkd.gateway.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * benchmarks.jar 入口
+ *
+ * 接受全部 JMH 命令行参数。未指定 -bm 时依次运行两轮：
+ * 吞吐量（ops/s）和采样耗时（us，输出 p50/p90/p99/p99.9 等百分位）；
+ * 未指定 -prof 时默认启用 gc 分析器输出分配速率（gc.alloc.rate.norm 为每次操作分配字节数）
+ *
+ * @author HKD Team
+ */
+public final class GatewayBenchmarks {
+
+    private GatewayBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers()
+                || cli.shouldListResultFormats() || !cli.getBenchModes().isEmpty()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        new Runner(options(cli).mode(Mode.Throughput).timeUnit(TimeUnit.SECONDS).build()).run();
+        new Runner(options(cli).mode(Mode.SampleTime).timeUnit(TimeUnit.MICROSECONDS).build()).run();
+    }
+
+    private static ChainedOptionsBuilder options(CommandLineOptions cli) {
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hkd.gateway.benchmark;
+
+import com.hkd.gateway.config.ApiRateLimitProperties;
+import com.hkd.gateway.service.ApiRateLimitPolicies;
+import com.hkd.gateway.service.RateLimitRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.server.RequestPath;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 限流Key构建基准：按路由解析 API 限流规则（含路径模板匹配）
+ *
+ * @author HKD Team
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RateLimitKeyBenchmark {
+
+    private BenchmarkGateway gateway;
+    private ApiRateLimitPolicies policies;
+    private RequestPath orderPath;
+    private RequestPath marketPath;
+    private String clientIp;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gateway = BenchmarkGateway.start(Map.of());
+        // 基准上下文没有路由表，按两条路由编译，与 GatewayPolicyRegistry 在路由刷新后的结果一致
+        policies = ApiRateLimitPolicies.compile(gateway.bean(ApiRateLimitProperties.class),
+                List.of("order-gateway", "market-service-http"));
+        orderPath = RequestPath.parse("/api/v1/orders/123456", null);
+        marketPath = RequestPath.parse("/api/v1/market/depth/BTC-USDT", null);
+        clientIp = "203.0.113.7";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        gateway.close();
+    }
+
+    /**
+     * 配置了路径模板的路由（order-gateway：/api/v1/orders/{orderId}）
+     */
+    @Benchmark
+    public RateLimitRule templatedRoute() {
+        return policies.resolve("order-gateway", orderPath.pathWithinApplication(), BenchmarkGateway.USER_ID);
+    }
+
+    /**
+     * 仅按路由限流的路由
+     */
+    @Benchmark
+    public RateLimitRule plainRoute() {
+        return policies.resolve("market-service-http", marketPath.pathWithinApplication(), BenchmarkGateway.USER_ID);
+    }
+
+    /**
+     * IP维度Key
+     */
+    @Benchmark
+    public String ipKey() {
+        return "ratelimit:ip:" + clientIp;
+    }
+}
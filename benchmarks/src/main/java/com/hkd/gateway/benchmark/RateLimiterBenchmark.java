@@ -0,0 +1,82 @@
+package com.hkd.gateway.benchmark;
+
+import com.hkd.gateway.service.RateLimitResult;
+import com.hkd.gateway.service.RateLimitRule;
+import com.hkd.gateway.service.RateLimitRule.Dimension;
+import com.hkd.gateway.service.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis 限流脚本基准（进程内 Redis，含一次本机网络往返）
+ *
+ * - acquireAllowed：三个维度均有令牌，原子扣减
+ * - acquireRejected：首个维度令牌耗尽，脚本不写入直接拒绝
+ * - lease：租借一批令牌（HybridRateLimiter 续租路径）
+ *
+ * @author HKD Team
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RateLimiterBenchmark {
+
+    private static final int UNLIMITED = 1_000_000_000;
+
+    @Param({"token-bucket", "gcra"})
+    public String algorithm;
+
+    private BenchmarkGateway gateway;
+    private TokenBucketRateLimiter rateLimiter;
+    private List<RateLimitRule> allowedRules;
+    private List<RateLimitRule> rejectedRules;
+    private RateLimitRule leaseRule;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gateway = BenchmarkGateway.start(Map.of("hkd.rate-limit.algorithm", algorithm));
+        gateway.flushRedis();
+        rateLimiter = gateway.bean(TokenBucketRateLimiter.class);
+        allowedRules = List.of(
+                new RateLimitRule(Dimension.IP, "ratelimit:ip:203.0.113.7", UNLIMITED, UNLIMITED),
+                new RateLimitRule(Dimension.USER, "ratelimit:user:10001", UNLIMITED, UNLIMITED),
+                new RateLimitRule(Dimension.API, "ratelimit:api:order-gateway:10001", UNLIMITED, UNLIMITED));
+        rejectedRules = List.of(
+                new RateLimitRule(Dimension.IP, "ratelimit:ip:198.51.100.9", 1, 1),
+                new RateLimitRule(Dimension.USER, "ratelimit:user:10002", UNLIMITED, UNLIMITED));
+        leaseRule = new RateLimitRule(Dimension.IP, "ratelimit:ip:203.0.113.8", UNLIMITED, UNLIMITED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        gateway.close();
+    }
+
+    @Benchmark
+    public RateLimitResult acquireAllowed() {
+        return rateLimiter.tryAcquire(allowedRules).block();
+    }
+
+    @Benchmark
+    public RateLimitResult acquireRejected() {
+        return rateLimiter.tryAcquire(rejectedRules).block();
+    }
+
+    @Benchmark
+    public Long lease() {
+        return rateLimiter.lease(leaseRule, 64).block();
+    }
+}
@@ -0,0 +1,150 @@
+package com.hkd.gateway.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 压测参数（--name=value）
+ *
+ * 以 --gateway. 开头的参数去掉前缀后原样传给网关（如 --gateway.hkd.rate-limit.algorithm=gcra）
+ *
+ * @author HKD Team
+ */
+final class HarnessOptions {
+
+    private static final String GATEWAY_PREFIX = "gateway.";
+
+    private final Map<String, String> values = new HashMap<>();
+    private final List<String> gatewayArgs = new ArrayList<>();
+
+    HarnessOptions(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith(GATEWAY_PREFIX)) {
+                gatewayArgs.add("--" + name.substring(GATEWAY_PREFIX.length()) + "=" + value);
+            } else {
+                values.put(name, value);
+            }
+        }
+    }
+
+    /**
+     * 场景：auth-cache-hit | auth-cache-miss | rate-limit-storm | ws-fan-in | market-snapshot
+     */
+    String scenario() {
+        return values.getOrDefault("scenario", "auth-cache-hit");
+    }
+
+    /**
+     * 目标到达率（请求/秒，ws-fan-in 为建连/秒）
+     */
+    int rate() {
+        return intValue("rate", 2000);
+    }
+
+    /**
+     * 测量时长（秒）
+     */
+    int duration() {
+        return intValue("duration", 30);
+    }
+
+    /**
+     * 预热时长（秒），结果不计入报告
+     */
+    int warmup() {
+        return intValue("warmup", 5);
+    }
+
+    /**
+     * 不同用户（Token）数
+     */
+    int users() {
+        return intValue("users", 10000);
+    }
+
+    /**
+     * 不同客户端IP数（经 X-Forwarded-For 传入）
+     */
+    int ips() {
+        return intValue("ips", 10000);
+    }
+
+    /**
+     * 在途请求上限，超出时按错误计（压测端过载保护）
+     */
+    int maxInFlight() {
+        return intValue("max-in-flight", 20000);
+    }
+
+    /**
+     * auth-service 桩的处理延迟（毫秒）
+     */
+    long authLatencyMillis() {
+        return intValue("auth-latency-ms", 1);
+    }
+
+    /**
+     * auth-service 桩返回 UNAVAILABLE 的比例
+     */
+    double authFailureRate() {
+        return Double.parseDouble(values.getOrDefault("auth-failure-rate", "0"));
+    }
+
+    /**
+     * 后端桩的处理延迟（毫秒）
+     */
+    long backendLatencyMillis() {
+        return intValue("backend-latency-ms", 0);
+    }
+
+    /**
+     * 每个 lb:// 服务的后端桩实例数
+     */
+    int backendInstances() {
+        return intValue("backend-instances", 1);
+    }
+
+    /**
+     * 每个 lb:// 服务最后一个实例额外增加的延迟（毫秒），模拟变慢 / GC 停顿的实例，用于对比负载均衡策略
+     */
+    long slowInstanceLatencyMillis() {
+        return intValue("slow-instance-latency-ms", 0);
+    }
+
+    /**
+     * ws-fan-in：WebSocket 客户端数
+     */
+    int clients() {
+        return intValue("clients", 1000);
+    }
+
+    /**
+     * market-snapshot：请求的交易对数
+     */
+    int symbols() {
+        return intValue("symbols", 10);
+    }
+
+    /**
+     * ws-fan-in：后端每个连接的推送间隔（毫秒）
+     */
+    long tickIntervalMillis() {
+        return intValue("tick-interval-ms", 100);
+    }
+
+    List<String> gatewayArgs() {
+        return gatewayArgs;
+    }
+
+    private int intValue(String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+}
@@ -0,0 +1,122 @@
+package com.hkd.gateway.loadtest;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaders;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开放模型 HTTP 压测：按固定到达率发出请求，不等待前一个请求完成
+ *
+ * 延迟从计划发送时刻开始计算（而非实际发送时刻），压测端或网关排队造成的延迟都会计入，
+ * 避免协调遗漏（coordinated omission）
+ *
+ * @author HKD Team
+ */
+final class HttpLoadGenerator {
+
+    private static final String OK = "2xx";
+    private static final String REJECTED = "429";
+    private static final String OTHER = "其他状态";
+    private static final String ERROR = "错误";
+
+    /**
+     * 构造第 sequence 个请求：填充请求头并返回路径
+     */
+    @FunctionalInterface
+    interface RequestFactory {
+
+        String prepare(long sequence, HttpHeaders headers);
+    }
+
+    private final HttpClient client;
+    private final int maxInFlight;
+
+    private final LatencyReport latencies = new LatencyReport(OK, REJECTED, OTHER, ERROR);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong overloaded = new AtomicLong();
+
+    HttpLoadGenerator(HttpClient client, int maxInFlight) {
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 预热后按固定到达率运行，返回前等待在途请求完成（最多10秒）
+     */
+    void run(int rate, Duration warmup, Duration duration, RequestFactory factory) {
+        send(rate, warmup, factory, 0);
+        awaitInFlight();
+        latencies.reset();
+        completed.set(0);
+        overloaded.set(0);
+
+        send(rate, duration, factory, rate * warmup.toSeconds());
+        awaitInFlight();
+    }
+
+    void print(PrintStream out, int rate, Duration duration) {
+        out.printf("目标速率 %d/s，实际完成 %.1f/s（测量 %ds），压测端过载丢弃 %d%n",
+                rate, completed.get() / (double) duration.toSeconds(), duration.toSeconds(), overloaded.get());
+        latencies.print(out);
+    }
+
+    private void send(int rate, Duration duration, RequestFactory factory, long firstSequence) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long total = rate * duration.toSeconds();
+        long start = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (inFlight.get() >= maxInFlight) {
+                overloaded.incrementAndGet();
+                latencies.record(ERROR, System.nanoTime() - intended);
+                continue;
+            }
+            fire(factory, firstSequence + i, intended);
+        }
+    }
+
+    private void fire(RequestFactory factory, long sequence, long intended) {
+        inFlight.incrementAndGet();
+        HttpHeaders requestHeaders = new DefaultHttpHeaders();
+        String path = factory.prepare(sequence, requestHeaders);
+        client.headers(headers -> headers.add(requestHeaders))
+                .get()
+                .uri(path)
+                .responseSingle((response, body) -> body.then(Mono.just(response.status().code())))
+                .subscribe(status -> {
+                    long latency = System.nanoTime() - intended;
+                    if (status >= 200 && status < 300) {
+                        latencies.record(OK, latency);
+                    } else if (status == 429) {
+                        latencies.record(REJECTED, latency);
+                    } else {
+                        latencies.record(OTHER, latency);
+                    }
+                    completed.incrementAndGet();
+                    inFlight.decrementAndGet();
+                }, e -> {
+                    latencies.record(ERROR, System.nanoTime() - intended);
+                    inFlight.decrementAndGet();
+                });
+    }
+
+    private void awaitInFlight() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+}
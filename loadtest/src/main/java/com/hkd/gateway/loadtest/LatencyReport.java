@@ -0,0 +1,64 @@
+package com.hkd.gateway.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 延迟统计（HdrHistogram，微秒精度，3位有效数字）
+ *
+ * @author HKD Team
+ */
+final class LatencyReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Map<String, Recorder> recorders = new LinkedHashMap<>();
+
+    LatencyReport(String... series) {
+        for (String name : series) {
+            recorders.put(name, new Recorder(3));
+        }
+    }
+
+    /**
+     * 记录一次延迟（线程安全）
+     */
+    void record(String series, long latencyNanos) {
+        recorders.get(series).recordValue(Math.max(0, latencyNanos / 1000));
+    }
+
+    /**
+     * 丢弃已记录的数据（预热结束时调用）
+     */
+    void reset() {
+        recorders.values().forEach(Recorder::reset);
+    }
+
+    /**
+     * 输出各序列的样本数和延迟百分位（毫秒）
+     */
+    void print(PrintStream out) {
+        StringBuilder header = new StringBuilder(String.format("%-12s %10s", "延迟(ms)", "count"));
+        for (double p : PERCENTILES) {
+            header.append(String.format(" %9s", "p" + (p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p))));
+        }
+        header.append(String.format(" %9s", "max"));
+        out.println(header);
+
+        recorders.forEach((name, recorder) -> {
+            Histogram histogram = recorder.getIntervalHistogram();
+            StringBuilder line = new StringBuilder(String.format("%-12s %10d", name, histogram.getTotalCount()));
+            if (histogram.getTotalCount() > 0) {
+                for (double p : PERCENTILES) {
+                    line.append(String.format(" %9.3f", histogram.getValueAtPercentile(p) / 1000.0));
+                }
+                line.append(String.format(" %9.3f", histogram.getMaxValue() / 1000.0));
+            }
+            out.println(line);
+        });
+    }
+}
@@ -0,0 +1,242 @@
+package com.hkd.gateway.loadtest;
+
+import com.hkd.gateway.GatewayApplication;
+import com.hkd.gateway.accesslog.AccessLogger;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import redis.embedded.RedisServer;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网关端到端压测
+ *
+ * 在单机、无外部网络的环境下启动完整的 GatewayApplication：
+ * - auth-service：进程内 gRPC 桩（{@link StubAuthService}，可配置延迟和失败率）
+ * - Redis：进程内 Redis（仅监听 127.0.0.1）
+ * - 后端服务：每个 lb:// 服务 backend-instances 个 Reactor Netty 桩（{@link StubBackend}，最后一个可额外增加延迟），
+ *   经 Spring Cloud 简单服务发现注册，不依赖 Nacos
+ *
+ * 场景：
+ * - auth-cache-hit：固定的 users 个 Token 反复访问，Token 验证基本命中缓存
+ * - auth-cache-miss：每个请求使用新 Token，每次都调用 auth-service
+ * - rate-limit-storm：单个IP以远超限额的速率访问公开接口，大部分请求被 429 拒绝
+ * - ws-fan-in：clients 个 WebSocket 行情连接，统计建连和端到端推送延迟
+ * - market-snapshot：多个IP请求 symbols 个交易对的公开行情快照，统计延迟和后端回源次数
+ *
+ * 用法：java -jar target/hkd-gateway-loadtest-1.0.0-SNAPSHOT.jar --scenario=auth-cache-miss --rate=5000 --duration=60
+ *
+ * @author HKD Team
+ */
+public final class LoadTestHarness {
+
+    private static final String REDIS_PASSWORD = "hkd_loadtest";
+
+    private static final String AUTHENTICATED_PATH = "/api/v1/assets/balances";
+    private static final String PUBLIC_PATH = "/api/v1/market/public/ticker/BTC-USDT";
+    private static final String MARKET_SNAPSHOT_PATH = "/api/v1/market/public/depth/";
+    private static final String WEBSOCKET_PATH = "/ws/market/ticker/BTC-USDT";
+
+    /**
+     * 直连路由（不经服务发现）对应的桩名称
+     */
+    private static final String DIRECT_ROUTE_SERVICE = "matching-engine";
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        HarnessOptions options = new HarnessOptions(args);
+        // 报告固定按 UTF-8 输出，不受平台默认编码影响
+        PrintStream out = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+
+        int redisPort = freePort();
+        RedisServer redis = RedisServer.newRedisServer()
+                .port(redisPort)
+                .setting("bind 127.0.0.1")
+                .setting("requirepass " + REDIS_PASSWORD)
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redis.start();
+
+        StubAuthService authService = new StubAuthService(options.authLatencyMillis(), options.authFailureRate());
+        authService.start();
+
+        Map<String, List<StubBackend>> backends = new LinkedHashMap<>();
+        for (String serviceId : routedServices()) {
+            int instances = serviceId.equals(DIRECT_ROUTE_SERVICE) ? 1 : options.backendInstances();
+            List<StubBackend> stubs = new ArrayList<>(instances);
+            for (int i = 0; i < instances; i++) {
+                long latency = options.backendLatencyMillis()
+                        + (instances > 1 && i == instances - 1 ? options.slowInstanceLatencyMillis() : 0);
+                stubs.add(StubBackend.start(serviceId, latency, options.tickIntervalMillis()));
+            }
+            backends.put(serviceId, stubs);
+        }
+
+        ConfigurableApplicationContext gateway = SpringApplication.run(GatewayApplication.class,
+                gatewayArgs(options, redisPort, backends).toArray(String[]::new));
+        int port = gateway.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+        try {
+            out.printf("%n=== %s ===%n", options.scenario());
+            run(options, port, out);
+            out.printf("auth-service 调用 %d 次（验证 Token %d 个），访问日志丢弃 %d 条%n",
+                    authService.calls(), authService.validatedTokens(),
+                    gateway.getBean(AccessLogger.class).getDroppedCount());
+            if ("ws-fan-in".equals(options.scenario())) {
+                out.printf("后端 WebSocket 连接 %d 个%n", backends.values().stream()
+                        .flatMap(List::stream).mapToInt(StubBackend::webSocketConnections).sum());
+            }
+            if ("market-snapshot".equals(options.scenario())) {
+                out.printf("后端 HTTP 请求 %d 次%n", backends.values().stream()
+                        .flatMap(List::stream).mapToInt(StubBackend::httpRequests).sum());
+            }
+        } finally {
+            gateway.close();
+            backends.values().forEach(stubs -> stubs.forEach(StubBackend::stop));
+            authService.stop();
+            redis.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void run(HarnessOptions options, int port, PrintStream out) {
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(options.maxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        HttpClient client = HttpClient.create(connections).baseUrl("http://127.0.0.1:" + port);
+        Duration warmup = Duration.ofSeconds(options.warmup());
+        Duration duration = Duration.ofSeconds(options.duration());
+        int users = options.users();
+        int ips = options.ips();
+
+        switch (options.scenario()) {
+            case "auth-cache-hit" -> {
+                HttpLoadGenerator generator = new HttpLoadGenerator(client, options.maxInFlight());
+                generator.run(options.rate(), warmup, duration, (seq, headers) -> {
+                    headers.set("Authorization", "Bearer user-" + (seq % users));
+                    headers.set("X-Forwarded-For", clientIp(seq % ips));
+                    return AUTHENTICATED_PATH;
+                });
+                generator.print(out, options.rate(), duration);
+            }
+            case "auth-cache-miss" -> {
+                HttpLoadGenerator generator = new HttpLoadGenerator(client, options.maxInFlight());
+                generator.run(options.rate(), warmup, duration, (seq, headers) -> {
+                    headers.set("Authorization", "Bearer user-" + (seq % users) + "." + seq);
+                    headers.set("X-Forwarded-For", clientIp(seq % ips));
+                    return AUTHENTICATED_PATH;
+                });
+                generator.print(out, options.rate(), duration);
+            }
+            case "rate-limit-storm" -> {
+                HttpLoadGenerator generator = new HttpLoadGenerator(client, options.maxInFlight());
+                generator.run(options.rate(), warmup, duration, (seq, headers) -> {
+                    headers.set("X-Forwarded-For", "198.51.100.66");
+                    return PUBLIC_PATH;
+                });
+                generator.print(out, options.rate(), duration);
+            }
+            case "market-snapshot" -> {
+                int symbols = options.symbols();
+                HttpLoadGenerator generator = new HttpLoadGenerator(client, options.maxInFlight());
+                generator.run(options.rate(), warmup, duration, (seq, headers) -> {
+                    headers.set("X-Forwarded-For", clientIp(seq % ips));
+                    return MARKET_SNAPSHOT_PATH + "SYM" + (seq % symbols) + "-USDT";
+                });
+                generator.print(out, options.rate(), duration);
+            }
+            case "ws-fan-in" -> {
+                WebSocketFanIn fanIn = new WebSocketFanIn(client);
+                fanIn.run(WEBSOCKET_PATH, i -> "user-" + (i % users), options.clients(), options.rate(), duration);
+                fanIn.print(out, duration);
+            }
+            default -> throw new IllegalArgumentException("Unknown scenario: " + options.scenario());
+        }
+        connections.dispose();
+    }
+
+    /**
+     * 网关启动参数：替换外部依赖为进程内桩，关闭 Nacos，日志降为 WARN 且只写入 target/loadtest-gateway.log；--gateway.* 参数最后追加，可覆盖以上配置
+     */
+    private static List<String> gatewayArgs(HarnessOptions options, int redisPort,
+                                            Map<String, List<StubBackend>> backends) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--spring.cloud.nacos.discovery.enabled=false");
+        args.add("--spring.cloud.nacos.config.enabled=false");
+        args.add("--spring.cloud.nacos.config.import-check.enabled=false");
+        args.add("--spring.cloud.service-registry.auto-registration.enabled=false");
+        args.add("--spring.data.redis.host=127.0.0.1");
+        args.add("--spring.data.redis.port=" + redisPort);
+        args.add("--spring.data.redis.password=" + REDIS_PASSWORD);
+        args.add("--grpc.client.auth-service.address=in-process:" + StubAuthService.SERVER_NAME);
+        args.add("--hkd.access-log.file=target/loadtest-access.log");
+        args.add("--logging.level.root=WARN");
+        args.add("--logging.level.com.hkd.gateway=WARN");
+        args.add("--logging.level.org.springframework.cloud.gateway=WARN");
+        args.add("--logging.file.name=target/loadtest-gateway.log");
+        args.add("--logging.pattern.console=");
+        args.add("--spring.main.banner-mode=off");
+        backends.forEach((serviceId, stubs) -> {
+            if (serviceId.equals(DIRECT_ROUTE_SERVICE)) {
+                args.add("--MATCHING_ENGINE_URL=" + stubs.get(0).uri());
+                return;
+            }
+            for (int i = 0; i < stubs.size(); i++) {
+                args.add("--spring.cloud.discovery.client.simple.instances." + serviceId + "[" + i + "].uri="
+                        + stubs.get(i).uri());
+            }
+        });
+        args.addAll(options.gatewayArgs());
+        return args;
+    }
+
+    /**
+     * 从网关的 application.yml 读取路由指向的服务：lb:// 路由取服务名，直连路由统一由一个桩承接
+     */
+    private static List<String> routedServices() throws IOException {
+        List<String> services = new ArrayList<>();
+        for (PropertySource<?> source : new YamlPropertySourceLoader()
+                .load("application.yml", new ClassPathResource("application.yml"))) {
+            for (int i = 0; source.containsProperty("spring.cloud.gateway.routes[" + i + "].uri"); i++) {
+                String uri = String.valueOf(source.getProperty("spring.cloud.gateway.routes[" + i + "].uri"));
+                String serviceId = uri.startsWith("lb:") ? URI.create("lb" + uri.substring(uri.indexOf("://"))).getHost()
+                        : DIRECT_ROUTE_SERVICE;
+                if (!services.contains(serviceId)) {
+                    services.add(serviceId);
+                }
+            }
+        }
+        return services;
+    }
+
+    private static String clientIp(long index) {
+        return "10." + ((index >> 16) & 0xFF) + "." + ((index >> 8) & 0xFF) + "." + (index & 0xFF);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.hkd.gateway.loadtest;
+
+import com.hkd.auth.grpc.AuthServiceGrpc;
+import com.hkd.auth.grpc.BatchValidateTokenRequest;
+import com.hkd.auth.grpc.BatchValidateTokenResponse;
+import com.hkd.auth.grpc.GetSigningKeysRequest;
+import com.hkd.auth.grpc.GetSigningKeysResponse;
+import com.hkd.auth.grpc.RevocationEvent;
+import com.hkd.auth.grpc.RevocationType;
+import com.hkd.auth.grpc.SubscribeRevocationsRequest;
+import com.hkd.auth.grpc.ValidateTokenRequest;
+import com.hkd.auth.grpc.ValidateTokenResponse;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 进程内 auth-service 桩（gRPC in-process 传输，无网络）
+ *
+ * Token 约定：user-{userId} 或 user-{userId}.{任意后缀} 有效（后缀用于制造缓存未命中），其余无效。
+ * 每次调用（含批量调用）按配置延迟返回，并按失败率返回 UNAVAILABLE
+ *
+ * @author HKD Team
+ */
+final class StubAuthService extends AuthServiceGrpc.AuthServiceImplBase {
+
+    static final String SERVER_NAME = "hkd-auth-stub";
+
+    private static final String TOKEN_PREFIX = "user-";
+
+    private static final long HEARTBEAT_INTERVAL_SECONDS = 5;
+
+    private static final RevocationEvent HEARTBEAT = RevocationEvent.newBuilder()
+            .setType(RevocationType.REVOCATION_TYPE_HEARTBEAT)
+            .build();
+
+    private final long latencyMillis;
+    private final double failureRate;
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "auth-stub");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong validatedTokens = new AtomicLong();
+
+    private Server server;
+
+    StubAuthService(long latencyMillis, double failureRate) {
+        this.latencyMillis = latencyMillis;
+        this.failureRate = failureRate;
+    }
+
+    void start() throws IOException {
+        server = InProcessServerBuilder.forName(SERVER_NAME)
+                .addService(this)
+                .executor(scheduler)
+                .build()
+                .start();
+    }
+
+    void stop() {
+        server.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * RPC 调用次数（批量调用计一次）
+     */
+    long calls() {
+        return calls.get();
+    }
+
+    /**
+     * 验证过的 Token 数
+     */
+    long validatedTokens() {
+        return validatedTokens.get();
+    }
+
+    @Override
+    public void validateToken(ValidateTokenRequest request, StreamObserver<ValidateTokenResponse> observer) {
+        respond(observer, () -> validate(request.getAccessToken()));
+    }
+
+    @Override
+    public void batchValidateToken(BatchValidateTokenRequest request,
+                                   StreamObserver<BatchValidateTokenResponse> observer) {
+        respond(observer, () -> {
+            BatchValidateTokenResponse.Builder response = BatchValidateTokenResponse.newBuilder();
+            for (String token : request.getAccessTokensList()) {
+                response.addResults(validate(token));
+            }
+            return response.build();
+        });
+    }
+
+    @Override
+    public void getSigningKeys(GetSigningKeysRequest request, StreamObserver<GetSigningKeysResponse> observer) {
+        observer.onNext(GetSigningKeysResponse.getDefaultInstance());
+        observer.onCompleted();
+    }
+
+    @Override
+    public void subscribeRevocations(SubscribeRevocationsRequest request, StreamObserver<RevocationEvent> observer) {
+        // 只定期发送心跳（首个即连接确认），不推送吊销事件；流保持打开直到网关取消
+        ServerCallStreamObserver<RevocationEvent> stream = (ServerCallStreamObserver<RevocationEvent>) observer;
+        ScheduledFuture<?> heartbeat = scheduler.scheduleAtFixedRate(() -> stream.onNext(HEARTBEAT),
+                0, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        stream.setOnCancelHandler(() -> heartbeat.cancel(false));
+    }
+
+    private <T> void respond(StreamObserver<T> observer, Supplier<T> result) {
+        calls.incrementAndGet();
+        Runnable reply = () -> {
+            if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+                observer.onError(Status.UNAVAILABLE.withDescription("stub failure").asRuntimeException());
+                return;
+            }
+            observer.onNext(result.get());
+            observer.onCompleted();
+        };
+        if (latencyMillis > 0) {
+            scheduler.schedule(reply, latencyMillis, TimeUnit.MILLISECONDS);
+        } else {
+            reply.run();
+        }
+    }
+
+    private ValidateTokenResponse validate(String token) {
+        validatedTokens.incrementAndGet();
+        if (!token.startsWith(TOKEN_PREFIX)) {
+            return ValidateTokenResponse.newBuilder().setValid(false).build();
+        }
+        int end = token.indexOf('.');
+        String userId = token.substring(TOKEN_PREFIX.length(), end > 0 ? end : token.length());
+        return ValidateTokenResponse.newBuilder()
+                .setValid(true)
+                .setUserId(userId)
+                .setUsername("user" + userId)
+                .setEmail("user" + userId + "@loadtest.hkd.com")
+                .addRoles("USER")
+                .setExpiresAt(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 900)
+                .build();
+    }
+}
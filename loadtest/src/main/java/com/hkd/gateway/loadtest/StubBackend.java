@@ -0,0 +1,86 @@
+package com.hkd.gateway.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 后端服务桩（Reactor Netty，仅监听 127.0.0.1）
+ *
+ * - 普通 HTTP 请求：按配置延迟后返回固定的小 JSON
+ * - WebSocket 升级请求：按 tick 间隔持续推送 System.nanoTime() 文本，用于计算端到端推送延迟
+ * - 分别累计收到的 HTTP 请求数和 WebSocket 连接数
+ *
+ * @author HKD Team
+ */
+final class StubBackend {
+
+    private static final byte[] BODY = "{\"code\":\"SUCCESS\",\"data\":{}}".getBytes(StandardCharsets.UTF_8);
+
+    private final String serviceId;
+    private final DisposableServer server;
+    private final AtomicInteger httpRequests;
+    private final AtomicInteger webSocketConnections;
+
+    private StubBackend(String serviceId, DisposableServer server, AtomicInteger httpRequests,
+                        AtomicInteger webSocketConnections) {
+        this.serviceId = serviceId;
+        this.server = server;
+        this.httpRequests = httpRequests;
+        this.webSocketConnections = webSocketConnections;
+    }
+
+    static StubBackend start(String serviceId, long latencyMillis, long tickIntervalMillis) {
+        Duration latency = Duration.ofMillis(latencyMillis);
+        Duration tick = Duration.ofMillis(tickIntervalMillis);
+        AtomicInteger httpRequests = new AtomicInteger();
+        AtomicInteger webSocketConnections = new AtomicInteger();
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> {
+                    if (request.requestHeaders().containsValue(HttpHeaderNames.UPGRADE, HttpHeaderValues.WEBSOCKET, true)) {
+                        webSocketConnections.incrementAndGet();
+                        return response.sendWebsocket((in, out) -> out.sendString(
+                                Flux.interval(tick)
+                                        .map(i -> Long.toString(System.nanoTime()))
+                                        .takeUntilOther(in.receiveCloseStatus())));
+                    }
+                    httpRequests.incrementAndGet();
+                    Mono<Void> reply = response
+                            .header(HttpHeaderNames.CONTENT_TYPE, HttpHeaderValues.APPLICATION_JSON)
+                            .sendByteArray(Mono.just(BODY))
+                            .then();
+                    return latencyMillis > 0 ? Mono.delay(latency).then(reply) : reply;
+                })
+                .bindNow();
+        return new StubBackend(serviceId, server, httpRequests, webSocketConnections);
+    }
+
+    String serviceId() {
+        return serviceId;
+    }
+
+    int httpRequests() {
+        return httpRequests.get();
+    }
+
+    int webSocketConnections() {
+        return webSocketConnections.get();
+    }
+
+    String uri() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    void stop() {
+        server.disposeNow();
+    }
+}
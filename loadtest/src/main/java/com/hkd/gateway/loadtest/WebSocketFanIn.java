@@ -0,0 +1,95 @@
+package com.hkd.gateway.loadtest;
+
+import reactor.core.Disposable;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * WebSocket 行情连接压测
+ *
+ * 按固定速率建立 clients 个经网关转发的 WebSocket 连接，全部建立后保持 duration 秒。
+ * 后端桩每条消息携带发送时的 System.nanoTime()（同一进程），据此统计端到端推送延迟
+ *
+ * @author HKD Team
+ */
+final class WebSocketFanIn {
+
+    private static final String CONNECT = "建连";
+    private static final String MESSAGE = "推送";
+    private static final String ERROR = "错误";
+
+    private final HttpClient client;
+    private final LatencyReport latencies = new LatencyReport(CONNECT, MESSAGE, ERROR);
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong connected = new AtomicLong();
+    private final List<Disposable> connections = new ArrayList<>();
+
+    private volatile boolean measuring;
+
+    WebSocketFanIn(HttpClient client) {
+        this.client = client;
+    }
+
+    /**
+     * @param path     WebSocket 路径
+     * @param token    Access Token 生成（按连接序号）
+     * @param clients  连接数
+     * @param rate     建连速率（连接/秒）
+     * @param duration 全部连接建立后的测量时长
+     */
+    void run(String path, LongFunction<String> token, int clients, int rate, Duration duration) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            long intended = start + i * intervalNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            connections.add(connect(path, token.apply(i), intended));
+        }
+
+        // 连接全部发起后再开始统计推送
+        LockSupport.parkNanos(TimeUnit.SECONDS.toNanos(1));
+        messages.set(0);
+        measuring = true;
+        LockSupport.parkNanos(duration.toNanos());
+        measuring = false;
+        connections.forEach(Disposable::dispose);
+    }
+
+    void print(PrintStream out, Duration duration) {
+        out.printf("已建立连接 %d，推送消息 %.1f 条/s（测量 %ds）%n",
+                connected.get(), messages.get() / (double) duration.toSeconds(), duration.toSeconds());
+        latencies.print(out);
+    }
+
+    private Disposable connect(String path, String token, long intended) {
+        return client.headers(headers -> headers.set("Authorization", "Bearer " + token))
+                .websocket()
+                .uri(path)
+                .handle((in, out) -> {
+                    latencies.record(CONNECT, System.nanoTime() - intended);
+                    connected.incrementAndGet();
+                    return in.receive().asString().doOnNext(this::onMessage);
+                })
+                .subscribe(message -> {
+                }, e -> latencies.record(ERROR, System.nanoTime() - intended));
+    }
+
+    private void onMessage(String payload) {
+        if (!measuring) {
+            return;
+        }
+        messages.incrementAndGet();
+        latencies.record(MESSAGE, System.nanoTime() - Long.parseLong(payload.trim()));
+    }
+}
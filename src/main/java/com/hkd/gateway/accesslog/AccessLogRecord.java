@@ -0,0 +1,28 @@
+package com.hkd.gateway.accesslog;
+
+/**
+ * 访问日志记录
+ * 固定结构、预分配在环形缓冲区中循环复用；字段只保存请求中已有对象的引用，
+ * 格式化和编码全部在写日志线程中完成
+ *
+ * @author HKD Team
+ */
+final class AccessLogRecord {
+
+    long timestampMillis;
+    String method;
+    String path;
+    int status;
+    long durationMicros;
+    String clientIp;
+    String userId;
+    String routeId;
+
+    void clear() {
+        method = null;
+        path = null;
+        clientIp = null;
+        userId = null;
+        routeId = null;
+    }
+}
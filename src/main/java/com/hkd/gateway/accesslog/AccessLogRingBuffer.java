@@ -0,0 +1,97 @@
+package com.hkd.gateway.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界多生产者单消费者环形缓冲区（预分配记录，无锁）
+ *
+ * 每个槽位带一个序号：序号 == 位置 表示空闲，序号 == 位置 + 1 表示已发布。
+ * 生产者 CAS 抢占位置后原地填充记录再发布；缓冲区满时 {@link #claim()} 直接返回 -1，
+ * 由调用方丢弃并计数，不会阻塞事件循环线程
+ *
+ * @author HKD Team
+ */
+final class AccessLogRingBuffer {
+
+    private final AccessLogRecord[] records;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 消费位置，仅由写日志线程访问
+     */
+    private long head;
+
+    AccessLogRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.records = new AccessLogRecord[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            records[i] = new AccessLogRecord();
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 抢占一个槽位
+     *
+     * @return 槽位位置；缓冲区已满返回 -1
+     */
+    long claim() {
+        long position = tail.get();
+        while (true) {
+            long sequence = sequences.getAcquire((int) position & mask);
+            long diff = sequence - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = tail.get();
+            } else if (diff < 0) {
+                // 消费者尚未释放该槽位，缓冲区已满
+                return -1;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    AccessLogRecord get(long position) {
+        return records[(int) position & mask];
+    }
+
+    /**
+     * 发布已填充的槽位，对消费者可见
+     */
+    void publish(long position) {
+        sequences.setRelease((int) position & mask, position + 1);
+    }
+
+    /**
+     * 取下一条已发布的记录（仅消费者调用），处理完后须调用 {@link #release()}
+     *
+     * @return 记录；暂无已发布记录返回 null
+     */
+    AccessLogRecord peek() {
+        int index = (int) head & mask;
+        if (sequences.getAcquire(index) != head + 1) {
+            return null;
+        }
+        return records[index];
+    }
+
+    /**
+     * 释放当前记录所在槽位，供生产者复用
+     */
+    void release() {
+        int index = (int) head & mask;
+        records[index].clear();
+        sequences.setRelease(index, head + records.length);
+        head++;
+    }
+}
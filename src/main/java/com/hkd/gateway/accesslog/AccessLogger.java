@@ -0,0 +1,333 @@
+package com.hkd.gateway.accesslog;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步访问日志
+ *
+ * 请求线程只在预分配的环形缓冲区中填充一条固定结构的记录（无格式化、无 I/O）；
+ * 后台写日志线程批量取出记录，编码为 JSON Lines 后一次写入文件。
+ * 磁盘卡顿只会阻塞写日志线程，缓冲区写满时新记录直接丢弃并计入 gateway.access_log.dropped
+ *
+ * 输出目标：
+ * - 文件：超过 max-file-size 后按 access.log → access.log.1 → ... 滚动，保留 max-history 个；
+ *   每 reopen-interval 检查一次文件是否被外部移走（logrotate 的 move 方式），是则重新打开同名文件
+ * - stdout（file 配置为 stdout）：与容器日志一起收集，适合只读根文件系统
+ * 日志文件无法创建或打开时只记录错误并关闭访问日志，不影响网关启动
+ *
+ * 行情路由（sampled-routes）的 2xx 响应按 success-sample-rate 采样，非 2xx 始终记录
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class AccessLogger {
+
+    @Value("${hkd.access-log.enabled}")
+    private boolean enabled;
+
+    /**
+     * 写往标准输出而不是文件
+     */
+    private static final String STDOUT = "stdout";
+
+    @Value("${hkd.access-log.file}")
+    private String file;
+
+    @Value("${hkd.access-log.max-file-size}")
+    private long maxFileSize;
+
+    @Value("${hkd.access-log.max-history}")
+    private int maxHistory;
+
+    @Value("${hkd.access-log.reopen-interval}")
+    private long reopenIntervalMillis;
+
+    @Value("${hkd.access-log.buffer-size}")
+    private int bufferSize;
+
+    @Value("${hkd.access-log.flush-interval}")
+    private long flushIntervalMillis;
+
+    @Value("#{'${hkd.access-log.sampled-routes}'.split(',')}")
+    private List<String> sampledRouteIds;
+
+    @Value("${hkd.access-log.success-sample-rate}")
+    private double successSampleRate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Set<String> sampledRoutes;
+
+    private AccessLogRingBuffer ringBuffer;
+
+    private WritableByteChannel channel;
+
+    /**
+     * 日志文件路径，输出到 stdout 时为 null
+     */
+    private Path path;
+
+    /**
+     * 当前打开的文件的 fileKey（inode），用于发现文件被外部移走
+     */
+    private Object fileKey;
+
+    private long fileSize;
+
+    private long nextReopenCheckNanos;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong sampledOut = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        this.sampledRoutes = Set.copyOf(sampledRouteIds.stream().map(String::trim).filter(s -> !s.isEmpty()).toList());
+
+        try {
+            if (STDOUT.equalsIgnoreCase(file.trim())) {
+                this.channel = Channels.newChannel(new FileOutputStream(FileDescriptor.out));
+            } else {
+                this.path = Path.of(file);
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                openFile();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("无法打开访问日志 {}，访问日志已关闭（可将 hkd.access-log.file 指向可写卷或设为 stdout）: {}",
+                    file, e.toString());
+            this.enabled = false;
+            return;
+        }
+        this.ringBuffer = new AccessLogRingBuffer(bufferSize);
+
+        FunctionCounter.builder("gateway.access_log.dropped", dropped, AtomicLong::get)
+                .description("缓冲区已满而丢弃的访问日志条数")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.access_log.sampled_out", sampledOut, AtomicLong::get)
+                .description("被采样跳过的行情 2xx 访问日志条数")
+                .register(meterRegistry);
+
+        this.running = true;
+        this.writerThread = new Thread(this::runWriter, "access-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("异步访问日志已启动: file={}, bufferSize={}",
+                path != null ? path.toAbsolutePath() : STDOUT, bufferSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 记录一次访问（请求线程调用，不阻塞）
+     *
+     * @param method         请求方法
+     * @param path           请求路径（不含查询参数）
+     * @param status         响应状态码，未知为 0
+     * @param durationNanos  处理耗时（纳秒）
+     * @param clientIp       客户端IP
+     * @param userId         用户ID，匿名为 null
+     * @param routeId        路由ID，未匹配为 null
+     */
+    public void log(String method, String path, int status, long durationNanos,
+                    String clientIp, String userId, String routeId) {
+        if (!enabled) {
+            return;
+        }
+        if (status >= 200 && status < 300 && routeId != null && sampledRoutes.contains(routeId)
+                && ThreadLocalRandom.current().nextDouble() >= successSampleRate) {
+            sampledOut.incrementAndGet();
+            return;
+        }
+
+        long position = ringBuffer.claim();
+        if (position < 0) {
+            dropped.incrementAndGet();
+            return;
+        }
+        AccessLogRecord record = ringBuffer.get(position);
+        record.timestampMillis = System.currentTimeMillis();
+        record.method = method;
+        record.path = path;
+        record.status = status;
+        record.durationMicros = TimeUnit.NANOSECONDS.toMicros(durationNanos);
+        record.clientIp = clientIp;
+        record.userId = userId;
+        record.routeId = routeId;
+        ringBuffer.publish(position);
+    }
+
+    /**
+     * 丢弃的日志条数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 写日志线程：取出所有已发布记录编码到缓冲区，缓冲区将满或本轮取空时写文件；
+     * 无记录时休眠 flush-interval
+     */
+    private void runWriter() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        while (true) {
+            boolean stopping = !running;
+            AccessLogRecord record;
+            while ((record = ringBuffer.peek()) != null) {
+                if (buffer.remaining() < JsonLineEncoder.MAX_RECORD_BYTES) {
+                    write(buffer);
+                }
+                encoder.encode(record, buffer);
+                ringBuffer.release();
+            }
+            if (buffer.position() > 0) {
+                write(buffer);
+            }
+            checkReopen();
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+        }
+        if (path == null) {
+            // 不关闭标准输出
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("关闭访问日志文件失败: {}", e.getMessage());
+        }
+    }
+
+    private void write(ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            if (path != null && fileSize > 0 && fileSize + buffer.remaining() > maxFileSize) {
+                rotate();
+            }
+            int bytes = buffer.remaining();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            fileSize += bytes;
+        } catch (IOException e) {
+            log.warn("写入访问日志失败，丢弃本批: {}", e.getMessage());
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 按大小滚动：access.log.(n-1) → access.log.n，最旧的一个删除，当前文件 → access.log.1
+     */
+    private void rotate() throws IOException {
+        channel.close();
+        if (maxHistory > 0) {
+            Files.deleteIfExists(archive(maxHistory));
+            for (int i = maxHistory - 1; i >= 1; i--) {
+                Path source = archive(i);
+                if (Files.exists(source)) {
+                    Files.move(source, archive(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(path, archive(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(path);
+        }
+        openFile();
+    }
+
+    /**
+     * 文件被外部移走或删除（logrotate 等）时重新打开同名文件，不再写入旧文件
+     */
+    private void checkReopen() {
+        if (path == null) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - nextReopenCheckNanos < 0) {
+            return;
+        }
+        nextReopenCheckNanos = now + TimeUnit.MILLISECONDS.toNanos(reopenIntervalMillis);
+        try {
+            boolean moved;
+            try {
+                Object currentKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+                // 文件系统不提供 fileKey 时只能发现删除 / 移走后未重建的情况
+                moved = currentKey != null && !Objects.equals(currentKey, fileKey);
+            } catch (NoSuchFileException e) {
+                moved = true;
+            }
+            if (moved || !channel.isOpen()) {
+                channel.close();
+                openFile();
+                log.info("访问日志文件已被移走，重新打开: {}", path.toAbsolutePath());
+            }
+        } catch (IOException e) {
+            log.warn("重新打开访问日志失败: {}", e.getMessage());
+        }
+    }
+
+    private void openFile() throws IOException {
+        FileChannel fileChannel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.channel = fileChannel;
+        this.fileSize = fileChannel.size();
+        this.fileKey = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+    }
+
+    private Path archive(int index) {
+        return path.resolveSibling(path.getFileName() + "." + index);
+    }
+}
@@ -0,0 +1,106 @@
+package com.hkd.gateway.accesslog;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 将访问日志记录编码为一行 JSON（UTF-8），直接写入复用的 ByteBuffer，不产生中间对象
+ *
+ * 字符串字段按长度截断，保证单条记录不超过 {@link #MAX_RECORD_BYTES}
+ *
+ * @author HKD Team
+ */
+final class JsonLineEncoder {
+
+    /**
+     * 单条记录编码后的最大字节数（路径最多 2048 字符，每字符最多 6 字节转义）
+     */
+    static final int MAX_RECORD_BYTES = 16 * 1024;
+
+    private static final int MAX_PATH_CHARS = 2048;
+    private static final int MAX_FIELD_CHARS = 128;
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final byte[] digits = new byte[20];
+
+    void encode(AccessLogRecord record, ByteBuffer out) {
+        putAscii(out, "{\"ts\":");
+        putLong(out, record.timestampMillis);
+        putAscii(out, ",\"method\":");
+        putString(out, record.method, MAX_FIELD_CHARS);
+        putAscii(out, ",\"path\":");
+        putString(out, record.path, MAX_PATH_CHARS);
+        putAscii(out, ",\"status\":");
+        putLong(out, record.status);
+        putAscii(out, ",\"duration_us\":");
+        putLong(out, record.durationMicros);
+        putAscii(out, ",\"ip\":");
+        putString(out, record.clientIp, MAX_FIELD_CHARS);
+        putAscii(out, ",\"user_id\":");
+        putString(out, record.userId, MAX_FIELD_CHARS);
+        putAscii(out, ",\"route\":");
+        putString(out, record.routeId, MAX_FIELD_CHARS);
+        out.put((byte) '}');
+        out.put((byte) '\n');
+    }
+
+    private static void putAscii(ByteBuffer out, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            out.put((byte) s.charAt(i));
+        }
+    }
+
+    private void putLong(ByteBuffer out, long value) {
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+        int pos = digits.length;
+        do {
+            digits[--pos] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        out.put(digits, pos, digits.length - pos);
+    }
+
+    private static void putString(ByteBuffer out, String s, int maxChars) {
+        if (s == null) {
+            putAscii(out, "null");
+            return;
+        }
+        out.put((byte) '"');
+        int length = Math.min(s.length(), maxChars);
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.put((byte) '\\');
+                out.put((byte) c);
+            } else if (c < 0x20) {
+                out.put((byte) '\\');
+                out.put((byte) 'u');
+                out.put((byte) '0');
+                out.put((byte) '0');
+                out.put(HEX[c >> 4]);
+                out.put(HEX[c & 0xF]);
+            } else if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                out.put((byte) (0xF0 | (cp >> 18)));
+                out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (cp & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        out.put((byte) '"');
+    }
+}
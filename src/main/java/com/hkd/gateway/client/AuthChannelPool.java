@@ -0,0 +1,174 @@
+package com.hkd.gateway.client;
+
+import com.hkd.gateway.config.AuthChannelPoolProperties;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ConnectivityState;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelFactory;
+import net.devh.boot.grpc.client.config.GrpcChannelProperties;
+import net.devh.boot.grpc.client.config.GrpcChannelsProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * auth-service gRPC 连接池
+ *
+ * 单个 HTTP/2 连接受 max-concurrent-streams 和队头阻塞限制，这里按 hkd.auth.channel-pool.size 建立多个 Channel，
+ * 每个 Channel 使用 grpc.client.auth-service 的配置（nacos:// 地址下按 round_robin 对每个实例各保持一条连接）。
+ * 每次调用随机取两个 Channel，交给在途调用较少的一个，连接数和吞吐随实例数、池大小线性增长
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class AuthChannelPool extends Channel {
+
+    /**
+     * grpc.client 下的客户端名；池内第 i 个 Channel 命名为 auth-service-i（第 0 个沿用原名）
+     */
+    public static final String CLIENT_NAME = "auth-service";
+
+    @Autowired
+    private GrpcChannelFactory channelFactory;
+
+    @Autowired
+    private GrpcChannelsProperties channelsProperties;
+
+    @Autowired
+    private AuthChannelPoolProperties properties;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    private String[] names;
+    private Channel[] channels;
+    private AtomicIntegerArray inFlight;
+
+    @PostConstruct
+    public void init() {
+        int size = Math.max(1, properties.getSize());
+        GrpcChannelProperties base = channelsProperties.getChannel(CLIENT_NAME);
+        this.names = new String[size];
+        this.channels = new Channel[size];
+        this.inFlight = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            String name = i == 0 ? CLIENT_NAME : CLIENT_NAME + "-" + i;
+            if (i > 0) {
+                GrpcChannelProperties copy = new GrpcChannelProperties();
+                copy.copyDefaultsFrom(base);
+                channelsProperties.getClient().put(name, copy);
+            }
+            names[i] = name;
+            channels[i] = channelFactory.createChannel(name);
+        }
+        gatewayMetrics.registerAuthChannelPool(this);
+        log.info("auth-service gRPC 连接池已创建: address={}, channels={}, loadBalancingPolicy={}",
+                base.getAddress(), size, base.getDefaultLoadBalancingPolicy());
+    }
+
+    public static boolean isPoolChannel(String name) {
+        return name.equals(CLIENT_NAME) || name.startsWith(CLIENT_NAME + "-");
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        int index = choose();
+        inFlight.incrementAndGet(index);
+        try {
+            return new CountedCall<>(channels[index].newCall(method, callOptions), index);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet(index);
+            throw e;
+        }
+    }
+
+    @Override
+    public String authority() {
+        return channels[0].authority();
+    }
+
+    /**
+     * 两次随机选择取在途调用较少的 Channel
+     */
+    private int choose() {
+        int size = channels.length;
+        if (size == 1) {
+            return 0;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        return inFlight.get(first) <= inFlight.get(second) ? first : second;
+    }
+
+    public int getSize() {
+        return channels.length;
+    }
+
+    public int getInFlight() {
+        int total = 0;
+        for (int i = 0; i < inFlight.length(); i++) {
+            total += inFlight.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * 处于 READY 状态的 Channel 数
+     */
+    public int getReadyChannels() {
+        Map<String, ConnectivityState> states = channelFactory.getConnectivityState();
+        int ready = 0;
+        for (String name : names) {
+            if (states.get(name) == ConnectivityState.READY) {
+                ready++;
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * 调用结束（onClose）时归还在途计数
+     */
+    private final class CountedCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+
+        private final int index;
+
+        CountedCall(ClientCall<ReqT, RespT> delegate, int index) {
+            super(delegate);
+            this.index = index;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            try {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        inFlight.decrementAndGet(index);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            } catch (RuntimeException e) {
+                inFlight.decrementAndGet(index);
+                throw e;
+            }
+        }
+    }
+}
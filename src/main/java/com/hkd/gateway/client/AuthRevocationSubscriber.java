@@ -0,0 +1,222 @@
+package com.hkd.gateway.client;
+
+import com.hkd.auth.grpc.AuthServiceGrpc;
+import com.hkd.auth.grpc.RevocationEvent;
+import com.hkd.auth.grpc.SubscribeRevocationsRequest;
+import com.hkd.gateway.service.TokenRevocationListener;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token吊销事件订阅器
+ * 通过 auth-service 的 SubscribeRevocations 服务端流接收吊销推送，
+ * 分发给网关侧所有 {@link TokenRevocationListener}（如 Token 验证缓存）
+ *
+ * - 流中断后指数退避重连；每次连接成功（含首次）都通知监听器清空缓存，连接之前验证的结果可能错过了吊销事件
+ * - 超过 heartbeat-timeout 未收到任何事件（含心跳）视为断开：连接还在但服务端已不再推送时，主动取消并重新订阅
+ * - 流断开期间，Token 验证缓存只使用 hkd.auth.token-cache.disconnected-ttl 内验证过的结果
+ * - 可通过 grpc.client.auth-service.address=in-process:&lt;name&gt; 对接进程内 gRPC 服务测试
+ *
+ * @author HKD Team
+ */
+@Slf4j
+@Component
+public class AuthRevocationSubscriber {
+
+    @Autowired
+    private AuthServiceGrpc.AuthServiceStub authServiceStub;
+
+    @Autowired
+    private List<TokenRevocationListener> listeners;
+
+    @Value("${hkd.auth.revocation.enabled}")
+    private boolean enabled;
+
+    @Value("${hkd.auth.revocation.min-backoff}")
+    private long minBackoffMillis;
+
+    @Value("${hkd.auth.revocation.max-backoff}")
+    private long maxBackoffMillis;
+
+    @Value("${hkd.auth.revocation.heartbeat-timeout}")
+    private long heartbeatTimeoutMillis;
+
+    private final String subscriberId = "gateway-" + UUID.randomUUID();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile long connectedSince;
+    private volatile ClientCallStreamObserver<SubscribeRevocationsRequest> call;
+    private volatile Disposable pendingReconnect;
+    private Disposable heartbeatWatchdog;
+    private long backoffMillis;
+
+    /**
+     * 当前订阅是否在进行中（已发起、尚未结束），以及最近一次收到事件（或发起订阅）的时间
+     */
+    private volatile boolean streaming;
+    private volatile long lastEventNanos;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Token吊销推送未启用");
+            return;
+        }
+        running = true;
+        backoffMillis = minBackoffMillis;
+        subscribe();
+        heartbeatWatchdog = Flux.interval(Duration.ofMillis(Math.max(100, heartbeatTimeoutMillis / 4)))
+                .subscribe(tick -> checkHeartbeat());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (heartbeatWatchdog != null) {
+            heartbeatWatchdog.dispose();
+        }
+        Disposable reconnect = pendingReconnect;
+        if (reconnect != null) {
+            reconnect.dispose();
+        }
+        ClientCallStreamObserver<SubscribeRevocationsRequest> current = call;
+        if (current != null) {
+            current.cancel("gateway shutdown", null);
+        }
+    }
+
+    /**
+     * 是否启用了吊销推送（未启用时缓存只依赖 TTL）
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 吊销推送流当前是否已连接
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * 本次连接建立的时间（毫秒）；此后的吊销事件均已送达
+     */
+    public long getConnectedSince() {
+        return connectedSince;
+    }
+
+    private void subscribe() {
+        if (!running) {
+            return;
+        }
+        SubscribeRevocationsRequest request = SubscribeRevocationsRequest.newBuilder()
+                .setSubscriberId(subscriberId)
+                .build();
+        lastEventNanos = System.nanoTime();
+        streaming = true;
+        authServiceStub.subscribeRevocations(request, new RevocationObserver());
+    }
+
+    /**
+     * 订阅进行中却超过 heartbeat-timeout 没有收到事件时取消本次订阅，由 onError 触发重连
+     */
+    private void checkHeartbeat() {
+        ClientCallStreamObserver<SubscribeRevocationsRequest> current = call;
+        if (!streaming || current == null
+                || System.nanoTime() - lastEventNanos < TimeUnit.MILLISECONDS.toNanos(heartbeatTimeoutMillis)) {
+            return;
+        }
+        log.warn("Token吊销推送流 {}ms 内未收到任何事件，重新订阅", heartbeatTimeoutMillis);
+        streaming = false;
+        connected = false;
+        current.cancel("heartbeat timeout", null);
+    }
+
+    private synchronized void onConnected() {
+        if (connected) {
+            return;
+        }
+        connectedSince = System.currentTimeMillis();
+        connected = true;
+        backoffMillis = minBackoffMillis;
+        // 连接之前（启动后尚未连上或断线期间）可能丢失吊销事件，清空全部缓存
+        listeners.forEach(TokenRevocationListener::onRevocationStreamReset);
+        log.info("Token吊销推送流已连接: subscriberId={}", subscriberId);
+    }
+
+    private synchronized void scheduleReconnect() {
+        streaming = false;
+        connected = false;
+        if (!running) {
+            return;
+        }
+        long delay = backoffMillis;
+        backoffMillis = Math.min(backoffMillis * 2, maxBackoffMillis);
+        log.warn("Token吊销推送流断开，{}ms 后重连", delay);
+        pendingReconnect = Mono.delay(Duration.ofMillis(delay))
+                .subscribe(tick -> subscribe());
+    }
+
+    private void dispatch(RevocationEvent event) {
+        switch (event.getType()) {
+            case REVOCATION_TYPE_TOKEN -> listeners.forEach(l -> l.onTokenRevoked(event.getTokenHash()));
+            case REVOCATION_TYPE_USER -> listeners.forEach(l -> l.onUserRevoked(event.getUserId(), event.getRevokedAt()));
+            case REVOCATION_TYPE_HEARTBEAT -> log.trace("收到吊销推送心跳");
+            default -> log.warn("未知的吊销事件类型: {}", event.getType());
+        }
+    }
+
+    /**
+     * 吊销流观察者：首个事件（服务端在订阅建立后立即发送心跳）到达即视为连接成功
+     */
+    private class RevocationObserver
+            implements ClientResponseObserver<SubscribeRevocationsRequest, RevocationEvent> {
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<SubscribeRevocationsRequest> requestStream) {
+            call = requestStream;
+        }
+
+        @Override
+        public void onNext(RevocationEvent event) {
+            lastEventNanos = System.nanoTime();
+            if (!connected) {
+                onConnected();
+            }
+            try {
+                dispatch(event);
+            } catch (Exception e) {
+                log.error("处理吊销事件失败: {}", event, e);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.warn("Token吊销推送流异常: {}", t.getMessage());
+            scheduleReconnect();
+        }
+
+        @Override
+        public void onCompleted() {
+            log.warn("Token吊销推送流被服务端关闭");
+            scheduleReconnect();
+        }
+    }
+}
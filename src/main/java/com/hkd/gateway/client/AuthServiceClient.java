@@ -1,21 +1,51 @@
 package com.hkd.gateway.client;
 
 import com.hkd.auth.grpc.AuthServiceGrpc;
+import com.hkd.auth.grpc.BatchValidateTokenRequest;
+import com.hkd.auth.grpc.BatchValidateTokenResponse;
+import com.hkd.auth.grpc.GetSigningKeysRequest;
+import com.hkd.auth.grpc.GetSigningKeysResponse;
 import com.hkd.auth.grpc.ValidateTokenRequest;
 import com.hkd.auth.grpc.ValidateTokenResponse;
+import com.hkd.gateway.client.ValidateTokenBatcher.PendingValidation;
+import com.hkd.gateway.exception.AuthException;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.metrics.GatewayMetrics.AuthRpc;
+import com.hkd.gateway.service.HedgePolicy;
+import com.hkd.gateway.service.RequestHedging;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.grpc.Deadline;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
-import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Auth Service gRPC Client
  * 负责与 auth-service 通信验证 JWT Token
- * 使用熔断器保护 gRPC 调用
+ * 使用异步 stub + 响应式熔断器，不阻塞 Netty 事件循环线程
+ *
+ * 开启微批后，并发的验证请求会合并为一次 BatchValidateToken 调用，
+ * 结果再按顺序分发回各自的 Mono；auth-service 不支持批量接口时自动退回单个调用
+ *
+ * 调用经 {@link AuthChannelPool} 分散到多个 Channel 和 auth-service 实例，不受单条 HTTP/2 连接的并发流上限约束
+ *
+ * 开启对冲（hkd.hedging.auth）后，调用超过对冲延迟仍未返回时再发一次，取先返回的结果；
+ * 两次调用共用同一个截止时间（随 grpc-timeout 传给 auth-service），对冲不会延长总耗时上限
  *
  * @author HKD Team
  */
@@ -23,48 +53,247 @@ import java.util.concurrent.TimeUnit;
 @Service
 public class AuthServiceClient {
 
-    @GrpcClient("auth-service")
-    private AuthServiceGrpc.AuthServiceBlockingStub authServiceStub;
+    /**
+     * gRPC 调用超时时间（100ms，因为是内网调用，要求高性能）
+     */
+    private static final long DEADLINE_MILLIS = 100;
+
+    /**
+     * 获取验签公钥的超时时间（后台刷新，不在请求路径上）
+     */
+    private static final long KEYS_DEADLINE_MILLIS = 3000;
+
+    @Autowired
+    private AuthServiceGrpc.AuthServiceStub authServiceStub;
 
     @Autowired
     private CircuitBreaker authServiceCircuitBreaker;
 
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    @Autowired
+    private RequestHedging requestHedging;
+
+    @Value("${hkd.auth.batch.enabled}")
+    private boolean batchEnabled;
+
+    @Value("${hkd.auth.batch.max-size}")
+    private int batchMaxSize;
+
+    @Value("${hkd.auth.batch.max-delay}")
+    private long batchMaxDelayMicros;
+
+    private ValidateTokenBatcher batcher;
+
+    /**
+     * auth-service 是否支持 BatchValidateToken（返回 UNIMPLEMENTED 后置为 false）
+     */
+    private volatile boolean batchSupported = true;
+
+    @PostConstruct
+    public void init() {
+        if (batchEnabled) {
+            this.batcher = new ValidateTokenBatcher(batchMaxSize, batchMaxDelayMicros,
+                    Schedulers.parallel(), this::sendBatch);
+        }
+    }
+
     /**
      * 验证 JWT Token（使用熔断器保护）
      *
+     * 每次订阅发起一次验证，结果在 gRPC 回调线程上发出；
+     * 调用失败或熔断器打开时以 {@link AuthException} 结束。
+     *
      * @param accessToken JWT Access Token
      * @return ValidateTokenResponse 验证结果
      */
-    public ValidateTokenResponse validateToken(String accessToken) {
-        // 🔥 使用熔断器包装 gRPC 调用
-        return authServiceCircuitBreaker.executeSupplier(() -> {
-            try {
-                ValidateTokenRequest request = ValidateTokenRequest.newBuilder()
-                        .setAccessToken(accessToken)
-                        .build();
+    public Mono<ValidateTokenResponse> validateToken(String accessToken) {
+        Mono<ValidateTokenResponse> call = batcher != null && batchSupported
+                ? Mono.create(sink -> batcher.add(accessToken, sink))
+                : callValidateToken(accessToken);
+        return call.onErrorMap(e -> !(e instanceof AuthException), this::toAuthException);
+    }
+
+    /**
+     * 获取 JWT 验签公钥（本地验签模式使用）
+     *
+     * 后台定期调用，不经过熔断器，避免影响 ValidateToken 的熔断统计
+     *
+     * @return GetSigningKeysResponse 当前有效的公钥列表
+     */
+    public Mono<GetSigningKeysResponse> getSigningKeys() {
+        return Mono.<GetSigningKeysResponse>create(sink -> authServiceStub
+                        .withDeadlineAfter(KEYS_DEADLINE_MILLIS, TimeUnit.MILLISECONDS)
+                        .getSigningKeys(GetSigningKeysRequest.getDefaultInstance(),
+                                new UnaryObserver<>(sink, null, null)))
+                .onErrorMap(e -> !(e instanceof AuthException), this::toAuthException);
+    }
+
+    /**
+     * 单个 ValidateToken 调用
+     */
+    private Mono<ValidateTokenResponse> callValidateToken(String accessToken) {
+        ValidateTokenRequest request = ValidateTokenRequest.newBuilder()
+                .setAccessToken(accessToken)
+                .build();
+        return Mono.defer(() -> {
+                    Deadline deadline = Deadline.after(DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+                    return hedged(Mono.<ValidateTokenResponse>create(sink -> authServiceStub
+                            .withDeadline(deadline)
+                            .validateToken(request, new UnaryObserver<>(sink, gatewayMetrics, AuthRpc.VALIDATE))),
+                            deadline);
+                })
+                .doOnNext(response -> {
+                    gatewayMetrics.recordTokenResult(response.getValid());
+                    log.debug("Token验证结果: valid={}, userId={}", response.getValid(), response.getUserId());
+                })
+                // 🔥 使用响应式熔断器包装 gRPC 调用，失败会被熔断器记录
+                .transformDeferred(CircuitBreakerOperator.of(authServiceCircuitBreaker));
+    }
+
+    /**
+     * BatchValidateToken 调用，一批只经过一次熔断器
+     */
+    private Mono<BatchValidateTokenResponse> callBatchValidateToken(List<String> accessTokens) {
+        BatchValidateTokenRequest request = BatchValidateTokenRequest.newBuilder()
+                .addAllAccessTokens(accessTokens)
+                .build();
+        return Mono.defer(() -> {
+                    Deadline deadline = Deadline.after(DEADLINE_MILLIS, TimeUnit.MILLISECONDS);
+                    return hedged(Mono.<BatchValidateTokenResponse>create(sink -> authServiceStub
+                            .withDeadline(deadline)
+                            .batchValidateToken(request,
+                                    new UnaryObserver<>(sink, gatewayMetrics, AuthRpc.BATCH_VALIDATE))),
+                            deadline);
+                })
+                .transformDeferred(CircuitBreakerOperator.of(authServiceCircuitBreaker));
+    }
+
+    /**
+     * 按 auth-service 对冲策略执行调用：对冲调用与首发调用相同（每次订阅发起一次新调用），
+     * 由连接池选择在途较少的 Channel，通常落到另一个实例；熔断器在对冲之外，一次验证只记录一次结果
+     */
+    private <T> Mono<T> hedged(Mono<T> call, Deadline deadline) {
+        HedgePolicy policy = requestHedging.forAuth();
+        if (policy == null) {
+            return call;
+        }
+        return policy.execute(call, call, deadline.timeRemaining(TimeUnit.NANOSECONDS));
+    }
+
+    /**
+     * 发送一批验证请求，并将结果分发回等待中的 Mono
+     */
+    private void sendBatch(List<PendingValidation> batch) {
+        if (batch.size() == 1 || !batchSupported) {
+            batch.forEach(this::sendSingle);
+            return;
+        }
 
-                // 设置超时时间（100ms，因为是内网调用，要求高性能）
-                ValidateTokenResponse response = authServiceStub
-                        .withDeadlineAfter(100, TimeUnit.MILLISECONDS)
-                        .validateToken(request);
+        List<String> tokens = new ArrayList<>(batch.size());
+        for (PendingValidation pending : batch) {
+            tokens.add(pending.accessToken());
+        }
 
-                log.debug("Token验证结果: valid={}, userId={}",
-                        response.getValid(), response.getUserId());
+        callBatchValidateToken(tokens).subscribe(
+                response -> {
+                    if (response.getResultsCount() != batch.size()) {
+                        AuthException error = new AuthException("Batch result size mismatch: expected "
+                                + batch.size() + ", got " + response.getResultsCount());
+                        batch.forEach(pending -> pending.sink().error(error));
+                        return;
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        ValidateTokenResponse result = response.getResults(i);
+                        gatewayMetrics.recordTokenResult(result.getValid());
+                        batch.get(i).sink().success(result);
+                    }
+                    log.debug("批量Token验证完成: size={}", batch.size());
+                },
+                e -> {
+                    if (e instanceof StatusRuntimeException sre
+                            && sre.getStatus().getCode() == Status.Code.UNIMPLEMENTED) {
+                        log.warn("auth-service 不支持 BatchValidateToken，退回单个验证");
+                        batchSupported = false;
+                        batch.forEach(this::sendSingle);
+                        return;
+                    }
+                    batch.forEach(pending -> pending.sink().error(e));
+                });
+    }
 
-                return response;
+    private void sendSingle(PendingValidation pending) {
+        MonoSink<ValidateTokenResponse> sink = pending.sink();
+        callValidateToken(pending.accessToken()).subscribe(sink::success, sink::error);
+    }
 
-            } catch (StatusRuntimeException e) {
-                log.error("调用 auth-service 失败: {}", e.getStatus(), e);
+    /**
+     * 将 gRPC / 熔断器异常统一转换为认证异常
+     */
+    private AuthException toAuthException(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            log.warn("auth-service 熔断器已打开，拒绝调用");
+            return new AuthException("Auth service circuit open", e);
+        }
+        if (e instanceof StatusRuntimeException sre) {
+            log.error("调用 auth-service 失败: {}", sre.getStatus(), e);
+            return new AuthException("Auth service unavailable", e);
+        }
+        log.error("调用 auth-service 出现异常", e);
+        return new AuthException("Auth service error", e);
+    }
 
-                // 抛出异常让熔断器记录失败
-                throw new RuntimeException("Auth service unavailable", e);
+    /**
+     * 一元调用的响应观察者，将结果转交给 MonoSink，并记录调用耗时（rpc 为 null 时不记录）
+     *
+     * 订阅方取消（如对冲中落选的调用）时取消 gRPC 调用，被取消的调用不记录耗时
+     */
+    private static class UnaryObserver<Q, T> implements ClientResponseObserver<Q, T> {
+
+        private final MonoSink<T> sink;
+        private final GatewayMetrics metrics;
+        private final AuthRpc rpc;
+        private final long startNanos;
+        private volatile boolean cancelled;
 
-            } catch (Exception e) {
-                log.error("调用 auth-service 出现异常", e);
+        UnaryObserver(MonoSink<T> sink, GatewayMetrics metrics, AuthRpc rpc) {
+            this.sink = sink;
+            this.metrics = metrics;
+            this.rpc = rpc;
+            this.startNanos = System.nanoTime();
+        }
 
-                // 抛出异常让熔断器记录失败
-                throw new RuntimeException("Auth service error", e);
+        @Override
+        public void beforeStart(ClientCallStreamObserver<Q> requestStream) {
+            sink.onCancel(() -> {
+                cancelled = true;
+                requestStream.cancel("Cancelled by caller", null);
+            });
+        }
+
+        @Override
+        public void onNext(T value) {
+            if (rpc != null) {
+                metrics.recordAuthRpc(rpc, null, System.nanoTime() - startNanos);
             }
-        });
+            sink.success(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (cancelled) {
+                return;
+            }
+            if (rpc != null) {
+                metrics.recordAuthRpc(rpc, t, System.nanoTime() - startNanos);
+            }
+            sink.error(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            // 一元调用在 onNext 中已完成
+        }
     }
 }
@@ -0,0 +1,164 @@
+package com.hkd.gateway.client;
+
+import com.alibaba.nacos.api.exception.NacosException;
+import com.alibaba.nacos.api.naming.NamingService;
+import com.alibaba.nacos.api.naming.listener.Event;
+import com.alibaba.nacos.api.naming.listener.EventListener;
+import com.alibaba.nacos.api.naming.listener.NamingEvent;
+import com.alibaba.nacos.api.naming.pojo.Instance;
+import io.grpc.Attributes;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 基于 Nacos 的 gRPC 地址解析
+ *
+ * 启动时查询一次健康实例，之后订阅 Nacos 推送，实例上下线无需等待轮询即更新地址列表；
+ * gRPC 在连接失败时调用 {@link #refresh()} 会再主动查询一次。
+ * Nacos 调用可能阻塞，均在 offload 线程池执行，结果回到 SynchronizationContext 中通知 Channel
+ *
+ * @author HKD Team
+ */
+@Slf4j
+final class NacosNameResolver extends NameResolver {
+
+    /**
+     * 实例元数据中的 gRPC 端口（与 grpc-spring-boot-starter 的 discovery:// 约定一致），未设置时使用注册端口
+     */
+    static final String GRPC_PORT_METADATA = "gRPC_port";
+
+    private final String serviceName;
+    private final String groupName;
+    private final NamingService namingService;
+    private final SynchronizationContext syncContext;
+    private final Executor executor;
+    private final EventListener subscription = this::onNamingEvent;
+
+    // 以下字段只在 syncContext 中访问
+    private Listener2 listener;
+    private boolean resolving;
+    private boolean shutdown;
+
+    NacosNameResolver(String serviceName, String groupName, NamingService namingService, Args args) {
+        this.serviceName = serviceName;
+        this.groupName = groupName;
+        this.namingService = namingService;
+        this.syncContext = args.getSynchronizationContext();
+        this.executor = args.getOffloadExecutor();
+    }
+
+    @Override
+    public String getServiceAuthority() {
+        return serviceName;
+    }
+
+    @Override
+    public void start(Listener2 listener) {
+        this.listener = listener;
+        executor.execute(() -> {
+            try {
+                namingService.subscribe(serviceName, groupName, subscription);
+            } catch (NacosException e) {
+                // 订阅失败时仍可依靠 refresh() 查询，连接失败会触发刷新
+                log.warn("订阅 Nacos 服务变更失败: service={}, group={}", serviceName, groupName, e);
+            }
+        });
+        resolve();
+    }
+
+    @Override
+    public void refresh() {
+        resolve();
+    }
+
+    @Override
+    public void shutdown() {
+        if (shutdown) {
+            return;
+        }
+        shutdown = true;
+        executor.execute(() -> {
+            try {
+                namingService.unsubscribe(serviceName, groupName, subscription);
+            } catch (NacosException e) {
+                log.debug("取消订阅 Nacos 服务变更失败: service={}", serviceName, e);
+            }
+        });
+    }
+
+    private void resolve() {
+        if (resolving || shutdown) {
+            return;
+        }
+        resolving = true;
+        executor.execute(() -> {
+            try {
+                List<Instance> instances = namingService.selectInstances(serviceName, groupName, true);
+                syncContext.execute(() -> {
+                    resolving = false;
+                    publish(instances);
+                });
+            } catch (NacosException | RuntimeException e) {
+                syncContext.execute(() -> {
+                    resolving = false;
+                    if (!shutdown) {
+                        listener.onError(Status.UNAVAILABLE
+                                .withDescription("查询 Nacos 实例失败: " + serviceName).withCause(e));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Nacos 推送线程回调
+     */
+    private void onNamingEvent(Event event) {
+        if (event instanceof NamingEvent namingEvent) {
+            List<Instance> instances = namingEvent.getInstances();
+            syncContext.execute(() -> publish(instances));
+        }
+    }
+
+    private void publish(List<Instance> instances) {
+        if (shutdown) {
+            return;
+        }
+        List<EquivalentAddressGroup> addresses = new ArrayList<>(instances.size());
+        for (Instance instance : instances) {
+            if (instance.isHealthy() && instance.isEnabled() && instance.getWeight() > 0) {
+                addresses.add(new EquivalentAddressGroup(new InetSocketAddress(instance.getIp(), portOf(instance))));
+            }
+        }
+        if (addresses.isEmpty()) {
+            listener.onError(Status.UNAVAILABLE.withDescription("Nacos 中没有可用实例: " + serviceName));
+            return;
+        }
+        log.debug("auth-service 地址更新: service={}, instances={}", serviceName, addresses.size());
+        listener.onResult(ResolutionResult.newBuilder()
+                .setAddresses(addresses)
+                .setAttributes(Attributes.EMPTY)
+                .build());
+    }
+
+    private static int portOf(Instance instance) {
+        String grpcPort = instance.getMetadata() != null ? instance.getMetadata().get(GRPC_PORT_METADATA) : null;
+        if (grpcPort != null) {
+            try {
+                return Integer.parseInt(grpcPort.trim());
+            } catch (NumberFormatException e) {
+                log.warn("实例 gRPC 端口元数据无效，使用注册端口: instance={}:{}, {}={}",
+                        instance.getIp(), instance.getPort(), GRPC_PORT_METADATA, grpcPort);
+            }
+        }
+        return instance.getPort();
+    }
+}
@@ -0,0 +1,87 @@
+package com.hkd.gateway.client;
+
+import com.alibaba.cloud.nacos.NacosDiscoveryProperties;
+import com.alibaba.cloud.nacos.NacosServiceManager;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * nacos:// 地址解析提供者（由 grpc-spring-boot-starter 注册到 gRPC NameResolverRegistry）
+ *
+ * 地址格式：nacos://{服务名}，可选 ?group={分组}，未指定时使用 spring.cloud.nacos.discovery.group
+ *
+ * @author HKD Team
+ */
+@Component
+public class NacosNameResolverProvider extends NameResolverProvider {
+
+    public static final String SCHEME = "nacos";
+
+    @Autowired
+    private ObjectProvider<NacosServiceManager> nacosServiceManager;
+
+    @Autowired
+    private ObjectProvider<NacosDiscoveryProperties> nacosDiscoveryProperties;
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme())) {
+            return null;
+        }
+        String serviceName = targetUri.getAuthority();
+        if (!StringUtils.hasText(serviceName)) {
+            throw new IllegalArgumentException("nacos:// 地址缺少服务名: " + targetUri);
+        }
+        NacosServiceManager serviceManager = nacosServiceManager.getIfAvailable();
+        if (serviceManager == null) {
+            throw new IllegalStateException("nacos:// 地址需要启用 Nacos 服务发现: " + targetUri);
+        }
+        return new NacosNameResolver(serviceName, groupOf(targetUri), serviceManager.getNamingService(), args);
+    }
+
+    private String groupOf(URI targetUri) {
+        String query = targetUri.getQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("group=") && param.length() > "group=".length()) {
+                    return param.substring("group=".length());
+                }
+            }
+        }
+        NacosDiscoveryProperties properties = nacosDiscoveryProperties.getIfAvailable();
+        return properties != null ? properties.getGroup() : "DEFAULT_GROUP";
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * 低于 DNS（5），不会成为无 scheme 地址的默认解析方式
+     */
+    @Override
+    protected int priority() {
+        return 4;
+    }
+
+    @Override
+    public Collection<Class<? extends SocketAddress>> getProducedSocketAddressTypes() {
+        return List.of(InetSocketAddress.class);
+    }
+}
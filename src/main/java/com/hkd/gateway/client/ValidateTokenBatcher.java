@@ -0,0 +1,91 @@
+package com.hkd.gateway.client;
+
+import com.hkd.auth.grpc.ValidateTokenResponse;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * ValidateToken 微批合并器
+ * 收集待验证的Token，凑满 maxBatchSize 个或等待 maxDelayMicros 微秒后作为一批发送
+ *
+ * - 入队无锁，可被多个事件循环线程并发调用
+ * - 每个入队的请求最多等待 maxDelayMicros 即被发送
+ *
+ * @author HKD Team
+ */
+class ValidateTokenBatcher {
+
+    private final int maxBatchSize;
+    private final long maxDelayMicros;
+    private final Scheduler scheduler;
+    private final Consumer<List<PendingValidation>> sender;
+
+    private final Queue<PendingValidation> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicBoolean timerArmed = new AtomicBoolean();
+
+    ValidateTokenBatcher(int maxBatchSize, long maxDelayMicros, Scheduler scheduler,
+                         Consumer<List<PendingValidation>> sender) {
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayMicros = maxDelayMicros;
+        this.scheduler = scheduler;
+        this.sender = sender;
+    }
+
+    /**
+     * 加入一个待验证Token，结果通过 sink 回传
+     */
+    void add(String accessToken, MonoSink<ValidateTokenResponse> sink) {
+        queue.offer(new PendingValidation(accessToken, sink));
+        if (size.incrementAndGet() >= maxBatchSize) {
+            drain(false);
+        }
+        // 剩余未满批的请求由定时器兜底发送
+        if (!queue.isEmpty() && timerArmed.compareAndSet(false, true)) {
+            scheduler.schedule(this::onTimer, maxDelayMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    private void onTimer() {
+        timerArmed.set(false);
+        drain(true);
+    }
+
+    /**
+     * 按批取出队列中的请求并发送
+     *
+     * @param all true 时清空队列；false 时只发送满批
+     */
+    private void drain(boolean all) {
+        while (true) {
+            List<PendingValidation> batch = new ArrayList<>(maxBatchSize);
+            PendingValidation pending;
+            while (batch.size() < maxBatchSize && (pending = queue.poll()) != null) {
+                batch.add(pending);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            size.addAndGet(-batch.size());
+            sender.accept(batch);
+            if (!all && size.get() < maxBatchSize) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 等待批量验证结果的请求
+     */
+    record PendingValidation(String accessToken, MonoSink<ValidateTokenResponse> sink) {
+    }
+}
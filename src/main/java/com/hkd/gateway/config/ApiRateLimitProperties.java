@@ -0,0 +1,61 @@
+package com.hkd.gateway.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API限流配置（按路由）
+ *
+ * 每条路由一张限流表项，Key 为 spring.cloud.gateway.routes 中的路由ID；
+ * 未配置的路由使用 default-capacity
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "hkd.rate-limit.api")
+public class ApiRateLimitProperties {
+
+    /**
+     * 未单独配置的路由的默认容量（每秒补充数相同）
+     */
+    @Positive
+    private int defaultCapacity = 10;
+
+    /**
+     * 路由ID → 限流配置
+     */
+    private Map<String, @Valid RouteLimit> routes = new HashMap<>();
+
+    @Data
+    public static class RouteLimit {
+
+        /**
+         * 令牌桶容量
+         */
+        @Positive
+        private int capacity;
+
+        /**
+         * 每秒补充令牌数，未配置时等于容量
+         */
+        @Positive
+        private Integer refillRate;
+
+        /**
+         * 可选的路径模板（如 /api/v1/orders/{orderId}），命中的请求按模板单独计数；
+         * 未命中任何模板的请求按整条路由计数
+         */
+        private List<String> patterns = new ArrayList<>();
+    }
+}
@@ -0,0 +1,28 @@
+package com.hkd.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * auth-service gRPC 连接池配置
+ *
+ * 地址、协商方式、keep-alive、负载均衡策略等沿用 grpc.client.auth-service 下的配置，每个池内 Channel 相同
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.auth.channel-pool")
+public class AuthChannelPoolProperties {
+
+    /**
+     * Channel 数量；每个 Channel 对每个 auth-service 实例保持一条 HTTP/2 连接
+     */
+    private int size = 4;
+
+    /**
+     * Channel 无调用多久后进入空闲并断开连接 (秒)，0 表示不进入空闲，连接常驻
+     */
+    private long idleTimeout = 0;
+}
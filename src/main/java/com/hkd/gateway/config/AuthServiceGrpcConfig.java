@@ -0,0 +1,47 @@
+package com.hkd.gateway.config;
+
+import com.hkd.auth.grpc.AuthServiceGrpc;
+import com.hkd.gateway.client.AuthChannelPool;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auth Service gRPC 客户端配置
+ *
+ * 所有 auth-service 调用（ValidateToken、GetSigningKeys、SubscribeRevocations）共用 {@link AuthChannelPool}
+ *
+ * @author HKD Team
+ */
+@Configuration
+public class AuthServiceGrpcConfig {
+
+    /**
+     * gRPC 超过 30 天的空闲时间视为关闭空闲模式
+     */
+    private static final long IDLE_DISABLED_DAYS = 30;
+
+    @Bean
+    public AuthServiceGrpc.AuthServiceStub authServiceStub(AuthChannelPool channelPool) {
+        return AuthServiceGrpc.newStub(channelPool);
+    }
+
+    /**
+     * 池内 Channel 的空闲设置：默认不进入空闲，已建立的连接配合 keepAliveWithoutCalls 常驻
+     */
+    @Bean
+    public GrpcChannelConfigurer authChannelIdleConfigurer(AuthChannelPoolProperties properties) {
+        return (builder, name) -> {
+            if (!AuthChannelPool.isPoolChannel(name)) {
+                return;
+            }
+            if (properties.getIdleTimeout() > 0) {
+                builder.idleTimeout(properties.getIdleTimeout(), TimeUnit.SECONDS);
+            } else {
+                builder.idleTimeout(IDLE_DISABLED_DAYS, TimeUnit.DAYS);
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.hkd.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 认证白名单配置（不需要JWT验证的路径）
+ * 同时支持 YAML 列表和逗号分隔字符串两种写法
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.auth")
+public class AuthWhitelistProperties {
+
+    private List<String> whitelist = new ArrayList<>();
+}
@@ -0,0 +1,118 @@
+package com.hkd.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 自适应并发限制配置
+ *
+ * 对挂载了 AdaptiveConcurrency 过滤器的路由生效；routes 中按路由ID覆盖并发上下限，
+ * priorities 中的规则格式为 "METHOD /path/pattern" 或 "/path/pattern"（任意方法），匹配原始请求路径
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    /**
+     * 关闭后过滤器直接放行
+     */
+    private boolean enabled = true;
+
+    /**
+     * 初始并发上限
+     */
+    private int initialLimit = 20;
+
+    /**
+     * 并发上限的下界
+     */
+    private int minLimit = 5;
+
+    /**
+     * 并发上限的上界
+     */
+    private int maxLimit = 1000;
+
+    /**
+     * 每个窗口调整并发上限时，新估计值所占权重（0~1）
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * 容忍的 RTT 膨胀倍数：短期 RTT 不超过长期 RTT × tolerance 时不收缩
+     */
+    private double tolerance = 1.5;
+
+    /**
+     * 窗口内出现后端错误（5xx / 超时）时并发上限的收缩比例
+     */
+    private double backoffRatio = 0.9;
+
+    /**
+     * 采样窗口时长 (毫秒)
+     */
+    private long window = 100;
+
+    /**
+     * 窗口内最少样本数，不足时延长窗口
+     */
+    private int minWindowSamples = 10;
+
+    /**
+     * 两次基准 RTT 探测之间的窗口数（探测时并发上限减半两个窗口）
+     */
+    private int probeInterval = 300;
+
+    /**
+     * 低优先级请求可使用的并发比例（超过 上限 × 该比例 即被拒绝）
+     */
+    private double lowPriorityRatio = 0.75;
+
+    /**
+     * 关键请求可使用的并发比例（允许略超估计上限，最后被拒绝）
+     */
+    private double criticalPriorityRatio = 1.25;
+
+    /**
+     * 路由ID → 并发上下限覆盖
+     */
+    private Map<String, RouteLimit> routes = new HashMap<>();
+
+    /**
+     * 请求优先级规则
+     */
+    private Priorities priorities = new Priorities();
+
+    @Data
+    public static class RouteLimit {
+
+        private Integer initialLimit;
+
+        private Integer minLimit;
+
+        private Integer maxLimit;
+    }
+
+    @Data
+    public static class Priorities {
+
+        /**
+         * 关键请求（如撤单），过载时最后被拒绝
+         */
+        private List<String> critical = new ArrayList<>();
+
+        /**
+         * 低优先级请求（如历史查询），过载时最先被拒绝
+         */
+        private List<String> low = new ArrayList<>();
+    }
+}
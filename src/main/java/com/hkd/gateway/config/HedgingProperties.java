@@ -0,0 +1,72 @@
+package com.hkd.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 对冲请求配置（auth-service ValidateToken 和幂等路由的 GET / HEAD）
+ *
+ * 首发请求超过对冲延迟（按目标统计的延迟分位数）仍未返回时，向另一个实例再发一次，取先返回的结果。
+ * 所有目标共用一个对冲预算，对冲请求数不超过首发请求数的 budget-ratio（外加 budget-burst 的突发）
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.hedging")
+public class HedgingProperties {
+
+    /**
+     * 关闭后不发送对冲请求（请求截止时间仍照常计算和传递）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 对冲预算：每个首发请求积累的对冲额度，0.05 表示对冲请求最多为首发请求的 5%
+     */
+    private double budgetRatio = 0.05;
+
+    /**
+     * 对冲预算最多积累的对冲次数，限制流量低谷之后的突发
+     */
+    private int budgetBurst = 20;
+
+    /**
+     * 对冲延迟取首发请求延迟的该分位数
+     */
+    private double percentile = 0.95;
+
+    /**
+     * 统计窗口 (毫秒)：每个窗口结束时重新计算分位数
+     */
+    private long window = 10000;
+
+    /**
+     * 窗口内样本数不足时不更新分位数，窗口顺延；从未达到时不对冲
+     */
+    private int minSamples = 100;
+
+    /**
+     * 对冲延迟下限 (毫秒)，避免延迟很低时几乎每个请求都触发对冲
+     */
+    private long minDelay = 2;
+
+    /**
+     * 对冲延迟上限 (毫秒)
+     */
+    private long maxDelay = 1000;
+
+    /**
+     * 是否对冲 ValidateToken / BatchValidateToken 调用
+     */
+    private boolean auth = true;
+
+    /**
+     * 对冲 GET / HEAD 请求的路由ID（只应列出读接口幂等的路由）
+     */
+    private List<String> routes = new ArrayList<>();
+}
@@ -0,0 +1,31 @@
+package com.hkd.gateway.config;
+
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * IP限流配置（配置刷新后重新绑定，随策略快照生效）
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "hkd.rate-limit.ip")
+public class IpRateLimitProperties {
+
+    /**
+     * 令牌桶容量
+     */
+    @Positive
+    private int capacity = 100;
+
+    /**
+     * 每秒补充令牌数
+     */
+    @Positive
+    private int refillRate = 100;
+}
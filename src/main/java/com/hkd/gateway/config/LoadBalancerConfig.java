@@ -0,0 +1,16 @@
+package com.hkd.gateway.config;
+
+import com.hkd.gateway.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 负载均衡配置
+ * 所有 lb:// 服务默认使用 Peak-EWMA 实例选择（hkd.load-balancing.enabled=false 时恢复轮询）
+ *
+ * @author HKD Team
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
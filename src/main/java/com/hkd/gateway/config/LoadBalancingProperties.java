@@ -0,0 +1,41 @@
+package com.hkd.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * lb:// 路由的实例选择配置（Peak-EWMA + 两次随机选择）
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.load-balancing")
+public class LoadBalancingProperties {
+
+    /**
+     * 关闭后使用 Spring Cloud LoadBalancer 默认的轮询
+     */
+    private boolean enabled = true;
+
+    /**
+     * EWMA 衰减时间常数 (毫秒)：越小越快遗忘历史延迟
+     */
+    private long decayTime = 10000;
+
+    /**
+     * 新实例的初始延迟估计 (毫秒)，避免新实例因没有样本而被瞬间打满
+     */
+    private long initialRtt = 20;
+
+    /**
+     * 失败请求（5xx / 连接失败）按至少该延迟计入 (毫秒)，快速失败的实例不会因"延迟低"吸引更多流量
+     */
+    private long failurePenalty = 1000;
+
+    /**
+     * 后台刷新实例列表的间隔 (毫秒)；请求路径不查询注册中心
+     */
+    private long refreshInterval = 1000;
+}
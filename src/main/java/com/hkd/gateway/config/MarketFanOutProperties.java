@@ -0,0 +1,67 @@
+package com.hkd.gateway.config;
+
+import com.hkd.gateway.websocket.ClientOutbox.OverflowPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 行情 WebSocket 扇出配置（路由挂载 MarketDataFanOut 过滤器后生效）
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.market-fanout")
+public class MarketFanOutProperties {
+
+    /**
+     * 关闭后 WebSocket 连接仍按路由 1:1 代理到后端
+     */
+    private boolean enabled = true;
+
+    /**
+     * 行情服务ID（上游连接经负载均衡选择实例）
+     */
+    private String serviceId = "hkd-market-service";
+
+    /**
+     * 客户端路径前缀，其后的部分为连接时自动订阅的主题（如 /ws/market/ticker/BTC-HKD → ticker/BTC-HKD）
+     */
+    private String clientPathPrefix = "/ws/market/";
+
+    /**
+     * 上游路径前缀，上游连接地址 = 前缀 + 主题（与原路由 StripPrefix=1 后的路径一致）
+     */
+    private String upstreamPathPrefix = "/market/";
+
+    /**
+     * 每个客户端的待发送帧上限
+     */
+    private int clientQueueSize = 256;
+
+    /**
+     * 客户端队列已满时的处理策略
+     */
+    private OverflowPolicy overflowPolicy = OverflowPolicy.CONFLATE;
+
+    /**
+     * 单个客户端最多订阅的主题数
+     */
+    private int maxTopicsPerClient = 50;
+
+    /**
+     * 本节点最多同时订阅的主题数（每个主题一条上游连接），超出后新主题的订阅被忽略
+     */
+    private int maxTopics = 2000;
+
+    /**
+     * 上游连接断开后的首次重连间隔 (毫秒)，连续失败时翻倍
+     */
+    private long reconnectDelay = 1000;
+
+    /**
+     * 重连间隔上限 (毫秒)；上游拒绝握手（4xx）时直接使用该间隔
+     */
+    private long maxReconnectDelay = 30000;
+}
@@ -0,0 +1,31 @@
+package com.hkd.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 边缘微缓存全局配置（TTL 等按路由在 MicroCache 过滤器参数中配置）
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.micro-cache")
+public class MicroCacheProperties {
+
+    /**
+     * 关闭后过滤器直接放行
+     */
+    private boolean enabled = true;
+
+    /**
+     * 所有路由共享的缓存内存上限（响应体 + 响应头估算，字节），超出时淘汰
+     */
+    private long maxBytes = 64L * 1024 * 1024;
+
+    /**
+     * 单个响应体上限（字节），超过的响应不缓存
+     */
+    private int maxEntryBytes = 256 * 1024;
+}
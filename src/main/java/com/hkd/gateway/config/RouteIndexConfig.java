@@ -0,0 +1,32 @@
+package com.hkd.gateway.config;
+
+import com.hkd.gateway.route.GatewayPolicyRegistry;
+import com.hkd.gateway.route.IndexedRoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * 路由匹配配置
+ * 替换 SCG 默认的 RoutePredicateHandlerMapping（其自动配置为 @ConditionalOnMissingBean），改为按路由索引筛选候选路由
+ *
+ * @author HKD Team
+ */
+@Configuration
+public class RouteIndexConfig {
+
+    @Bean
+    public RoutePredicateHandlerMapping routePredicateHandlerMapping(FilteringWebHandler webHandler,
+                                                                     RouteLocator routeLocator,
+                                                                     GlobalCorsProperties globalCorsProperties,
+                                                                     Environment environment,
+                                                                     GatewayPolicyRegistry policyRegistry,
+                                                                     RouteIndexProperties properties) {
+        return new IndexedRoutePredicateHandlerMapping(webHandler, routeLocator, globalCorsProperties, environment,
+                policyRegistry, properties);
+    }
+}
@@ -0,0 +1,21 @@
+package com.hkd.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 路由索引配置
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.route-index")
+public class RouteIndexProperties {
+
+    /**
+     * 关闭后路由匹配恢复为按顺序逐条评估所有路由的断言
+     */
+    private boolean enabled = true;
+}
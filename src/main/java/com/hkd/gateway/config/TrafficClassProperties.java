@@ -0,0 +1,84 @@
+package com.hkd.gateway.config;
+
+import com.hkd.gateway.service.TrafficLane.QueuePolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 流量等级配置
+ *
+ * 每个等级拥有独立的在途请求上限、排队策略和后端连接池；routes 中列出归属该等级的路由ID，
+ * 未列出的路由归入 default-class
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "hkd.traffic-class")
+public class TrafficClassProperties {
+
+    /**
+     * 关闭后所有路由共用 spring.cloud.gateway.httpclient 的连接池，不做在途限制
+     */
+    private boolean enabled = true;
+
+    /**
+     * 未归属任何等级的路由使用的等级
+     */
+    private String defaultClass = "standard";
+
+    /**
+     * 等级名 → 配置
+     */
+    private Map<String, TrafficClass> classes = new LinkedHashMap<>();
+
+    @Data
+    public static class TrafficClass {
+
+        /**
+         * 归属该等级的路由ID
+         */
+        private List<String> routes = new ArrayList<>();
+
+        /**
+         * 在途请求上限（已发往后端、尚未完成）
+         */
+        private int maxInFlight = 500;
+
+        /**
+         * 在途达到上限时最多排队的请求数，0 表示不排队直接拒绝
+         */
+        private int maxQueue = 0;
+
+        /**
+         * 排队顺序
+         */
+        private QueuePolicy queuePolicy = QueuePolicy.FIFO;
+
+        /**
+         * 最长排队时间 (毫秒)，超时返回 503
+         */
+        private long queueTimeout = 100;
+
+        /**
+         * 该等级独立连接池的最大连接数
+         */
+        private int maxConnections = 500;
+
+        /**
+         * 连接池无空闲连接时获取连接的最长等待时间 (毫秒)
+         */
+        private long acquireTimeout = 1000;
+
+        /**
+         * 该等级后端连接专用的 I/O 线程数，0 表示与其他等级共用 Reactor Netty 默认线程
+         */
+        private int eventLoopThreads = 0;
+    }
+}
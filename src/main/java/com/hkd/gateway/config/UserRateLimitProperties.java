@@ -0,0 +1,82 @@
+package com.hkd.gateway.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 用户限流配置（按用户等级）
+ *
+ * @author HKD Team
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "hkd.rate-limit.user")
+public class UserRateLimitProperties {
+
+    /**
+     * 普通用户（等级0或未知）的容量（每秒补充数相同）
+     */
+    @Positive
+    private int defaultCapacity = 10;
+
+    /**
+     * VIP用户（等级 &gt; 0 且未在 tiers 中单独配置）的容量
+     */
+    @Positive
+    private int vipCapacity = 50;
+
+    /**
+     * VIP等级 → 限流配置
+     */
+    private Map<Integer, @Valid TierLimit> tiers = new HashMap<>();
+
+    /**
+     * 用户等级在 Redis 中的 Key 前缀，值为整数等级
+     */
+    private String tierKeyPrefix = "user:vip-level:";
+
+    /**
+     * 用户等级本地缓存
+     */
+    private TierCache tierCache = new TierCache();
+
+    @Data
+    public static class TierLimit {
+
+        @Positive
+        private int capacity;
+
+        /**
+         * 每秒补充令牌数，未配置时等于容量
+         */
+        @Positive
+        private Integer refillRate;
+    }
+
+    @Data
+    public static class TierCache {
+
+        /**
+         * 最大缓存用户数
+         */
+        private long maxSize = 100000;
+
+        /**
+         * 写入多少秒后在下次访问时异步刷新（refresh-ahead），决定等级变更的生效延迟
+         */
+        private long refresh = 5;
+
+        /**
+         * 多少秒未刷新成功后过期
+         */
+        private long expire = 300;
+    }
+}
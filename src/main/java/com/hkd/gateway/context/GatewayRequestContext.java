@@ -0,0 +1,220 @@
+package com.hkd.gateway.context;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.List;
+
+/**
+ * 单个请求在网关内的上下文
+ *
+ * 由 {@link com.hkd.gateway.filter.RequestContextFilter} 在过滤器链最前面创建并挂到 exchange 属性上，
+ * 客户端IP、路由、路径只解析一次，后续过滤器直接读取；
+ * 用户身份只由 JWT 认证过滤器写入，是网关内唯一可信的身份来源（不读取客户端可伪造的 X-User-* Header）；
+ * 请求截止时间从进入网关开始计算，转发时以剩余时间的形式传给后端
+ *
+ * @author HKD Team
+ */
+public final class GatewayRequestContext {
+
+    public static final String ATTRIBUTE = GatewayRequestContext.class.getName();
+
+    /**
+     * 用户等级尚未解析
+     */
+    public static final int UNKNOWN_TIER = -1;
+
+    /**
+     * 没有截止时间（路由和全局都未配置响应超时，客户端也未指定）
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private final long startNanos;
+    private final String method;
+    private final String path;
+    private final PathContainer pathContainer;
+    private final String clientIp;
+    private final String routeId;
+    private final long timeoutNanos;
+
+    private volatile Principal principal;
+    private volatile int tier = UNKNOWN_TIER;
+    private volatile long queuedNanos;
+
+    // 以下两个字段由 this 保护
+    private Runnable completion;
+    private boolean completed;
+
+    /**
+     * @param timeoutNanos 从 startNanos 起算的请求时限，{@link #NO_DEADLINE} 表示不限
+     */
+    public GatewayRequestContext(long startNanos, String method, PathContainer path, String clientIp, String routeId,
+                                 long timeoutNanos) {
+        this.startNanos = startNanos;
+        this.method = method;
+        this.path = path.value();
+        this.pathContainer = path;
+        this.clientIp = clientIp;
+        this.routeId = routeId;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * 获取请求上下文
+     *
+     * @return 上下文；未经过 RequestContextFilter 的请求（如本地 fallback 转发）返回 null
+     */
+    public static GatewayRequestContext get(ServerWebExchange exchange) {
+        return exchange.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * 获取请求上下文，供依赖上下文才能正确执行的过滤器（认证、限流）使用：
+     * 上下文缺失说明过滤器顺序被改坏，直接报错（请求失败），而不是跳过认证或限流
+     *
+     * @throws IllegalStateException 请求未经过 RequestContextFilter
+     */
+    public static GatewayRequestContext require(ServerWebExchange exchange) {
+        GatewayRequestContext context = get(exchange);
+        if (context == null) {
+            throw new IllegalStateException("请求上下文缺失，RequestContextFilter 必须先于当前过滤器执行: "
+                    + exchange.getRequest().getPath().value());
+        }
+        return context;
+    }
+
+    /**
+     * 请求进入网关的时间（System.nanoTime）
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 已解析的原始请求路径（不受 StripPrefix 等路由过滤器影响），用于 PathPattern 匹配
+     */
+    public PathContainer getPathContainer() {
+        return pathContainer;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    /**
+     * 命中的路由ID，未匹配路由时为 null
+     */
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public boolean hasDeadline() {
+        return timeoutNanos != NO_DEADLINE;
+    }
+
+    /**
+     * 距离截止时间的剩余时间，已过期时为 0 或负数；没有截止时间时为 {@link #NO_DEADLINE}
+     */
+    public long getRemainingNanos(long nowNanos) {
+        if (timeoutNanos == NO_DEADLINE) {
+            return NO_DEADLINE;
+        }
+        return timeoutNanos - (nowNanos - startNanos);
+    }
+
+    /**
+     * 已认证用户，匿名（白名单路径）为 null
+     */
+    public Principal getPrincipal() {
+        return principal;
+    }
+
+    public void setPrincipal(Principal principal) {
+        this.principal = principal;
+    }
+
+    /**
+     * 已认证用户ID，匿名为 null
+     */
+    public String getUserId() {
+        Principal current = principal;
+        return current != null ? current.userId() : null;
+    }
+
+    /**
+     * 用户VIP等级，未解析为 {@link #UNKNOWN_TIER}
+     */
+    public int getTier() {
+        return tier;
+    }
+
+    public void setTier(int tier) {
+        this.tier = tier;
+    }
+
+    /**
+     * 在网关内排队等待转发的时间（流量等级队列），统计后端耗时时需扣除
+     */
+    public long getQueuedNanos() {
+        return queuedNanos;
+    }
+
+    public void setQueuedNanos(long queuedNanos) {
+        this.queuedNanos = queuedNanos;
+    }
+
+    /**
+     * 登记请求结束（响应体写完、出错或客户端取消）时执行的回调，用于需要持有到响应写完的资源（如流量等级名额）；
+     * 请求已结束时立即执行
+     */
+    public void onComplete(Runnable callback) {
+        synchronized (this) {
+            if (!completed) {
+                Runnable previous = completion;
+                completion = previous == null ? callback : () -> {
+                    previous.run();
+                    callback.run();
+                };
+                return;
+            }
+        }
+        callback.run();
+    }
+
+    /**
+     * 请求结束，执行登记的回调（只执行一次），由 RequestContextFilter 在整个过滤器链结束时调用
+     */
+    public void complete() {
+        Runnable callback;
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            callback = completion;
+            completion = null;
+        }
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    /**
+     * 已认证用户
+     *
+     * @param userId   用户ID
+     * @param username 用户名
+     * @param email    邮箱
+     * @param roles    角色
+     */
+    public record Principal(String userId, String username, String email, List<String> roles) {
+    }
+}
@@ -1,16 +1,14 @@
 package com.hkd.gateway.controller;
 
+import com.hkd.gateway.util.ErrorResponseEncoder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * 熔断降级处理器
  * 当后端服务不可用时返回友好的错误信息
@@ -22,44 +20,37 @@ import java.util.Map;
 @Slf4j
 public class FallbackController {
 
+    private static final ErrorResponseEncoder.Template ORDER_UNAVAILABLE = ErrorResponseEncoder.template(
+            HttpStatus.SERVICE_UNAVAILABLE, "ORDER_SERVICE_UNAVAILABLE", "订单服务暂时不可用，请稍后再试");
+    private static final ErrorResponseEncoder.Template TRADING_UNAVAILABLE = ErrorResponseEncoder.template(
+            HttpStatus.SERVICE_UNAVAILABLE, "TRADING_SERVICE_UNAVAILABLE", "交易服务暂时不可用，请稍后再试");
+    private static final ErrorResponseEncoder.Template SERVICE_UNAVAILABLE = ErrorResponseEncoder.template(
+            HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", "服务暂时不可用，请稍后再试");
+
     /**
      * 订单服务降级
      */
     @GetMapping("/order")
-    public Mono<ResponseEntity<Map<String, Object>>> orderFallback() {
+    public Mono<Void> orderFallback(ServerHttpResponse response) {
         log.warn("订单服务熔断降级");
-        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(createErrorResponse("ORDER_SERVICE_UNAVAILABLE", "订单服务暂时不可用，请稍后再试")));
+        return ORDER_UNAVAILABLE.write(response);
     }
 
     /**
      * 交易服务降级
      */
     @GetMapping("/trading")
-    public Mono<ResponseEntity<Map<String, Object>>> tradingFallback() {
+    public Mono<Void> tradingFallback(ServerHttpResponse response) {
         log.warn("交易服务熔断降级");
-        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(createErrorResponse("TRADING_SERVICE_UNAVAILABLE", "交易服务暂时不可用，请稍后再试")));
+        return TRADING_UNAVAILABLE.write(response);
     }
 
     /**
      * 默认降级处理
      */
     @GetMapping("/default")
-    public Mono<ResponseEntity<Map<String, Object>>> defaultFallback() {
+    public Mono<Void> defaultFallback(ServerHttpResponse response) {
         log.warn("默认服务熔断降级");
-        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
-                .body(createErrorResponse("SERVICE_UNAVAILABLE", "服务暂时不可用，请稍后再试")));
-    }
-
-    /**
-     * 创建错误响应
-     */
-    private Map<String, Object> createErrorResponse(String code, String message) {
-        Map<String, Object> error = new HashMap<>();
-        error.put("code", code);
-        error.put("message", message);
-        error.put("timestamp", System.currentTimeMillis());
-        return error;
+        return SERVICE_UNAVAILABLE.write(response);
     }
 }
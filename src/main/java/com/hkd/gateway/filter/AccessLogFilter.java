@@ -1,18 +1,23 @@
 package com.hkd.gateway.filter;
 
+import com.hkd.gateway.accesslog.AccessLogger;
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.metrics.GatewayMetrics.FilterStage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 /**
  * 访问日志过滤器
- * 记录所有经过网关的请求
+ * 记录所有经过网关的请求，经 {@link AccessLogger} 异步写入，不在响应路径上格式化或做 I/O
  *
  * @author HKD Team
  */
@@ -20,57 +25,49 @@ import reactor.core.publisher.Mono;
 @Slf4j
 public class AccessLogFilter implements GlobalFilter, Ordered {
 
-    @Override
-    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
-        long startTime = System.currentTimeMillis();
-
-        return chain.filter(exchange).then(Mono.fromRunnable(() -> {
-            ServerHttpResponse response = exchange.getResponse();
-            long duration = System.currentTimeMillis() - startTime;
-
-            String userId = request.getHeaders().getFirst("X-User-Id");
-            String ip = getClientIp(request);
-
-            log.info("访问日志 | method={} | uri={} | status={} | duration={}ms | ip={} | userId={}",
-                    request.getMethod(),
-                    request.getURI(),
-                    response.getStatusCode(),
-                    duration,
-                    ip,
-                    userId != null ? userId : "anonymous"
-            );
-        }));
-    }
-
     /**
-     * 获取客户端IP地址
+     * 客户端在响应前断开连接（与 Nginx 约定一致）
      */
-    private String getClientIp(ServerHttpRequest request) {
-        String ip = request.getHeaders().getFirst("X-Forwarded-For");
-        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-            int index = ip.indexOf(',');
-            if (index != -1) {
-                return ip.substring(0, index).trim();
-            }
-            return ip.trim();
-        }
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    @Autowired
+    private AccessLogger accessLogger;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
 
-        ip = request.getHeaders().getFirst("X-Real-IP");
-        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-            return ip.trim();
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!accessLogger.isEnabled()) {
+            return chain.filter(exchange);
         }
+        return chain.filter(exchange).doFinally(signal -> log(exchange, signal));
+    }
 
-        var remoteAddress = request.getRemoteAddress();
-        if (remoteAddress != null && remoteAddress.getAddress() != null) {
-            return remoteAddress.getAddress().getHostAddress();
+    private void log(ServerWebExchange exchange, SignalType signal) {
+        GatewayRequestContext context = GatewayRequestContext.get(exchange);
+        if (context == null) {
+            return;
         }
+        long startNanos = System.nanoTime();
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        int status = statusCode != null ? statusCode.value()
+                : signal == SignalType.CANCEL ? CLIENT_CLOSED_REQUEST : 0;
 
-        return "unknown";
+        // 耗时从请求进入网关（RequestContextFilter）开始计算
+        accessLogger.log(context.getMethod(),
+                context.getPath(),
+                status,
+                startNanos - context.getStartNanos(),
+                context.getClientIp(),
+                context.getUserId(),
+                context.getRouteId());
+        gatewayMetrics.recordFilter(FilterStage.ACCESS_LOG, System.nanoTime() - startNanos);
     }
 
     @Override
     public int getOrder() {
-        return Ordered.LOWEST_PRECEDENCE;  // 最低优先级，最后执行
+        // 紧跟 RequestContextFilter：被认证、限流、流量等级拒绝的请求也要记录，耗时包含响应体写出
+        return Ordered.HIGHEST_PRECEDENCE + 1;
     }
 }
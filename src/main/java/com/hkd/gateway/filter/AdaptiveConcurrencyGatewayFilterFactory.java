@@ -0,0 +1,200 @@
+package com.hkd.gateway.filter;
+
+import com.hkd.gateway.config.ConcurrencyLimitProperties;
+import com.hkd.gateway.config.ConcurrencyLimitProperties.RouteLimit;
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.service.AdaptiveConcurrencyLimiter;
+import com.hkd.gateway.service.RequestPriority;
+import com.hkd.gateway.service.RequestPriorityClassifier;
+import com.hkd.gateway.util.ErrorResponseEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 自适应并发限制过滤器（路由级，配置名 AdaptiveConcurrency）
+ *
+ * 每条路由一个 {@link AdaptiveConcurrencyLimiter}，根据后端 RTT 估计其可承受的在途请求数；
+ * 超出时在网关直接返回 503（不占用后端连接、不进入熔断器统计），过载时按优先级从低到高拒绝。
+ * 静态的熔断器和连接池上限只能在后端已经失效后起作用，这里在 RTT 开始膨胀时就开始削减并发
+ *
+ * - RTT 从放行到响应完成，扣除在流量等级队列中的等待；5xx / 异常作为错误样本，客户端取消只释放名额
+ * - WebSocket 长连接不经过限制（连接时长不代表后端处理耗时）
+ * - 优先级按原始请求路径判断，与过滤器在路由中的位置无关
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private static final ErrorResponseEncoder.Template OVERLOADED = ErrorResponseEncoder.template(
+            HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", "服务繁忙，请稍后再试");
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    @Autowired
+    private ConcurrencyLimitProperties properties;
+
+    @Autowired
+    private RequestPriorityClassifier priorityClassifier;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    /**
+     * 路由ID → 并发限制器；路由刷新时参数未变则复用，参数变化时重建（见 {@link #resolveLimiter}）
+     */
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        AdaptiveConcurrencyLimiter limiter = resolveLimiter(config.getRouteId());
+        return (exchange, chain) -> {
+            if (!properties.isEnabled() || isWebSocketUpgrade(exchange)) {
+                return chain.filter(exchange);
+            }
+            GatewayRequestContext context = GatewayRequestContext.get(exchange);
+            RequestPriority priority = context != null
+                    ? priorityClassifier.classify(exchange.getRequest().getMethod(), context.getPathContainer())
+                    : RequestPriority.NORMAL;
+            if (!limiter.tryAcquire(priority)) {
+                log.debug("并发超限，拒绝请求: route={}, priority={}, limit={}",
+                        config.getRouteId(), priority, limiter.getLimit());
+                ServerHttpResponse response = exchange.getResponse();
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+                return OVERLOADED.write(response);
+            }
+
+            long startNanos = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> onFinally(limiter, exchange, signal, startNanos));
+        };
+    }
+
+    private static void onFinally(AdaptiveConcurrencyLimiter limiter, ServerWebExchange exchange,
+                                  SignalType signal, long startNanos) {
+        if (signal == SignalType.CANCEL) {
+            limiter.onCancel();
+            return;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        boolean dropped = signal == SignalType.ON_ERROR || status != null && status.is5xxServerError();
+        limiter.onComplete(backendNanos(exchange, startNanos), dropped);
+    }
+
+    /**
+     * 取得路由的并发限制器（路由刷新时对每条路由重新调用）
+     *
+     * 配置刷新后参数变化的路由重建限制器：
+     * - 只有 initial-limit 以外的参数变化时，沿用已学习到的并发上限（限制在新的上下限内）
+     * - initial-limit 变化时视为重置，从新的初始值开始
+     * 重建前放行的请求仍在旧限制器上释放名额，新限制器的在途计数从 0 开始，切换时可能短暂多放行一批请求
+     */
+    private AdaptiveConcurrencyLimiter resolveLimiter(String routeId) {
+        LimiterSettings settings = currentSettings(routeId);
+        return limiters.compute(routeId, (id, existing) -> {
+            if (existing != null && existing.settings().equals(settings)) {
+                return existing;
+            }
+            return createLimiter(id, settings, existing);
+        }).limiter();
+    }
+
+    private RouteLimiter createLimiter(String routeId, LimiterSettings settings, RouteLimiter previous) {
+        int startLimit = settings.initialLimit();
+        if (previous != null) {
+            gatewayMetrics.removeConcurrencyLimiter(routeId);
+            if (previous.settings().initialLimit() == settings.initialLimit()) {
+                startLimit = (int) Math.round(previous.limiter().getLimit());
+            }
+        }
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(startLimit,
+                settings.minLimit(), settings.maxLimit(), settings.smoothing(), settings.tolerance(),
+                settings.backoffRatio(), settings.window(), settings.minWindowSamples(), settings.probeInterval(),
+                settings.lowPriorityRatio(), settings.criticalPriorityRatio());
+        gatewayMetrics.registerConcurrencyLimiter(routeId, limiter);
+        if (previous == null) {
+            log.info("自适应并发限制已启用: route={}, initialLimit={}, minLimit={}, maxLimit={}",
+                    routeId, settings.initialLimit(), settings.minLimit(), settings.maxLimit());
+        } else {
+            log.info("自适应并发限制配置已更新: route={}, limit={} -> {}, minLimit={}, maxLimit={}",
+                    routeId, previous.limiter().getLimit(), limiter.getLimit(),
+                    settings.minLimit(), settings.maxLimit());
+        }
+        return new RouteLimiter(settings, limiter);
+    }
+
+    private LimiterSettings currentSettings(String routeId) {
+        RouteLimit route = properties.getRoutes().get(routeId);
+        int initialLimit = route != null && route.getInitialLimit() != null
+                ? route.getInitialLimit() : properties.getInitialLimit();
+        int minLimit = route != null && route.getMinLimit() != null ? route.getMinLimit() : properties.getMinLimit();
+        int maxLimit = route != null && route.getMaxLimit() != null ? route.getMaxLimit() : properties.getMaxLimit();
+        return new LimiterSettings(initialLimit, minLimit, maxLimit, properties.getSmoothing(),
+                properties.getTolerance(), properties.getBackoffRatio(), properties.getWindow(),
+                properties.getMinWindowSamples(), properties.getProbeInterval(),
+                properties.getLowPriorityRatio(), properties.getCriticalPriorityRatio());
+    }
+
+    /**
+     * 放行到完成的耗时，扣除在流量等级队列中的等待：网关内部排队不代表后端变慢，计入会压低并发上限
+     */
+    private static long backendNanos(ServerWebExchange exchange, long startNanos) {
+        GatewayRequestContext context = GatewayRequestContext.get(exchange);
+        long queuedNanos = context != null ? context.getQueuedNanos() : 0;
+        return Math.max(0, System.nanoTime() - startNanos - queuedNanos);
+    }
+
+    private static boolean isWebSocketUpgrade(ServerWebExchange exchange) {
+        return "websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade());
+    }
+
+    /**
+     * 创建限制器时使用的参数，用于判断配置刷新后是否需要重建
+     */
+    private record LimiterSettings(int initialLimit, int minLimit, int maxLimit, double smoothing,
+                                   double tolerance, double backoffRatio, long window, int minWindowSamples,
+                                   int probeInterval, double lowPriorityRatio, double criticalPriorityRatio) {
+    }
+
+    private record RouteLimiter(LimiterSettings settings, AdaptiveConcurrencyLimiter limiter) {
+    }
+
+    /**
+     * 无需参数，路由ID由 Spring Cloud Gateway 注入
+     */
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        @Override
+        public void setRouteId(String routeId) {
+            this.routeId = routeId;
+        }
+
+        @Override
+        public String getRouteId() {
+            return routeId;
+        }
+    }
+}
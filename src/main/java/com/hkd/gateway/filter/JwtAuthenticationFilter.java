@@ -1,35 +1,35 @@
 package com.hkd.gateway.filter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hkd.auth.grpc.ValidateTokenResponse;
-import com.hkd.gateway.client.AuthServiceClient;
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.exception.AuthException;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.metrics.GatewayMetrics.FilterStage;
+import com.hkd.gateway.service.AuthWhitelist;
+import com.hkd.gateway.service.LocalJwtVerifier;
+import com.hkd.gateway.service.TokenValidationCache;
+import com.hkd.gateway.util.ErrorResponseEncoder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * JWT认证过滤器 - 通过gRPC调用auth-service验证Token
  *
  * 架构原则：
- * - Gateway 不保存 JWT 密钥
+ * - Gateway 不保存 JWT 签名密钥（local-verify 模式仅持有 auth-service 下发的公钥）
  * - 所有认证逻辑由 auth-service 集中管理
- * - Token 黑名单实时生效
+ * - 验证结果按 Token 哈希短期缓存（不超过 Token 有效期）
+ * - Token 黑名单实时生效（auth-service 推送吊销事件，实时剔除本地缓存）
  * - 符合微服务单一职责原则
  *
  * @author HKD Team
@@ -39,27 +39,43 @@ import java.util.Map;
 public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
 
     @Autowired
-    private AuthServiceClient authServiceClient;
+    private TokenValidationCache tokenValidationCache;
+
+    /**
+     * 本地验签（仅 hkd.auth.mode=local-verify 时存在）
+     */
+    @Autowired(required = false)
+    private LocalJwtVerifier localJwtVerifier;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private AuthWhitelist authWhitelist;
 
-    @Value("#{'${hkd.auth.whitelist}'.split(',')}")
-    private List<String> whitelist;
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
 
     private static final String AUTH_HEADER = "Authorization";
     private static final String BEARER_PREFIX = "Bearer ";
 
+    private static final ErrorResponseEncoder.Template MISSING_TOKEN =
+            ErrorResponseEncoder.template(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "缺少认证信息");
+    private static final ErrorResponseEncoder.Template INVALID_TOKEN =
+            ErrorResponseEncoder.template(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "认证令牌无效或已过期");
+    private static final ErrorResponseEncoder.Template AUTH_SERVICE_UNAVAILABLE =
+            ErrorResponseEncoder.template(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED", "认证服务暂时不可用，请稍后再试");
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startNanos = System.nanoTime();
         ServerHttpRequest request = exchange.getRequest();
-        String path = request.getPath().value();
+        GatewayRequestContext context = GatewayRequestContext.require(exchange);
+        String path = context.getPath();
 
         log.debug("JWT认证过滤器: path={}", path);
 
         // 1. 白名单路径跳过验证
-        if (isWhitelisted(path)) {
+        if (authWhitelist.matches(path)) {
             log.debug("路径在白名单中，跳过JWT验证: {}", path);
+            gatewayMetrics.recordFilter(FilterStage.JWT_AUTH, System.nanoTime() - startNanos);
             return chain.filter(exchange);
         }
 
@@ -67,31 +83,46 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         String token = extractToken(request);
         if (token == null || token.isEmpty()) {
             log.warn("请求缺少Authorization Header: path={}", path);
-            return unauthorized(exchange, "缺少认证信息");
+            gatewayMetrics.recordFilter(FilterStage.JWT_AUTH, System.nanoTime() - startNanos);
+            return MISSING_TOKEN.write(exchange.getResponse());
         }
 
-        // 3. 🔥 调用 auth-service gRPC 验证 Token
-        ValidateTokenResponse validationResult;
-        try {
-            validationResult = authServiceClient.validateToken(token);
-        } catch (Exception e) {
-            // 熔断器打开或auth-service不可用
-            log.error("无法验证Token（auth-service不可用）: {}", e.getMessage());
-            return unauthorized(exchange, "认证服务暂时不可用，请稍后再试");
-        }
+        // 3. 🔥 验证 Token：本地验签模式下进程内校验签名；
+        //    否则优先命中本地缓存，未命中时异步调用 auth-service gRPC
+        Mono<ValidateTokenResponse> validation = localJwtVerifier != null
+                ? localJwtVerifier.validate(token)
+                : tokenValidationCache.validate(token);
+        return validation
+                .flatMap(validationResult -> onValidated(exchange, chain, validationResult, context, startNanos))
+                .onErrorResume(AuthException.class, e -> {
+                    // 熔断器打开或auth-service不可用
+                    gatewayMetrics.recordFilter(FilterStage.JWT_AUTH, System.nanoTime() - startNanos);
+                    log.error("无法验证Token（auth-service不可用）: {}", e.getMessage());
+                    return AUTH_SERVICE_UNAVAILABLE.write(exchange.getResponse());
+                });
+    }
 
+    /**
+     * 根据验证结果放行或拒绝请求
+     */
+    private Mono<Void> onValidated(ServerWebExchange exchange, GatewayFilterChain chain,
+                                   ValidateTokenResponse validationResult, GatewayRequestContext context,
+                                   long startNanos) {
+        String path = context.getPath();
+        gatewayMetrics.recordFilter(FilterStage.JWT_AUTH, System.nanoTime() - startNanos);
         if (!validationResult.getValid()) {
             log.warn("Token验证失败: path={}", path);
-            return unauthorized(exchange, "认证令牌无效或已过期");
+            return INVALID_TOKEN.write(exchange.getResponse());
         }
 
-        // 4. Token有效，将用户信息注入到请求Header
+        // 4. Token有效，记录到请求上下文（网关内唯一可信身份），并将用户信息注入到请求Header供下游服务使用
         String userId = validationResult.getUserId();
         String email = validationResult.getEmail();
         String username = validationResult.getUsername();
         List<String> roles = validationResult.getRolesList();
+        context.setPrincipal(new GatewayRequestContext.Principal(userId, username, email, roles));
 
-        ServerHttpRequest modifiedRequest = request.mutate()
+        ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
                 .header("X-User-Id", userId)
                 .header("X-User-Email", email != null ? email : "")
                 .header("X-Username", username != null ? username : "")
@@ -115,54 +146,6 @@ public class JwtAuthenticationFilter implements GlobalFilter, Ordered {
         return null;
     }
 
-    /**
-     * 检查路径是否在白名单中
-     */
-    private boolean isWhitelisted(String path) {
-        return whitelist.stream()
-                .anyMatch(pattern -> pathMatches(path, pattern));
-    }
-
-    /**
-     * 路径匹配（支持通配符）
-     */
-    private boolean pathMatches(String path, String pattern) {
-        // 简单的通配符匹配
-        pattern = pattern.trim();
-        if (pattern.endsWith("/**")) {
-            String prefix = pattern.substring(0, pattern.length() - 3);
-            return path.startsWith(prefix);
-        } else if (pattern.endsWith("/*")) {
-            String prefix = pattern.substring(0, pattern.length() - 2);
-            return path.startsWith(prefix) && !path.substring(prefix.length()).contains("/");
-        } else {
-            return path.equals(pattern);
-        }
-    }
-
-    /**
-     * 返回401 Unauthorized响应
-     */
-    private Mono<Void> unauthorized(ServerWebExchange exchange, String message) {
-        ServerHttpResponse response = exchange.getResponse();
-        response.setStatusCode(HttpStatus.UNAUTHORIZED);
-        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
-
-        Map<String, Object> error = new HashMap<>();
-        error.put("code", "UNAUTHORIZED");
-        error.put("message", message);
-        error.put("timestamp", System.currentTimeMillis());
-
-        try {
-            byte[] bytes = objectMapper.writeValueAsBytes(error);
-            DataBuffer buffer = response.bufferFactory().wrap(bytes);
-            return response.writeWith(Mono.just(buffer));
-        } catch (JsonProcessingException e) {
-            log.error("序列化错误响应失败", e);
-            return response.setComplete();
-        }
-    }
-
     @Override
     public int getOrder() {
         return -100;  // 高优先级，在其他过滤器之前执行
@@ -0,0 +1,58 @@
+package com.hkd.gateway.filter;
+
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.loadbalancer.PeakEwmaResponse;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * 负载均衡反馈过滤器
+ *
+ * 紧跟 ReactiveLoadBalancerClientFilter 执行，将每个请求在所选实例上的耗时和结果回填给 Peak-EWMA 统计。
+ * 不使用 LoadBalancerLifecycle 回调：其 onComplete 不覆盖客户端取消，取消的请求会让实例的在途数只增不减。
+ * WebSocket 连接不计入（连接时长不是请求延迟，且行情 HTTP / WebSocket 路由共用同一服务的统计）
+ *
+ * @author HKD Team
+ */
+@Component
+public class LoadBalancerFeedbackFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Object response = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (!(response instanceof PeakEwmaResponse tracked) || isWebSocketUpgrade(exchange)) {
+            return chain.filter(exchange);
+        }
+        tracked.onStart();
+        long startNanos = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            if (signal == SignalType.CANCEL) {
+                tracked.onCancel();
+                return;
+            }
+            HttpStatusCode status = exchange.getResponse().getStatusCode();
+            boolean failed = signal == SignalType.ON_ERROR || status != null && status.is5xxServerError();
+            // 扣除在流量等级队列中的等待，只统计实例本身的延迟
+            GatewayRequestContext context = GatewayRequestContext.get(exchange);
+            long queuedNanos = context != null ? context.getQueuedNanos() : 0;
+            tracked.onComplete(Math.max(0, System.nanoTime() - startNanos - queuedNanos), failed);
+        });
+    }
+
+    private static boolean isWebSocketUpgrade(ServerWebExchange exchange) {
+        return "websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade());
+    }
+
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 2;
+    }
+}
@@ -0,0 +1,58 @@
+package com.hkd.gateway.filter;
+
+import com.hkd.gateway.config.MarketFanOutProperties;
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.websocket.MarketDataHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.server.WebSocketService;
+import org.springframework.web.server.ServerWebExchange;
+
+/**
+ * 行情 WebSocket 扇出过滤器（路由级，配置名 MarketDataFanOut）
+ *
+ * WebSocket 升级请求不再由 WebsocketRoutingFilter 逐个代理到后端，而是在网关完成握手后交给 {@link MarketDataHub}，
+ * 由其按主题共享上游连接。认证、限流、访问日志等全局过滤器仍在此之前执行；
+ * 关闭 hkd.market-fanout.enabled 后恢复 1:1 代理
+ *
+ * @author HKD Team
+ */
+@Component
+public class MarketDataFanOutGatewayFilterFactory extends AbstractGatewayFilterFactory<Object> {
+
+    @Autowired
+    private MarketFanOutProperties properties;
+
+    @Autowired
+    private MarketDataHub marketDataHub;
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    public MarketDataFanOutGatewayFilterFactory() {
+        super(Object.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Object config) {
+        return (exchange, chain) -> {
+            if (!properties.isEnabled() || !isWebSocketUpgrade(exchange)) {
+                return chain.filter(exchange);
+            }
+            // 主题取自原始路径，不受 StripPrefix 等路径改写影响
+            GatewayRequestContext context = GatewayRequestContext.get(exchange);
+            String path = context != null ? context.getPath() : exchange.getRequest().getPath().value();
+            String topic = marketDataHub.topicFromPath(path);
+
+            ServerWebExchangeUtils.setAlreadyRouted(exchange);
+            return webSocketService.handleRequest(exchange, session -> marketDataHub.handle(session, topic));
+        };
+    }
+
+    private static boolean isWebSocketUpgrade(ServerWebExchange exchange) {
+        return "websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade());
+    }
+}
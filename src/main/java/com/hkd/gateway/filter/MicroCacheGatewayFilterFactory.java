@@ -0,0 +1,377 @@
+package com.hkd.gateway.filter;
+
+import com.hkd.gateway.config.MicroCacheProperties;
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.metrics.GatewayMetrics.MicroCacheResult;
+import com.hkd.gateway.service.AuthWhitelist;
+import com.hkd.gateway.service.CachedResponse;
+import com.hkd.gateway.service.MicroCache;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 边缘微缓存过滤器（路由级，配置名 MicroCache）
+ *
+ * 行情快照等公共数据在数百毫秒内对所有调用方相同，网关直接返回缓存的响应，不再每次回源：
+ * - 只缓存 paths 匹配且在认证白名单内的 GET 请求，带用户身份的响应永远不进入缓存
+ * - 只缓存 200、未声明 no-store / private、不带 Set-Cookie、Vary 只含 Accept-Encoding / Origin、不超过 max-entry-bytes 的响应
+ * - 新鲜期（ttl）内直接命中；同一 Key 并发未命中只回源一次，其余请求等待其结果（coalesced）
+ * - 新鲜期过后、stale-ttl 内：回源期间其他请求立即拿到陈旧副本；熔断器打开、回源失败或 5xx 时也返回陈旧副本
+ *
+ * 缓存的响应体是引用计数的直接内存，命中时零复制写出；响应头只保存后端返回的部分，网关自身添加的响应头按每个请求重新生成
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class MicroCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<MicroCacheGatewayFilterFactory.Config> {
+
+    private static final NettyDataBufferFactory BUFFER_FACTORY = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
+    private static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    /**
+     * 逐跳头及按请求生成的头，不进入缓存
+     */
+    private static final Set<String> EXCLUDED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "content-length", "date", "set-cookie",
+            "access-control-allow-origin", "access-control-allow-credentials", "access-control-expose-headers");
+
+    @Autowired
+    private MicroCacheProperties properties;
+
+    @Autowired
+    private MicroCache microCache;
+
+    @Autowired
+    private AuthWhitelist authWhitelist;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    public MicroCacheGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        List<PathPattern> patterns = config.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+        long freshNanos = TimeUnit.MILLISECONDS.toNanos(config.getTtl());
+        long staleNanos = TimeUnit.MILLISECONDS.toNanos(config.getStaleTtl());
+        log.info("边缘微缓存已启用: route={}, paths={}, ttl={}ms, staleTtl={}ms, circuitBreaker={}",
+                config.getRouteId(), config.getPaths(), config.getTtl(), config.getStaleTtl(),
+                config.getCircuitBreaker());
+
+        // 必须排在 NettyWriteResponseFilter 之前，它写出的才是这里装饰后的响应；认证、限流等全局过滤器仍在此之前执行
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!properties.isEnabled() || exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            GatewayRequestContext context = GatewayRequestContext.get(exchange);
+            if (context == null || !matches(patterns, context.getPathContainer())
+                    || !authWhitelist.matches(context.getPath())) {
+                return chain.filter(exchange);
+            }
+
+            String key = cacheKey(config.getRouteId(), context.getPath(), exchange.getRequest());
+            CachedResponse cached = microCache.get(key);
+            if (cached != null) {
+                boolean fresh = cached.isFresh(System.nanoTime());
+                if (fresh || microCache.isCircuitOpen(config.getCircuitBreaker())) {
+                    Mono<Void> served = serve(exchange, cached, fresh ? MicroCacheResult.HIT : MicroCacheResult.STALE);
+                    if (served != null) {
+                        return served;
+                    }
+                }
+            }
+
+            Sinks.One<CachedResponse> leader = Sinks.one();
+            Sinks.One<CachedResponse> inFlight = microCache.joinInFlight(key, leader);
+            if (inFlight != null) {
+                // 已有回源请求：有陈旧副本时立即返回（stale-while-revalidate），否则等待回源结果
+                Mono<Void> served = cached != null ? serve(exchange, cached, MicroCacheResult.STALE) : null;
+                return served != null ? served : awaitLeader(exchange, chain, inFlight);
+            }
+            return fetch(exchange, chain, key, leader, cached, freshNanos, staleNanos);
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    /**
+     * 等待回源请求的结果；结果不可缓存或已被淘汰时自行回源
+     */
+    private Mono<Void> awaitLeader(ServerWebExchange exchange, GatewayFilterChain chain,
+                                   Sinks.One<CachedResponse> inFlight) {
+        return inFlight.asMono()
+                .flatMap(entry -> {
+                    Mono<Void> served = serve(exchange, entry, MicroCacheResult.COALESCED);
+                    return served != null ? served.thenReturn(Boolean.TRUE) : Mono.<Boolean>empty();
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    gatewayMetrics.recordMicroCache(MicroCacheResult.MISS);
+                    return chain.filter(exchange).thenReturn(Boolean.TRUE);
+                }))
+                .then();
+    }
+
+    /**
+     * 作为回源请求转发到后端，并在写出响应时填充缓存
+     */
+    private Mono<Void> fetch(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                             Sinks.One<CachedResponse> leader, CachedResponse stale,
+                             long freshNanos, long staleNanos) {
+        gatewayMetrics.recordMicroCache(MicroCacheResult.MISS);
+        CachingResponse response = new CachingResponse(exchange.getResponse(), key, leader, stale,
+                freshNanos, staleNanos);
+        return chain.filter(exchange.mutate().response(response).build())
+                .onErrorResume(error -> {
+                    Mono<Void> served = stale != null && !exchange.getResponse().isCommitted()
+                            ? serve(exchange, stale, MicroCacheResult.STALE) : null;
+                    if (served == null) {
+                        return Mono.error(error);
+                    }
+                    log.warn("回源失败，返回陈旧缓存: key={}, error={}", key, error.getMessage());
+                    return served;
+                })
+                .doFinally(signal -> microCache.completeInFlight(key, leader, null));
+    }
+
+    /**
+     * 以缓存条目响应；条目已被淘汰释放时返回 null
+     */
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse entry, MicroCacheResult result) {
+        ByteBuf body = entry.retainBody();
+        if (body == null) {
+            return null;
+        }
+        gatewayMetrics.recordMicroCache(result);
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(entry.getStatus());
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(entry.getHeaders());
+        headers.setContentLength(body.readableBytes());
+        headers.set(CACHE_STATUS_HEADER, result.name());
+        return response.writeWith(Mono.just(BUFFER_FACTORY.wrap(body)));
+    }
+
+    private static boolean matches(List<PathPattern> patterns, PathContainer path) {
+        if (patterns.isEmpty()) {
+            return true;
+        }
+        for (PathPattern pattern : patterns) {
+            if (pattern.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 路由ID + 原始路径 + 原始查询串 + Accept-Encoding（后端可能按其返回不同编码的响应体）
+     */
+    private static String cacheKey(String routeId, String path, ServerHttpRequest request) {
+        String query = request.getURI().getRawQuery();
+        String encoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        StringBuilder key = new StringBuilder(routeId.length() + path.length() + 64)
+                .append(routeId).append(' ').append(path);
+        if (query != null) {
+            key.append('?').append(query);
+        }
+        if (encoding != null) {
+            key.append(' ').append(encoding);
+        }
+        return key.toString();
+    }
+
+    private static boolean isCacheable(HttpStatusCode status, HttpHeaders headers, List<String> gatewayVary) {
+        if (status == null || status.value() != 200 || headers.containsKey(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        for (String vary : headers.getVary()) {
+            // 网关自身（CORS）添加的 Vary 不算；后端只允许按编码 / 来源区分，前者已计入 Key，后者的 CORS 头由网关按请求生成
+            if (!gatewayVary.contains(vary)
+                    && !"accept-encoding".equalsIgnoreCase(vary) && !"origin".equalsIgnoreCase(vary)) {
+                return false;
+            }
+        }
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            String directives = cacheControl.toLowerCase(Locale.ROOT);
+            return !directives.contains("no-store") && !directives.contains("private");
+        }
+        return true;
+    }
+
+    /**
+     * 回源请求的响应装饰器：写出时把响应体合并为一块按实际大小分配的直接内存，放入缓存后以其副本写给客户端；
+     * 后端 5xx 且有陈旧副本时改为写出陈旧副本
+     */
+    private final class CachingResponse extends ServerHttpResponseDecorator {
+
+        private final String key;
+        private final Sinks.One<CachedResponse> leader;
+        private final CachedResponse stale;
+        private final long freshNanos;
+        private final long staleNanos;
+
+        /**
+         * 转发前已存在的响应头（网关自身添加），不属于后端响应，不进入缓存
+         */
+        private final Set<String> gatewayHeaders;
+
+        /**
+         * 转发前已存在的 Vary 取值（CORS 过滤器添加）
+         */
+        private final List<String> gatewayVary;
+
+        CachingResponse(ServerHttpResponse delegate, String key, Sinks.One<CachedResponse> leader,
+                        CachedResponse stale, long freshNanos, long staleNanos) {
+            super(delegate);
+            this.key = key;
+            this.leader = leader;
+            this.stale = stale;
+            this.freshNanos = freshNanos;
+            this.staleNanos = staleNanos;
+            this.gatewayHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+            this.gatewayHeaders.addAll(delegate.getHeaders().keySet());
+            this.gatewayVary = delegate.getHeaders().getVary();
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatusCode status = getStatusCode();
+            if (status != null && status.is5xxServerError() && stale != null) {
+                ByteBuf staleBody = stale.retainBody();
+                if (staleBody != null) {
+                    log.warn("后端返回 {}，返回陈旧缓存: key={}", status.value(), key);
+                    return Flux.from(body)
+                            .doOnNext(DataBufferUtils::release)
+                            .then(Mono.defer(() -> writeCached(stale, staleBody, MicroCacheResult.STALE)));
+                }
+            }
+
+            HttpHeaders headers = getHeaders();
+            long contentLength = headers.getContentLength();
+            if (!isCacheable(status, headers, gatewayVary) || contentLength > properties.getMaxEntryBytes()) {
+                return super.writeWith(body);
+            }
+            return Flux.from(body).collectList().flatMap(buffers -> {
+                long size = 0;
+                for (DataBuffer buffer : buffers) {
+                    size += buffer.readableByteCount();
+                }
+                if (size > properties.getMaxEntryBytes()) {
+                    return super.writeWith(Flux.fromIterable(buffers));
+                }
+                ByteBuf content = ByteBufAllocator.DEFAULT.directBuffer((int) size);
+                for (DataBuffer buffer : buffers) {
+                    content.writeBytes(NettyDataBufferFactory.toByteBuf(buffer).duplicate());
+                    DataBufferUtils.release(buffer);
+                }
+                CachedResponse entry = new CachedResponse(status, backendHeaders(headers), content,
+                        System.nanoTime(), freshNanos, staleNanos);
+                // 放入缓存前先取出本次要写出的副本，条目即使立即被淘汰也不影响本次响应
+                ByteBuf out = entry.retainBody();
+                microCache.put(key, entry);
+                microCache.completeInFlight(key, leader, entry);
+
+                headers.setContentLength(size);
+                headers.remove(HttpHeaders.TRANSFER_ENCODING);
+                headers.set(CACHE_STATUS_HEADER, MicroCacheResult.MISS.name());
+                return super.writeWith(Mono.just(BUFFER_FACTORY.wrap(out)));
+            });
+        }
+
+        /**
+         * 用缓存条目替换后端响应（响应头中后端部分替换为条目中的响应头）
+         */
+        private Mono<Void> writeCached(CachedResponse entry, ByteBuf body, MicroCacheResult result) {
+            gatewayMetrics.recordMicroCache(result);
+            HttpHeaders headers = getHeaders();
+            List<String> backend = new ArrayList<>();
+            for (String name : headers.keySet()) {
+                if (!gatewayHeaders.contains(name)) {
+                    backend.add(name);
+                }
+            }
+            backend.forEach(headers::remove);
+            headers.putAll(entry.getHeaders());
+            headers.setContentLength(body.readableBytes());
+            headers.set(CACHE_STATUS_HEADER, result.name());
+            setStatusCode(entry.getStatus());
+            return super.writeWith(Mono.just(BUFFER_FACTORY.wrap(body)));
+        }
+
+        private HttpHeaders backendHeaders(HttpHeaders headers) {
+            HttpHeaders copy = new HttpHeaders();
+            headers.forEach((name, values) -> {
+                if (!gatewayHeaders.contains(name) && !EXCLUDED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                    copy.put(name, new ArrayList<>(values));
+                }
+            });
+            return copy;
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        /**
+         * 新鲜期 (毫秒)
+         */
+        private long ttl = 200;
+
+        /**
+         * 新鲜期过后仍可返回陈旧副本的时长 (毫秒)
+         */
+        private long staleTtl = 5000;
+
+        /**
+         * 路由 CircuitBreaker 过滤器的 name；打开时直接返回陈旧副本，不回源
+         */
+        private String circuitBreaker;
+
+        /**
+         * 缓存的路径模式（原始请求路径），为空时路由下的所有白名单 GET 请求均可缓存
+         */
+        private List<String> paths = new ArrayList<>();
+    }
+}
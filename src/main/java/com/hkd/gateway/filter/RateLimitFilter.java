@@ -1,30 +1,36 @@
 package com.hkd.gateway.filter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.hkd.gateway.service.TokenBucketRateLimiter;
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.metrics.GatewayMetrics.FilterStage;
+import com.hkd.gateway.route.GatewayPolicyRegistry;
+import com.hkd.gateway.route.GatewayPolicySnapshot;
+import com.hkd.gateway.service.ApiRateLimitPolicies;
+import com.hkd.gateway.service.HybridRateLimiter;
+import com.hkd.gateway.service.RateLimitResult;
+import com.hkd.gateway.service.RateLimitRule;
+import com.hkd.gateway.service.RateLimitRule.Dimension;
+import com.hkd.gateway.service.UserTierService;
+import com.hkd.gateway.util.ErrorResponseEncoder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
-import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import java.net.InetSocketAddress;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 限流过滤器
  * 实现多维度限流：IP限流、用户限流、API限流
+ * 所有维度通过一次响应式 Redis 调用（EVALSHA）原子检查
+ * 限流参数取自网关策略快照，Nacos 推送的 hkd.rate-limit.ip / api 变更无需重启即生效
  *
  * @author HKD Team
  */
@@ -32,141 +38,95 @@ import java.util.Map;
 @Slf4j
 public class RateLimitFilter implements GlobalFilter, Ordered {
 
-    @Autowired
-    private TokenBucketRateLimiter rateLimiter;
+    private static final ErrorResponseEncoder.Template IP_LIMITED = ErrorResponseEncoder.template(
+            HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED", "请求过于频繁，请稍后再试");
+    private static final ErrorResponseEncoder.Template USER_LIMITED = ErrorResponseEncoder.template(
+            HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED", "操作过于频繁，请稍后再试");
+    private static final ErrorResponseEncoder.Template API_LIMITED = ErrorResponseEncoder.template(
+            HttpStatus.TOO_MANY_REQUESTS, "RATE_LIMIT_EXCEEDED", "该接口调用频率超限，请稍后再试");
 
     @Autowired
-    private ObjectMapper objectMapper;
-
-    @Value("${hkd.rate-limit.ip.capacity}")
-    private int ipCapacity;
-
-    @Value("${hkd.rate-limit.ip.refill-rate}")
-    private int ipRefillRate;
-
-    @Value("${hkd.rate-limit.user.default-capacity}")
-    private int userDefaultCapacity;
+    private HybridRateLimiter rateLimiter;
 
-    @Value("${hkd.rate-limit.api.trading-capacity}")
-    private int tradingCapacity;
+    @Autowired
+    private UserTierService userTierService;
 
-    @Value("${hkd.rate-limit.api.market-capacity}")
-    private int marketCapacity;
+    @Autowired
+    private GatewayPolicyRegistry policyRegistry;
 
-    @Value("${hkd.rate-limit.api.default-capacity}")
-    private int apiDefaultCapacity;
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
-        String path = request.getPath().value();
+        long startNanos = System.nanoTime();
+        GatewayRequestContext context = GatewayRequestContext.require(exchange);
+        String path = context.getPath();
+        GatewayPolicySnapshot policy = policyRegistry.current();
 
         // 1. IP限流
-        String ip = getClientIp(request);
-        if (!rateLimiter.tryAcquire("ratelimit:ip:" + ip, ipCapacity, ipRefillRate)) {
-            log.warn("IP限流触发: ip={}, path={}", ip, path);
-            return tooManyRequests(exchange, "请求过于频繁，请稍后再试");
-        }
+        String ip = context.getClientIp();
+        List<RateLimitRule> rules = new ArrayList<>(3);
+        rules.add(new RateLimitRule(Dimension.IP, "ratelimit:ip:" + ip, policy.getIpCapacity(), policy.getIpRefillRate()));
 
-        // 2. 用户限流
-        String userId = request.getHeaders().getFirst("X-User-Id");
+        // 2. 用户限流 + 3. API限流（用户身份只取自JWT认证结果）
+        String userId = context.getUserId();
         if (userId != null && !userId.isEmpty()) {
-            int userLimit = getUserRateLimit(userId);
-            if (!rateLimiter.tryAcquire("ratelimit:user:" + userId, userLimit, userLimit)) {
-                log.warn("用户限流触发: userId={}, path={}", userId, path);
-                return tooManyRequests(exchange, "操作过于频繁，请稍后再试");
-            }
-
-            // 3. API限流
-            int apiLimit = getApiRateLimit(path);
-            String apiKey = "ratelimit:api:" + path + ":" + userId;
-            if (!rateLimiter.tryAcquire(apiKey, apiLimit, apiLimit)) {
-                log.warn("API限流触发: userId={}, path={}, limit={}", userId, path, apiLimit);
-                return tooManyRequests(exchange, "该接口调用频率超限，请稍后再试");
-            }
+            int tier = userTierService.tierOf(userId);
+            context.setTier(tier);
+            UserTierService.Limit userLimit = userTierService.limitOf(tier);
+            rules.add(new RateLimitRule(Dimension.USER, "ratelimit:user:" + userId,
+                    userLimit.capacity(), userLimit.refillRate()));
+
+            // API限流按命中的路由划分，而不是原始路径
+            String routeId = context.getRouteId() != null ? context.getRouteId() : ApiRateLimitPolicies.UNROUTED;
+            rules.add(policy.getApiPolicies().resolve(routeId, exchange.getRequest().getPath().pathWithinApplication(), userId));
         }
 
-        return chain.filter(exchange);
-    }
-
-    /**
-     * 获取客户端IP地址
-     */
-    private String getClientIp(ServerHttpRequest request) {
-        // 先从X-Forwarded-For获取（通过代理的情况）
-        String ip = request.getHeaders().getFirst("X-Forwarded-For");
-        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-            // 多次代理的情况，取第一个IP
-            int index = ip.indexOf(',');
-            if (index != -1) {
-                return ip.substring(0, index).trim();
+        // 热点维度优先消费本地租约，其余维度在一次 Redis 往返中原子检查
+        return rateLimiter.tryAcquire(rules).flatMap(result -> {
+            gatewayMetrics.recordFilter(FilterStage.RATE_LIMIT, System.nanoTime() - startNanos);
+            if (result.isAllowed()) {
+                return chain.filter(exchange);
             }
-            return ip.trim();
-        }
-
-        // X-Real-IP
-        ip = request.getHeaders().getFirst("X-Real-IP");
-        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-            return ip.trim();
-        }
-
-        // 直接从RemoteAddress获取
-        InetSocketAddress remoteAddress = request.getRemoteAddress();
-        if (remoteAddress != null && remoteAddress.getAddress() != null) {
-            return remoteAddress.getAddress().getHostAddress();
-        }
-
-        return "unknown";
-    }
-
-    /**
-     * 获取用户限流配置
-     * TODO: 从Redis或数据库获取用户等级对应的限流配置
-     */
-    private int getUserRateLimit(String userId) {
-        // 这里可以根据用户等级返回不同的限流值
-        // 示例：VIP用户更高的限流
-        return userDefaultCapacity;
-    }
-
-    /**
-     * 获取API限流配置
-     */
-    private int getApiRateLimit(String path) {
-        // 交易API更严格的限流
-        if (path.startsWith("/api/v1/orders/") || path.startsWith("/api/v1/trading/")) {
-            return tradingCapacity;
-        }
-        // 行情API较宽松的限流
-        else if (path.startsWith("/api/v1/market/")) {
-            return marketCapacity;
-        }
-        // 默认限流
-        return apiDefaultCapacity;
+            gatewayMetrics.recordRateLimitRejected(result.rejected().dimension(), context.getRouteId());
+            return switch (result.rejected().dimension()) {
+                case IP -> {
+                    log.warn("IP限流触发: ip={}, path={}", ip, path);
+                    yield tooManyRequests(exchange, IP_LIMITED, result);
+                }
+                case USER -> {
+                    log.warn("用户限流触发: userId={}, path={}", userId, path);
+                    yield tooManyRequests(exchange, USER_LIMITED, result);
+                }
+                case API -> {
+                    log.warn("API限流触发: userId={}, path={}, key={}, limit={}",
+                            userId, path, result.rejected().key(), result.rejected().capacity());
+                    yield tooManyRequests(exchange, API_LIMITED, result);
+                }
+            };
+        });
     }
 
     /**
      * 返回429 Too Many Requests响应
+     *
+     * 按被拒绝的令牌桶状态设置 Retry-After（RFC 9110）和 RateLimit-* 响应头（IETF RateLimit Header Fields 草案）；
+     * 保留 X-RateLimit-Retry-After 兼容旧客户端
      */
-    private Mono<Void> tooManyRequests(ServerWebExchange exchange, String message) {
-        ServerHttpResponse response = exchange.getResponse();
-        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
-        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
-        response.getHeaders().set("X-RateLimit-Retry-After", "1");
-
-        Map<String, Object> error = new HashMap<>();
-        error.put("code", "RATE_LIMIT_EXCEEDED");
-        error.put("message", message);
-        error.put("timestamp", System.currentTimeMillis());
-
-        try {
-            byte[] bytes = objectMapper.writeValueAsBytes(error);
-            DataBuffer buffer = response.bufferFactory().wrap(bytes);
-            return response.writeWith(Mono.just(buffer));
-        } catch (JsonProcessingException e) {
-            log.error("序列化错误响应失败", e);
-            return response.setComplete();
-        }
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, ErrorResponseEncoder.Template template,
+                                       RateLimitResult result) {
+        RateLimitRule rule = result.rejected();
+        // 秒级向上取整，至少1秒
+        String retryAfter = Long.toString(Math.max(1, (result.retryAfterMillis() + 999) / 1000));
+
+        HttpHeaders headers = exchange.getResponse().getHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        headers.set("RateLimit-Limit", Integer.toString(rule.capacity()));
+        headers.set("RateLimit-Remaining", "0");
+        headers.set("RateLimit-Reset", retryAfter);
+        headers.set("X-RateLimit-Retry-After", retryAfter);
+        return template.write(exchange.getResponse());
     }
 
     @Override
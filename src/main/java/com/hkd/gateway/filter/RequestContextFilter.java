@@ -0,0 +1,118 @@
+package com.hkd.gateway.filter;
+
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.metrics.GatewayMetrics.FilterStage;
+import com.hkd.gateway.util.ClientIps;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求上下文过滤器
+ * 在所有过滤器之前创建 {@link GatewayRequestContext}，并移除客户端传入的 X-User-* Header，
+ * 保证下游服务看到的用户Header只可能由 JWT 认证过滤器注入；整个过滤器链（含响应体写出）结束时调用 {@link GatewayRequestContext#complete()}
+ *
+ * 请求时限取路由元数据 response-timeout（未配置时取 spring.cloud.gateway.httpclient.response-timeout），
+ * 客户端通过 X-Request-Timeout-Ms 指定更短的时限时取较短者；转发时由 {@link RequestDeadlineHeadersFilter} 传给后端
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class RequestContextFilter implements GlobalFilter, Ordered {
+
+    /**
+     * 网关注入给下游的用户身份 Header，客户端不得自行携带
+     */
+    static final List<String> IDENTITY_HEADERS = List.of("X-User-Id", "X-User-Email", "X-Username", "X-User-Roles");
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    @Autowired
+    private HttpClientProperties httpClientProperties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+
+        GatewayRequestContext context = new GatewayRequestContext(
+                System.nanoTime(),
+                request.getMethod().name(),
+                request.getPath().pathWithinApplication(),
+                ClientIps.resolve(request),
+                route != null ? route.getId() : null,
+                resolveTimeoutNanos(route, request.getHeaders()));
+        exchange.getAttributes().put(GatewayRequestContext.ATTRIBUTE, context);
+
+        if (!hasIdentityHeaders(request.getHeaders())) {
+            gatewayMetrics.recordFilter(FilterStage.REQUEST_CONTEXT, System.nanoTime() - context.getStartNanos());
+            return chain.filter(exchange).doFinally(signal -> context.complete());
+        }
+        log.warn("移除客户端携带的用户身份Header: ip={}, path={}", context.getClientIp(), context.getPath());
+        ServerHttpRequest sanitized = request.mutate()
+                .headers(headers -> IDENTITY_HEADERS.forEach(headers::remove))
+                .build();
+        ServerWebExchange mutated = exchange.mutate().request(sanitized).build();
+        gatewayMetrics.recordFilter(FilterStage.REQUEST_CONTEXT, System.nanoTime() - context.getStartNanos());
+        return chain.filter(mutated).doFinally(signal -> context.complete());
+    }
+
+    /**
+     * 与 NettyRoutingFilter 一致：路由元数据 response-timeout（毫秒，负数表示不限）优先于全局配置
+     */
+    private long resolveTimeoutNanos(Route route, HttpHeaders headers) {
+        long timeoutNanos = GatewayRequestContext.NO_DEADLINE;
+        Object routeTimeout = route != null ? route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR) : null;
+        if (routeTimeout instanceof Number millis) {
+            if (millis.longValue() >= 0) {
+                timeoutNanos = TimeUnit.MILLISECONDS.toNanos(millis.longValue());
+            }
+        } else if (httpClientProperties.getResponseTimeout() != null) {
+            timeoutNanos = httpClientProperties.getResponseTimeout().toNanos();
+        }
+
+        String requested = headers.getFirst(RequestDeadlineHeadersFilter.HEADER);
+        if (requested != null) {
+            try {
+                long millis = Long.parseLong(requested.trim());
+                if (millis > 0) {
+                    timeoutNanos = Math.min(timeoutNanos, TimeUnit.MILLISECONDS.toNanos(millis));
+                }
+            } catch (NumberFormatException e) {
+                log.debug("忽略无效的 {}: {}", RequestDeadlineHeadersFilter.HEADER, requested);
+            }
+        }
+        return timeoutNanos;
+    }
+
+    private static boolean hasIdentityHeaders(HttpHeaders headers) {
+        for (String name : IDENTITY_HEADERS) {
+            if (headers.containsKey(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;  // 最先执行
+    }
+}
@@ -0,0 +1,47 @@
+package com.hkd.gateway.filter;
+
+import com.hkd.gateway.context.GatewayRequestContext;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求截止时间传递（转发请求头过滤器，HTTP 转发时由路由过滤器调用）
+ *
+ * 以 X-Request-Timeout-Ms 告知后端剩余的时间（毫秒，至少为 1），后端可据此放弃注定超时的处理，
+ * 并继续向自己的下游传递；客户端传入的同名 Header 已在 {@link RequestContextFilter} 中计入时限，这里覆盖为剩余时间。
+ * 每次转发（含对冲请求）单独计算；WebSocket 连接不传递
+ *
+ * @author HKD Team
+ */
+@Component
+public class RequestDeadlineHeadersFilter implements HttpHeadersFilter, Ordered {
+
+    public static final String HEADER = "X-Request-Timeout-Ms";
+
+    @Override
+    public HttpHeaders filter(HttpHeaders input, ServerWebExchange exchange) {
+        GatewayRequestContext context = GatewayRequestContext.get(exchange);
+        if (context == null || !context.hasDeadline() || isWebSocketUpgrade(exchange)) {
+            return input;
+        }
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(context.getRemainingNanos(System.nanoTime()));
+        HttpHeaders filtered = new HttpHeaders();
+        filtered.putAll(input);
+        filtered.set(HEADER, Long.toString(Math.max(1, remainingMillis)));
+        return filtered;
+    }
+
+    private static boolean isWebSocketUpgrade(ServerWebExchange exchange) {
+        return "websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,492 @@
+package com.hkd.gateway.filter;
+
+import com.hkd.gateway.config.TrafficClassProperties;
+import com.hkd.gateway.context.GatewayRequestContext;
+import com.hkd.gateway.loadbalancer.PeakEwmaResponse;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.service.HedgePolicy;
+import com.hkd.gateway.service.RequestHedging;
+import com.hkd.gateway.service.TrafficLane;
+import com.hkd.gateway.util.ErrorResponseEncoder;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.TimeoutException;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.netty.Connection;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientResponse;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按流量等级转发的路由过滤器（代替 Spring Cloud Gateway 默认的 NettyRoutingFilter 转发 http/https 请求）
+ *
+ * 默认所有路由共用一个 HttpClient 连接池：行情、通知等读请求打满连接池或在途数时，下单请求同样要排队。
+ * 这里为每个流量等级（hkd.traffic-class.classes）创建：
+ * - 独立的在途上限和排队队列（{@link TrafficLane}），超出后返回 503，不影响其他等级
+ * - 独立的固定大小连接池，可选独立的后端 I/O 线程
+ *
+ * 只作用于 http/https 后端，WebSocket 升级请求直接交给 WebsocketRoutingFilter。
+ * 默认的 routingFilter 仍然注册（不能通过 global-filter.netty-routing.enabled 关闭，该开关同时会关闭
+ * NettyWriteResponseFilter）：本过滤器的顺序比它靠前一位，转发后标记 alreadyRouted，默认过滤器直接跳过
+ *
+ * 流量等级名额持有到整个请求结束（响应体由 NettyWriteResponseFilter 写完），max-in-flight 同时限制响应体传输；
+ * 排队等待的时间记入 {@link GatewayRequestContext#getQueuedNanos()}，自适应并发限制和 Peak-EWMA 统计会将其扣除
+ *
+ * hkd.hedging.routes 中路由的 GET / HEAD 请求（无请求体）按对冲方式转发：首发请求超过对冲延迟仍未收到响应头时，
+ * 向负载均衡选出的另一个实例（直连地址的路由为同一地址的新连接）再发一次，先收到响应头的一方写回客户端，另一方取消。
+ * 已超过请求截止时间的请求不再转发，直接返回 504；每次转发（含普通转发）都以发送前的剩余时间为超时
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class TrafficClassRoutingFilter extends NettyRoutingFilter {
+
+    private static final ErrorResponseEncoder.Template SATURATED = ErrorResponseEncoder.template(
+            HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_OVERLOADED", "服务繁忙，请稍后再试");
+
+    private static final ErrorResponseEncoder.Template DEADLINE_EXCEEDED = ErrorResponseEncoder.template(
+            HttpStatus.GATEWAY_TIMEOUT, "DEADLINE_EXCEEDED", "请求已超时");
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final TrafficClassProperties properties;
+
+    private final RequestHedging requestHedging;
+
+    private final ObjectProvider<LoadBalancerClientFactory> loadBalancerClientFactory;
+
+    private final HttpClient defaultHttpClient;
+
+    /**
+     * 路由ID → 流量等级
+     */
+    private final Map<String, Lane> routeLanes = new HashMap<>();
+
+    private final Lane defaultLane;
+
+    private final List<Lane> lanes = new ArrayList<>();
+
+    public TrafficClassRoutingFilter(HttpClient httpClient,
+                                     ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+                                     HttpClientProperties httpClientProperties,
+                                     ServerProperties serverProperties,
+                                     HttpClientSslConfigurer sslConfigurer,
+                                     ObjectProvider<HttpClientCustomizer> customizers,
+                                     TrafficClassProperties properties,
+                                     GatewayMetrics gatewayMetrics,
+                                     RequestHedging requestHedging,
+                                     ObjectProvider<LoadBalancerClientFactory> loadBalancerClientFactory) {
+        super(httpClient, headersFilters, httpClientProperties);
+        this.properties = properties;
+        this.defaultHttpClient = httpClient;
+        this.requestHedging = requestHedging;
+        this.loadBalancerClientFactory = loadBalancerClientFactory;
+        if (!properties.isEnabled()) {
+            this.defaultLane = null;
+            return;
+        }
+
+        List<HttpClientCustomizer> customizerList = customizers.orderedStream().toList();
+        properties.getClasses().forEach((name, config) -> {
+            Lane lane = createLane(name, config, httpClientProperties, serverProperties, sslConfigurer,
+                    customizerList);
+            lanes.add(lane);
+            for (String routeId : config.getRoutes()) {
+                Lane previous = routeLanes.put(routeId, lane);
+                if (previous != null) {
+                    throw new IllegalStateException("路由 " + routeId + " 同时属于流量等级 "
+                            + previous.trafficLane().getName() + " 和 " + name);
+                }
+            }
+            gatewayMetrics.registerTrafficLane(lane.trafficLane());
+            log.info("流量等级已启用: class={}, routes={}, maxInFlight={}, maxQueue={}, queuePolicy={}, "
+                            + "maxConnections={}, eventLoopThreads={}",
+                    name, config.getRoutes(), config.getMaxInFlight(), config.getMaxQueue(),
+                    config.getQueuePolicy(), config.getMaxConnections(), config.getEventLoopThreads());
+        });
+        this.defaultLane = lanes.isEmpty() ? null : findDefaultLane();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!isHttpBackend(exchange)) {
+            return chain.filter(exchange);
+        }
+        GatewayRequestContext context = GatewayRequestContext.get(exchange);
+        if (context != null && context.getRemainingNanos(System.nanoTime()) <= 0) {
+            log.debug("请求已超过截止时间，不再转发: path={}", context.getPath());
+            return DEADLINE_EXCEEDED.write(exchange.getResponse());
+        }
+        if (defaultLane == null) {
+            return route(exchange, chain);
+        }
+        TrafficLane lane = laneOf(exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR)).trafficLane();
+        long queuedAt = System.nanoTime();
+        return lane.acquire().flatMap(permit -> {
+            if (!permit.isGranted()) {
+                log.debug("流量等级已饱和，拒绝请求: class={}, inFlight={}, queued={}",
+                        lane.getName(), lane.getInFlight(), lane.getQueued());
+                ServerHttpResponse response = exchange.getResponse();
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+                return SATURATED.write(response);
+            }
+            if (context == null) {
+                return route(exchange, chain).doFinally(signal -> permit.release());
+            }
+            context.setQueuedNanos(System.nanoTime() - queuedAt);
+            // 路由过滤器链在收到响应头后即结束，响应体随后才写出：名额在整个请求结束时释放
+            context.onComplete(permit::release);
+            return route(exchange, chain);
+        });
+    }
+
+    /**
+     * 排在默认 NettyRoutingFilter（LOWEST_PRECEDENCE）之前，不依赖 Bean 注册顺序
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    private Mono<Void> route(ServerWebExchange exchange, GatewayFilterChain chain) {
+        // 剩余时间在发送前计算：认证、限流和流量等级排队已用掉的时间不再给后端
+        GatewayRequestContext context = GatewayRequestContext.get(exchange);
+        long remainingNanos = context != null
+                ? context.getRemainingNanos(System.nanoTime()) : GatewayRequestContext.NO_DEADLINE;
+        if (remainingNanos <= 0) {
+            log.debug("请求排队后已超过截止时间，不再转发: path={}", context.getPath());
+            return DEADLINE_EXCEEDED.write(exchange.getResponse());
+        }
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        HedgePolicy policy = route != null ? requestHedging.forRoute(route.getId()) : null;
+        if (policy == null || !isHedgeable(exchange.getRequest())) {
+            // 父类的 response-timeout 从发送时起算、不扣除网关内耗时，也不知道客户端指定的更短时限
+            return withDeadline(super.filter(exchange, chain), remainingNanos);
+        }
+        return hedgedRoute(exchange, chain, route, policy, remainingNanos);
+    }
+
+    /**
+     * 对冲转发（只用于无请求体的 GET / HEAD）：与父类的转发过程相同，区别是两次尝试各自建立连接、接收响应头，
+     * 只有胜出的一方写入 exchange（响应状态、响应头、CLIENT_RESPONSE_* 属性），随后由 NettyWriteResponseFilter 写回响应体；
+     * 落选的一方被取消，已收到响应头的连接直接关闭
+     */
+    private Mono<Void> hedgedRoute(ServerWebExchange exchange, GatewayFilterChain chain, Route route,
+                                   HedgePolicy policy, long remainingNanos) {
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+        URI requestUrl = exchange.getRequiredAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+
+        Mono<Attempt> primary = send(exchange, route, requestUrl);
+        Mono<Attempt> hedge = chooseAlternate(exchange, requestUrl)
+                .flatMap(alternate -> trackAlternate(alternate, send(exchange, route, alternate.url())));
+        return withDeadline(policy.execute(primary, hedge, remainingNanos), remainingNanos)
+                .doOnDiscard(Attempt.class, Attempt::dispose)
+                .flatMap(winner -> {
+                    applyResponse(exchange, winner);
+                    return chain.filter(exchange);
+                });
+    }
+
+    /**
+     * 转发超过请求剩余时间时以 504 结束（与父类的响应超时处理一致），取消时一并取消后端请求
+     */
+    private static <T> Mono<T> withDeadline(Mono<T> forward, long remainingNanos) {
+        if (remainingNanos == GatewayRequestContext.NO_DEADLINE) {
+            return forward;
+        }
+        Duration timeout = Duration.ofNanos(remainingNanos);
+        return forward
+                .timeout(timeout, Mono.error(new TimeoutException("Response took longer than timeout: " + timeout)))
+                .onErrorMap(TimeoutException.class,
+                        e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e));
+    }
+
+    /**
+     * 发送一次转发请求，收到响应头即返回（不读取响应体）
+     */
+    private Mono<Attempt> send(ServerWebExchange exchange, Route route, URI url) {
+        return Mono.defer(() -> {
+            ServerHttpRequest request = exchange.getRequest();
+            // 每次尝试单独过滤请求头，截止时间 Header 按发送时的剩余时间计算
+            HttpHeaders filtered = HttpHeadersFilter.filterRequest(getHeadersFilters(), exchange);
+            DefaultHttpHeaders httpHeaders = new DefaultHttpHeaders();
+            filtered.forEach(httpHeaders::set);
+            boolean preserveHost = exchange.getAttributeOrDefault(
+                    ServerWebExchangeUtils.PRESERVE_HOST_HEADER_ATTRIBUTE, false);
+
+            return getHttpClient(route, exchange)
+                    .headers(headers -> {
+                        headers.add(httpHeaders);
+                        headers.remove(HttpHeaders.HOST);
+                        if (preserveHost) {
+                            headers.add(HttpHeaders.HOST, request.getHeaders().getFirst(HttpHeaders.HOST));
+                        }
+                    })
+                    .request(io.netty.handler.codec.http.HttpMethod.valueOf(request.getMethod().name()))
+                    .uri(url.toASCIIString())
+                    .responseConnection((res, connection) -> Mono.just(new Attempt(res, connection)))
+                    .next();
+        });
+    }
+
+    /**
+     * 与父类一致：将胜出的响应头、状态码写入客户端响应
+     */
+    private void applyResponse(ServerWebExchange exchange, Attempt winner) {
+        HttpClientResponse res = winner.response();
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_ATTR, res);
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR, winner.connection());
+
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = new HttpHeaders();
+        res.responseHeaders().forEach(entry -> headers.add(entry.getKey(), entry.getValue()));
+        String contentType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+        if (StringUtils.hasLength(contentType)) {
+            exchange.getAttributes().put(ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR, contentType);
+        }
+        response.setStatusCode(HttpStatusCode.valueOf(res.status().code()));
+
+        HttpHeaders filteredResponseHeaders = HttpHeadersFilter.filter(getHeadersFilters(), headers, exchange,
+                HttpHeadersFilter.Type.RESPONSE);
+        if (!filteredResponseHeaders.containsKey(HttpHeaders.TRANSFER_ENCODING)
+                && filteredResponseHeaders.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+            response.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+        }
+        exchange.getAttributes().put(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES,
+                filteredResponseHeaders.keySet());
+        response.getHeaders().addAll(filteredResponseHeaders);
+    }
+
+    /**
+     * 对冲目标：lb:// 路由向负载均衡器再选一个与首发不同的实例（最多选两次，仍相同说明只有一个可用实例，不对冲）；
+     * 直连地址的路由沿用原地址（后端通常在 VIP / Service 之后，新连接可能落到另一个副本）
+     */
+    private Mono<Alternate> chooseAlternate(ServerWebExchange exchange, URI requestUrl) {
+        Response<ServiceInstance> selected = exchange.getAttribute(
+                ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (selected == null || !selected.hasServer()) {
+            return Mono.just(new Alternate(requestUrl, null));
+        }
+        ServiceInstance primary = selected.getServer();
+        LoadBalancerClientFactory factory = loadBalancerClientFactory.getIfAvailable();
+        ReactorServiceInstanceLoadBalancer loadBalancer = factory != null
+                ? factory.getInstance(primary.getServiceId(), ReactorServiceInstanceLoadBalancer.class) : null;
+        if (loadBalancer == null) {
+            return Mono.empty();
+        }
+        return Mono.from(loadBalancer.choose())
+                .filter(response -> response.hasServer() && !isSameInstance(primary, response.getServer()))
+                .switchIfEmpty(Mono.defer(() -> Mono.from(loadBalancer.choose())))
+                .filter(response -> response.hasServer() && !isSameInstance(primary, response.getServer()))
+                .map(response -> new Alternate(UriComponentsBuilder.fromUri(requestUrl)
+                        .host(response.getServer().getHost())
+                        .port(response.getServer().getPort())
+                        .build(true)
+                        .toUri(), response));
+    }
+
+    /**
+     * 对冲请求的结果回填给 Peak-EWMA 统计（首发请求由 LoadBalancerFeedbackFilter 回填），延迟按收到响应头计
+     */
+    private static Mono<Attempt> trackAlternate(Alternate alternate, Mono<Attempt> attempt) {
+        if (!(alternate.lbResponse() instanceof PeakEwmaResponse tracked)) {
+            return attempt;
+        }
+        return Mono.defer(() -> {
+            tracked.onStart();
+            long startNanos = System.nanoTime();
+            // 收到响应头后合并方随即取消上游，只按第一个信号回填一次
+            AtomicBoolean reported = new AtomicBoolean();
+            return attempt
+                    .doOnNext(result -> {
+                        if (reported.compareAndSet(false, true)) {
+                            tracked.onComplete(System.nanoTime() - startNanos,
+                                    result.response().status().code() >= 500);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        if (reported.compareAndSet(false, true)) {
+                            if (signal == SignalType.CANCEL) {
+                                tracked.onCancel();
+                            } else {
+                                tracked.onComplete(System.nanoTime() - startNanos, signal == SignalType.ON_ERROR);
+                            }
+                        }
+                    });
+        });
+    }
+
+    private static boolean isSameInstance(ServiceInstance a, ServiceInstance b) {
+        return a.getHost().equals(b.getHost()) && a.getPort() == b.getPort();
+    }
+
+    private static boolean isHedgeable(ServerHttpRequest request) {
+        HttpMethod method = request.getMethod();
+        if (method != HttpMethod.GET && method != HttpMethod.HEAD) {
+            return false;
+        }
+        HttpHeaders headers = request.getHeaders();
+        return headers.getContentLength() <= 0 && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING)
+                && !"websocket".equalsIgnoreCase(headers.getUpgrade());
+    }
+
+    @Override
+    protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+        HttpClient httpClient = defaultLane != null ? laneOf(route).httpClient() : defaultHttpClient;
+        // 与父类一致：支持路由元数据 connect-timeout
+        Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+        if (connectTimeout != null) {
+            int millis = connectTimeout instanceof Number number
+                    ? number.intValue() : Integer.parseInt(connectTimeout.toString());
+            return httpClient.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, millis);
+        }
+        return httpClient;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        for (Lane lane : lanes) {
+            ConnectionProvider provider = lane.httpClient().configuration().connectionProvider();
+            if (provider != null) {
+                provider.dispose();
+            }
+            if (lane.loopResources() != null) {
+                lane.loopResources().dispose();
+            }
+        }
+    }
+
+    private Lane laneOf(Route route) {
+        if (route == null) {
+            return defaultLane;
+        }
+        return routeLanes.getOrDefault(route.getId(), defaultLane);
+    }
+
+    private Lane findDefaultLane() {
+        for (Lane lane : lanes) {
+            if (lane.trafficLane().getName().equals(properties.getDefaultClass())) {
+                return lane;
+            }
+        }
+        throw new IllegalStateException("默认流量等级未配置: " + properties.getDefaultClass());
+    }
+
+    /**
+     * 与 WebsocketRoutingFilter 顺序相同：WebSocket 升级请求的地址在其中才改为 ws://，这里不能按 http 转发
+     */
+    private static boolean isHttpBackend(ServerWebExchange exchange) {
+        if (ServerWebExchangeUtils.isAlreadyRouted(exchange)
+                || "websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+            return false;
+        }
+        URI requestUrl = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR);
+        if (requestUrl == null) {
+            return false;
+        }
+        String scheme = requestUrl.getScheme();
+        return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+    }
+
+    /**
+     * 基于 spring.cloud.gateway.httpclient 的配置（超时、SSL、代理等）创建该等级专用的 HttpClient，
+     * 只替换连接池为独立的固定大小连接池
+     */
+    private static Lane createLane(String name, TrafficClassProperties.TrafficClass config,
+                                   HttpClientProperties globalProperties,
+                                   ServerProperties serverProperties,
+                                   HttpClientSslConfigurer sslConfigurer,
+                                   List<HttpClientCustomizer> customizers) {
+        HttpClientProperties classProperties = new HttpClientProperties();
+        BeanUtils.copyProperties(globalProperties, classProperties);
+        HttpClientProperties.Pool pool = new HttpClientProperties.Pool();
+        BeanUtils.copyProperties(globalProperties.getPool(), pool);
+        pool.setType(HttpClientProperties.Pool.PoolType.FIXED);
+        pool.setName("hkd-" + name);
+        pool.setMaxConnections(config.getMaxConnections());
+        pool.setAcquireTimeout(config.getAcquireTimeout());
+        classProperties.setPool(pool);
+
+        HttpClientFactory factory = new HttpClientFactory(classProperties, serverProperties, sslConfigurer, customizers);
+        factory.setSingleton(false);
+        HttpClient httpClient;
+        try {
+            httpClient = factory.getObject();
+        } catch (Exception e) {
+            throw new IllegalStateException("创建流量等级 " + name + " 的 HttpClient 失败", e);
+        }
+
+        LoopResources loopResources = null;
+        if (config.getEventLoopThreads() > 0) {
+            loopResources = LoopResources.create("hkd-" + name, config.getEventLoopThreads(), true);
+            httpClient = httpClient.runOn(loopResources);
+        }
+        TrafficLane trafficLane = new TrafficLane(name, config.getMaxInFlight(), config.getMaxQueue(),
+                config.getQueuePolicy(), config.getQueueTimeout());
+        return new Lane(trafficLane, httpClient, loopResources);
+    }
+
+    /**
+     * @param loopResources 该等级专用的 I/O 线程，共用默认线程时为 null
+     */
+    private record Lane(TrafficLane trafficLane, HttpClient httpClient, LoopResources loopResources) {
+    }
+
+    /**
+     * 一次转发尝试收到的响应头和连接；落选时关闭连接（响应体未读取，连接不能复用）
+     */
+    private record Attempt(HttpClientResponse response, Connection connection) {
+
+        void dispose() {
+            connection.dispose();
+        }
+    }
+
+    /**
+     * @param lbResponse 负载均衡选择结果，直连地址时为 null
+     */
+    private record Alternate(URI url, Response<ServiceInstance> lbResponse) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.hkd.gateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单个后端实例的负载统计：Peak-EWMA 延迟 + 在途请求数
+ *
+ * - 新样本高于当前估计时直接取新样本（peak），低于时按 exp(-Δt/τ) 加权衰减，GC 停顿等延迟尖峰立即生效、缓慢恢复
+ * - 读取代价时按距上次样本的时间继续衰减：长时间未被选中的实例代价逐渐降低，会被重新试探
+ * - 代价 = 延迟估计 × (在途请求数 + 1)
+ * - 失败请求按至少 failurePenalty 计入，快速返回错误的实例不会因"延迟低"吸引更多流量
+ *
+ * 样本写入加锁（同一实例的完成回调之间），代价读取无锁（两个 volatile 字段间的竞争只影响估计精度）
+ *
+ * @author HKD Team
+ */
+final class InstanceStats {
+
+    private final String key;
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private volatile ServiceInstance instance;
+    private volatile double ewmaNanos;
+    private volatile long stampNanos;
+
+    InstanceStats(String key, ServiceInstance instance, long initialRttNanos, long decayNanos,
+                  long failurePenaltyNanos) {
+        this.key = key;
+        this.instance = instance;
+        this.decayNanos = decayNanos;
+        this.failurePenaltyNanos = failurePenaltyNanos;
+        this.ewmaNanos = initialRttNanos;
+        this.stampNanos = System.nanoTime();
+    }
+
+    /**
+     * 当前代价（越小越优先）
+     */
+    double cost(long nowNanos) {
+        double decayed = ewmaNanos * decay(nowNanos - stampNanos);
+        return decayed * (outstanding.get() + 1);
+    }
+
+    void start() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * 请求完成，记录延迟样本
+     *
+     * @param failed 是否失败（5xx / 连接失败）
+     */
+    void complete(long rttNanos, boolean failed, long nowNanos) {
+        outstanding.decrementAndGet();
+        if (failed) {
+            rttNanos = Math.max(rttNanos, failurePenaltyNanos);
+        }
+        synchronized (this) {
+            double current = ewmaNanos;
+            if (rttNanos > current) {
+                ewmaNanos = rttNanos;
+            } else {
+                double w = decay(nowNanos - stampNanos);
+                ewmaNanos = current * w + rttNanos * (1 - w);
+            }
+            stampNanos = nowNanos;
+        }
+    }
+
+    /**
+     * 请求被取消，只减少在途数，不作为样本
+     */
+    void cancel() {
+        outstanding.decrementAndGet();
+    }
+
+    private double decay(long elapsedNanos) {
+        return elapsedNanos <= 0 ? 1.0 : Math.exp(-(double) elapsedNanos / decayNanos);
+    }
+
+    String key() {
+        return key;
+    }
+
+    ServiceInstance instance() {
+        return instance;
+    }
+
+    void instance(ServiceInstance instance) {
+        this.instance = instance;
+    }
+
+    double ewmaMillis() {
+        return ewmaNanos / 1_000_000;
+    }
+
+    int outstanding() {
+        return outstanding.get();
+    }
+}
@@ -0,0 +1,142 @@
+package com.hkd.gateway.loadbalancer;
+
+import com.hkd.gateway.config.LoadBalancingProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 延迟感知的实例选择（Peak-EWMA + Power of Two Choices，参考 Finagle / Linkerd）
+ *
+ * 轮询把请求均摊到所有实例，一个实例 GC 停顿或变慢时，所有客户端都有相应比例的请求落到它上面，p99 随之变差。
+ * 这里每次随机取两个实例，选择代价（Peak-EWMA 延迟 × (在途数 + 1)）较低的一个：
+ * 慢实例和积压的实例很快被避开，又不会像"总选最快"那样把流量集中到同一个实例上
+ *
+ * 实例列表在后台按 refresh-interval 从 ServiceInstanceListSupplier 刷新（Nacos 客户端本地缓存由服务端推送更新），
+ * 按 host:port 增量合并：保留仍存在实例的统计，只为新实例创建统计。请求路径只读取当前快照，不查询注册中心
+ *
+ * @author HKD Team
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer, DisposableBean {
+
+    private static final InstanceStats[] EMPTY = new InstanceStats[0];
+
+    private final String serviceId;
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+    private final long initialRttNanos;
+    private final long decayNanos;
+    private final long failurePenaltyNanos;
+
+    private volatile InstanceStats[] instances = EMPTY;
+    private volatile boolean loaded;
+    private final Disposable refresher;
+
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                LoadBalancingProperties properties) {
+        this.serviceId = serviceId;
+        this.supplierProvider = supplierProvider;
+        this.initialRttNanos = TimeUnit.MILLISECONDS.toNanos(properties.getInitialRtt());
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getDecayTime());
+        this.failurePenaltyNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFailurePenalty());
+        this.refresher = Flux.interval(Duration.ZERO, Duration.ofMillis(properties.getRefreshInterval()))
+                .onBackpressureDrop()
+                .concatMap(tick -> fetch(), 1)
+                .subscribe(this::update);
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        if (!loaded) {
+            // 首次请求时后台刷新可能尚未完成
+            return fetch().doOnNext(this::update).then(Mono.fromSupplier(this::select));
+        }
+        return Mono.just(select());
+    }
+
+    private Response<ServiceInstance> select() {
+        InstanceStats[] snapshot = instances;
+        int size = snapshot.length;
+        if (size == 0) {
+            log.warn("没有可用实例: serviceId={}", serviceId);
+            return new EmptyResponse();
+        }
+        if (size == 1) {
+            return new PeakEwmaResponse(snapshot[0]);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        InstanceStats a = snapshot[first];
+        InstanceStats b = snapshot[second];
+        return new PeakEwmaResponse(a.cost(now) <= b.cost(now) ? a : b);
+    }
+
+    private Mono<List<ServiceInstance>> fetch() {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get().next()
+                .onErrorResume(e -> {
+                    log.warn("刷新实例列表失败，继续使用当前列表: serviceId={}, error={}", serviceId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * 合并新的实例列表（只在后台刷新线程和首次请求中调用，互相之间的竞争只会导致重复合并）
+     */
+    private synchronized void update(List<ServiceInstance> discovered) {
+        InstanceStats[] current = instances;
+        Map<String, InstanceStats> existing = new HashMap<>(current.length * 2);
+        for (InstanceStats stats : current) {
+            existing.put(stats.key(), stats);
+        }
+
+        InstanceStats[] updated = new InstanceStats[discovered.size()];
+        int added = 0;
+        for (int i = 0; i < updated.length; i++) {
+            ServiceInstance instance = discovered.get(i);
+            String key = instance.getHost() + ":" + instance.getPort();
+            InstanceStats stats = existing.remove(key);
+            if (stats == null) {
+                stats = new InstanceStats(key, instance, initialRttNanos, decayNanos, failurePenaltyNanos);
+                added++;
+            } else {
+                stats.instance(instance);
+            }
+            updated[i] = stats;
+        }
+        this.instances = updated;
+        this.loaded = true;
+
+        if (added > 0 || !existing.isEmpty()) {
+            log.info("实例列表变化: serviceId={}, instances={}, added={}, removed={}",
+                    serviceId, updated.length, added, existing.keySet());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refresher.dispose();
+    }
+}
@@ -0,0 +1,41 @@
+package com.hkd.gateway.loadbalancer;
+
+import com.hkd.gateway.config.LoadBalancingProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * 每个后端服务的 LoadBalancer 子容器配置（通过 @LoadBalancerClients 的 defaultConfiguration 注册，
+ * 不能标注 @Configuration，否则会被组件扫描注册到主容器）
+ *
+ * 实例列表不经过 Spring Cloud LoadBalancer 的 TTL 缓存：{@link PeakEwmaLoadBalancer} 自己在后台刷新并保存快照，
+ * 再叠加一层缓存只会推迟新实例的发现
+ *
+ * @author HKD Team
+ */
+@ConditionalOnProperty(value = "hkd.load-balancing.enabled", matchIfMissing = true)
+public class PeakEwmaLoadBalancerConfiguration {
+
+    @Bean
+    public ServiceInstanceListSupplier discoveryClientServiceInstanceListSupplier(
+            ConfigurableApplicationContext context) {
+        return ServiceInstanceListSupplier.builder()
+                .withDiscoveryClient()
+                .build(context);
+    }
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> peakEwmaLoadBalancer(Environment environment,
+                                                                     LoadBalancerClientFactory clientFactory,
+                                                                     LoadBalancingProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId, properties);
+    }
+}
@@ -0,0 +1,43 @@
+package com.hkd.gateway.loadbalancer;
+
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+
+/**
+ * {@link PeakEwmaLoadBalancer} 的选择结果，携带所选实例的统计，请求完成后由
+ * {@link com.hkd.gateway.filter.LoadBalancerFeedbackFilter} 回填延迟样本
+ *
+ * @author HKD Team
+ */
+public final class PeakEwmaResponse extends DefaultResponse {
+
+    private final InstanceStats stats;
+
+    PeakEwmaResponse(InstanceStats stats) {
+        super(stats.instance());
+        this.stats = stats;
+    }
+
+    /**
+     * 请求开始转发到所选实例
+     */
+    public void onStart() {
+        stats.start();
+    }
+
+    /**
+     * 请求完成
+     *
+     * @param rttNanos 从开始转发到响应完成的耗时
+     * @param failed   是否失败（5xx / 连接失败）
+     */
+    public void onComplete(long rttNanos, boolean failed) {
+        stats.complete(rttNanos, failed, System.nanoTime());
+    }
+
+    /**
+     * 请求被客户端取消
+     */
+    public void onCancel() {
+        stats.cancel();
+    }
+}
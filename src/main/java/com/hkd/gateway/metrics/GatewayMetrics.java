@@ -0,0 +1,465 @@
+package com.hkd.gateway.metrics;
+
+import com.hkd.gateway.client.AuthChannelPool;
+import com.hkd.gateway.service.AdaptiveConcurrencyLimiter;
+import com.hkd.gateway.service.ApiRateLimitPolicies;
+import com.hkd.gateway.service.HedgeBudget;
+import com.hkd.gateway.service.HedgePolicy;
+import com.hkd.gateway.service.MicroCache;
+import com.hkd.gateway.service.RateLimitRule.Dimension;
+import com.hkd.gateway.service.RequestPriority;
+import com.hkd.gateway.service.TrafficLane;
+import com.hkd.gateway.websocket.MarketDataHub;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关热路径指标
+ *
+ * 所有 Timer / Counter 在启动时按固定的标签组合注册并保存在数组中，请求路径上只按下标取出后记录，
+ * 不构造 Tags、不查找注册表、不分配对象。标签取值均为有限集合：
+ * - 限流拒绝、并发限制按路由ID划分，流量等级按等级名划分（不使用原始路径），每个路由首次出现时注册一次，数量受路由表约束
+ * - 后端延迟由 Spring Cloud Gateway 自带的 spring.cloud.gateway.requests（按 routeId）提供，此处不重复记录
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class GatewayMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CircuitBreaker authServiceCircuitBreaker;
+
+    @Value("${hkd.metrics.percentile-histogram}")
+    private boolean percentileHistogram;
+
+    /**
+     * [AuthRpc][AuthRpcOutcome]
+     */
+    private Timer[][] authRpcTimers;
+
+    private Counter validTokens;
+    private Counter invalidTokens;
+    private Counter tokenCacheHits;
+    private Counter tokenCacheMisses;
+    private Counter circuitNotPermitted;
+
+    /**
+     * [RedisOperation][成功, 失败]
+     */
+    private Timer[][] redisTimers;
+
+    private Timer[] filterTimers;
+
+    private Counter[] microCacheCounters;
+
+    /**
+     * 路由ID → [Dimension] 限流拒绝计数
+     */
+    private final Map<String, Counter[]> rateLimitRejections = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        this.authRpcTimers = new Timer[AuthRpc.values().length][AuthRpcOutcome.values().length];
+        for (AuthRpc rpc : AuthRpc.values()) {
+            for (AuthRpcOutcome outcome : AuthRpcOutcome.values()) {
+                authRpcTimers[rpc.ordinal()][outcome.ordinal()] = latencyTimer("gateway.auth.rpc",
+                        "auth-service gRPC 调用耗时", Duration.ofMillis(1), Duration.ofSeconds(1))
+                        .tag("method", tagValue(rpc))
+                        .tag("outcome", tagValue(outcome))
+                        .register(meterRegistry);
+            }
+        }
+
+        this.validTokens = tokenCounter("valid");
+        this.invalidTokens = tokenCounter("invalid");
+        this.tokenCacheHits = tokenCacheCounter("hit");
+        this.tokenCacheMisses = tokenCacheCounter("miss");
+
+        Gauge.builder("gateway.auth.circuit_breaker.state", authServiceCircuitBreaker,
+                        breaker -> stateValue(breaker.getState()))
+                .description("auth-service 熔断器状态：0=关闭，1=打开，2=半开，3=其他（禁用/强制打开等）")
+                .register(meterRegistry);
+        this.circuitNotPermitted = Counter.builder("gateway.auth.circuit_breaker.not_permitted")
+                .description("熔断器打开时被直接拒绝的 auth-service 调用次数")
+                .register(meterRegistry);
+        authServiceCircuitBreaker.getEventPublisher()
+                .onCallNotPermitted(event -> circuitNotPermitted.increment())
+                .onStateTransition(event -> log.warn("auth-service 熔断器状态变化: {}", event.getStateTransition()));
+
+        this.redisTimers = new Timer[RedisOperation.values().length][2];
+        for (RedisOperation operation : RedisOperation.values()) {
+            for (int failed = 0; failed < 2; failed++) {
+                redisTimers[operation.ordinal()][failed] = latencyTimer("gateway.rate_limit.redis",
+                        "限流 Redis 脚本往返耗时", Duration.ofMillis(1), Duration.ofSeconds(1))
+                        .tag("operation", tagValue(operation))
+                        .tag("outcome", failed == 0 ? "success" : "error")
+                        .register(meterRegistry);
+            }
+        }
+
+        this.filterTimers = new Timer[FilterStage.values().length];
+        for (FilterStage stage : FilterStage.values()) {
+            filterTimers[stage.ordinal()] = latencyTimer("gateway.filter.self",
+                    "全局过滤器自身耗时：从进入过滤器到放行或直接响应，包含过滤器内的异步等待，不包含下游",
+                    Duration.ofNanos(10_000), Duration.ofSeconds(1))
+                    .tag("filter", tagValue(stage))
+                    .register(meterRegistry);
+        }
+
+        this.microCacheCounters = new Counter[MicroCacheResult.values().length];
+        for (MicroCacheResult result : MicroCacheResult.values()) {
+            microCacheCounters[result.ordinal()] = Counter.builder("gateway.micro_cache.requests")
+                    .description("边缘微缓存处理的请求数")
+                    .tag("result", tagValue(result))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 记录一次 auth-service gRPC 调用
+     *
+     * @param rpc            调用的方法
+     * @param error          调用失败时的异常，成功为 null
+     * @param durationNanos  耗时（纳秒）
+     */
+    public void recordAuthRpc(AuthRpc rpc, Throwable error, long durationNanos) {
+        authRpcTimers[rpc.ordinal()][AuthRpcOutcome.of(error).ordinal()]
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录 auth-service 返回的单个Token验证结果
+     */
+    public void recordTokenResult(boolean valid) {
+        (valid ? validTokens : invalidTokens).increment();
+    }
+
+    /**
+     * 记录Token验证缓存命中 / 未命中（未命中包括合并到在途请求的情况）
+     */
+    public void recordTokenCache(boolean hit) {
+        (hit ? tokenCacheHits : tokenCacheMisses).increment();
+    }
+
+    /**
+     * 记录一次限流 Redis 脚本调用
+     */
+    public void recordRedis(RedisOperation operation, boolean failed, long durationNanos) {
+        redisTimers[operation.ordinal()][failed ? 1 : 0].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录一次限流拒绝
+     *
+     * @param dimension 被拒绝的维度
+     * @param routeId   命中的路由ID，未匹配路由为 null
+     */
+    public void recordRateLimitRejected(Dimension dimension, String routeId) {
+        String route = routeId != null ? routeId : ApiRateLimitPolicies.UNROUTED;
+        Counter[] counters = rateLimitRejections.get(route);
+        if (counters == null) {
+            counters = rateLimitRejections.computeIfAbsent(route, this::registerRejectionCounters);
+        }
+        counters[dimension.ordinal()].increment();
+    }
+
+    /**
+     * 注册路由的自适应并发限制器指标（并发上限、在途数、按优先级的拒绝数），每条路由调用一次
+     *
+     * @param routeId 路由ID
+     * @param limiter 并发限制器
+     */
+    public void registerConcurrencyLimiter(String routeId, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("gateway.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("自适应并发限制器估计的并发上限")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("经过自适应并发限制器的在途请求数")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            FunctionCounter.builder("gateway.concurrency.shed", limiter, l -> l.getShedCount(priority))
+                    .description("超过并发上限被直接拒绝（503）的请求数")
+                    .tag("route", routeId)
+                    .tag("priority", tagValue(priority))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 移除路由的并发限制器指标（限制器重建前调用，否则同名指标仍指向旧的限制器）
+     */
+    public void removeConcurrencyLimiter(String routeId) {
+        Search.in(meterRegistry)
+                .name(name -> name.startsWith("gateway.concurrency."))
+                .tag("route", routeId)
+                .meters()
+                .forEach(meterRegistry::remove);
+    }
+
+    /**
+     * 注册流量等级指标（在途数、排队数、按原因的拒绝数），每个等级调用一次
+     *
+     * @param lane 流量等级通道
+     */
+    public void registerTrafficLane(TrafficLane lane) {
+        Gauge.builder("gateway.traffic_class.in_flight", lane, TrafficLane::getInFlight)
+                .description("流量等级的在途请求数")
+                .tag("class", lane.getName())
+                .register(meterRegistry);
+        Gauge.builder("gateway.traffic_class.queued", lane, TrafficLane::getQueued)
+                .description("流量等级的排队请求数")
+                .tag("class", lane.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.traffic_class.rejected", lane, TrafficLane::getRejectedQueueFull)
+                .description("流量等级饱和被拒绝（503）的请求数")
+                .tag("class", lane.getName())
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.traffic_class.rejected", lane, TrafficLane::getRejectedTimeout)
+                .description("流量等级饱和被拒绝（503）的请求数")
+                .tag("class", lane.getName())
+                .tag("reason", "queue_timeout")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 注册 auth-service gRPC 连接池指标（Channel 数、READY 的 Channel 数、在途调用数）
+     *
+     * @param pool auth-service 连接池
+     */
+    public void registerAuthChannelPool(AuthChannelPool pool) {
+        Gauge.builder("gateway.auth.grpc.channels", pool, AuthChannelPool::getSize)
+                .description("auth-service gRPC 连接池的 Channel 数")
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.grpc.ready_channels", pool, AuthChannelPool::getReadyChannels)
+                .description("处于 READY 状态的 auth-service Channel 数")
+                .register(meterRegistry);
+        Gauge.builder("gateway.auth.grpc.in_flight", pool, AuthChannelPool::getInFlight)
+                .description("auth-service 在途 gRPC 调用数（含吊销推送流）")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 注册行情扇出指标（上游主题数、客户端连接数、慢客户端丢弃的帧数）
+     *
+     * @param hub 行情扇出中心
+     */
+    public void registerMarketDataHub(MarketDataHub hub) {
+        Gauge.builder("gateway.market_fanout.topics", hub, MarketDataHub::getTopicCount)
+                .description("本节点的行情上游订阅数（每个主题一条上游连接）")
+                .register(meterRegistry);
+        Gauge.builder("gateway.market_fanout.sessions", hub, MarketDataHub::getSessionCount)
+                .description("扇出模式下的客户端 WebSocket 连接数")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.market_fanout.dropped_frames", hub, MarketDataHub::getDroppedFrames)
+                .description("客户端队列已满被合并或丢弃的帧数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 注册边缘微缓存容量指标
+     *
+     * @param cache 边缘微缓存
+     */
+    public void registerMicroCache(MicroCache cache) {
+        Gauge.builder("gateway.micro_cache.entries", cache, MicroCache::getEntryCount)
+                .description("边缘微缓存条目数")
+                .register(meterRegistry);
+        Gauge.builder("gateway.micro_cache.bytes", cache, MicroCache::getWeightedSize)
+                .description("边缘微缓存占用的内存（响应体 + 响应头估算，字节）")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 注册全局对冲预算指标
+     *
+     * @param budget 对冲预算
+     */
+    public void registerHedgeBudget(HedgeBudget budget) {
+        Gauge.builder("gateway.hedging.budget", budget, HedgeBudget::getAvailable)
+                .description("当前可用的对冲次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 注册目标的对冲指标（对冲延迟、触发 / 获胜 / 预算不足次数），每个目标调用一次
+     *
+     * @param policy 对冲策略
+     */
+    public void registerHedgePolicy(HedgePolicy policy) {
+        Gauge.builder("gateway.hedging.delay", policy, p -> Math.max(0, p.getDelayNanos()) / 1_000_000.0)
+                .description("当前对冲延迟（毫秒），样本不足、尚未对冲时为 0")
+                .tag("target", policy.getTarget())
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.hedging.events", policy, HedgePolicy::getHedged)
+                .description("对冲事件数：hedged 触发对冲，won 对冲请求先返回，budget_exhausted 预算不足未对冲")
+                .tag("target", policy.getTarget())
+                .tag("result", "hedged")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.hedging.events", policy, HedgePolicy::getWon)
+                .description("对冲事件数：hedged 触发对冲，won 对冲请求先返回，budget_exhausted 预算不足未对冲")
+                .tag("target", policy.getTarget())
+                .tag("result", "won")
+                .register(meterRegistry);
+        FunctionCounter.builder("gateway.hedging.events", policy, HedgePolicy::getThrottled)
+                .description("对冲事件数：hedged 触发对冲，won 对冲请求先返回，budget_exhausted 预算不足未对冲")
+                .tag("target", policy.getTarget())
+                .tag("result", "budget_exhausted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一次边缘微缓存处理结果
+     */
+    public void recordMicroCache(MicroCacheResult result) {
+        microCacheCounters[result.ordinal()].increment();
+    }
+
+    /**
+     * 记录过滤器自身耗时
+     */
+    public void recordFilter(FilterStage stage, long durationNanos) {
+        filterTimers[stage.ordinal()].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter[] registerRejectionCounters(String routeId) {
+        Counter[] counters = new Counter[Dimension.values().length];
+        for (Dimension dimension : Dimension.values()) {
+            counters[dimension.ordinal()] = Counter.builder("gateway.rate_limit.rejected")
+                    .description("限流拒绝次数")
+                    .tag("dimension", tagValue(dimension))
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+        return counters;
+    }
+
+    private Timer.Builder latencyTimer(String name, String description, Duration min, Duration max) {
+        Timer.Builder builder = Timer.builder(name).description(description);
+        if (percentileHistogram) {
+            builder.publishPercentileHistogram()
+                    .minimumExpectedValue(min)
+                    .maximumExpectedValue(max);
+        }
+        return builder;
+    }
+
+    private Counter tokenCounter(String result) {
+        return Counter.builder("gateway.auth.tokens")
+                .description("auth-service 返回的Token验证结果")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter tokenCacheCounter(String result) {
+        return Counter.builder("gateway.auth.token_cache")
+                .description("Token验证缓存查询次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static int stateValue(CircuitBreaker.State state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case OPEN -> 1;
+            case HALF_OPEN -> 2;
+            default -> 3;
+        };
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * auth-service gRPC 方法
+     */
+    public enum AuthRpc {
+        VALIDATE,
+        BATCH_VALIDATE
+    }
+
+    /**
+     * auth-service gRPC 调用结果
+     */
+    public enum AuthRpcOutcome {
+        SUCCESS,
+        DEADLINE_EXCEEDED,
+        UNAVAILABLE,
+        ERROR;
+
+        static AuthRpcOutcome of(Throwable error) {
+            if (error == null) {
+                return SUCCESS;
+            }
+            return switch (Status.fromThrowable(error).getCode()) {
+                case DEADLINE_EXCEEDED -> DEADLINE_EXCEEDED;
+                case UNAVAILABLE -> UNAVAILABLE;
+                default -> ERROR;
+            };
+        }
+    }
+
+    /**
+     * 限流 Redis 操作
+     */
+    public enum RedisOperation {
+        ACQUIRE,
+        LEASE
+    }
+
+    /**
+     * 边缘微缓存处理结果
+     */
+    public enum MicroCacheResult {
+        /**
+         * 新鲜副本命中
+         */
+        HIT,
+        /**
+         * 返回陈旧副本（回源期间、熔断器打开或回源失败）
+         */
+        STALE,
+        /**
+         * 等待同一 Key 的回源结果
+         */
+        COALESCED,
+        /**
+         * 回源
+         */
+        MISS
+    }
+
+    /**
+     * 记录自身耗时的全局过滤器
+     */
+    public enum FilterStage {
+        REQUEST_CONTEXT,
+        JWT_AUTH,
+        RATE_LIMIT,
+        ACCESS_LOG
+    }
+}
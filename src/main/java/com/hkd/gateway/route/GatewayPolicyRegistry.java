@@ -0,0 +1,176 @@
+package com.hkd.gateway.route;
+
+import com.hkd.gateway.config.ApiRateLimitProperties;
+import com.hkd.gateway.config.AuthWhitelistProperties;
+import com.hkd.gateway.config.IpRateLimitProperties;
+import com.hkd.gateway.service.ApiRateLimitPolicies;
+import com.hkd.gateway.service.RateLimitRule;
+import com.hkd.gateway.util.PathPatternTrie;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网关策略快照的编译与原子替换
+ *
+ * - 配置刷新（Nacos 推送 → RefreshScopeRefreshedEvent，@ConfigurationProperties 已重新绑定）：
+ *   重新编译白名单和限流策略，沿用当前路由索引
+ * - 路由表刷新（RefreshRoutesResultEvent，SCG 已重建路由缓存）：按新路由重建索引和按路由的API限流策略
+ *
+ * 编译在事件线程上完成，请求路径上只读取一次 volatile 引用；新配置编译失败（如非法路径模板、非正的限流补充数）时保留旧快照
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class GatewayPolicyRegistry {
+
+    private static final String PATH_PREDICATE = "Path";
+    private static final String MATCH_TRAILING_SLASH = "matchTrailingSlash";
+
+    @Autowired
+    private AuthWhitelistProperties whitelistProperties;
+
+    @Autowired
+    private IpRateLimitProperties ipRateLimitProperties;
+
+    @Autowired
+    private ApiRateLimitProperties apiRateLimitProperties;
+
+    /**
+     * 延迟获取：路由定义依赖过滤器工厂，过滤器工厂又依赖本类
+     */
+    @Autowired
+    private ObjectProvider<RouteDefinitionLocator> routeDefinitionLocator;
+
+    private volatile GatewayPolicySnapshot snapshot;
+
+    // 以下字段只在 synchronized 方法中读写
+    private long version;
+    private RoutePathIndex<Route> routeIndex;
+    private List<String> routeIds = List.of();
+
+    @PostConstruct
+    public void init() {
+        publish();
+    }
+
+    /**
+     * 当前快照；单个请求内应只读取一次并沿用
+     */
+    public GatewayPolicySnapshot current() {
+        return snapshot;
+    }
+
+    @EventListener(RefreshScopeRefreshedEvent.class)
+    public void onConfigRefresh() {
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            log.error("网关策略重新编译失败，继续使用旧快照: version={}", snapshot.getVersion(), e);
+        }
+    }
+
+    @EventListener
+    public void onRoutesRefreshed(RefreshRoutesResultEvent event) {
+        if (!event.isSuccess() || !(event.getSource() instanceof RouteLocator routeLocator)) {
+            return;
+        }
+        Mono.zip(routeLocator.getRoutes().collectList(), routeDefinitions())
+                .subscribe(tuple -> installRoutes(tuple.getT1(), tuple.getT2()),
+                        e -> log.error("路由索引重建失败，继续使用旧快照", e));
+    }
+
+    private Mono<Map<String, RouteDefinition>> routeDefinitions() {
+        RouteDefinitionLocator locator = routeDefinitionLocator.getIfAvailable();
+        Flux<RouteDefinition> definitions = locator != null ? locator.getRouteDefinitions() : Flux.empty();
+        return definitions.collectMap(RouteDefinition::getId, definition -> definition);
+    }
+
+    private synchronized void installRoutes(List<Route> routes, Map<String, RouteDefinition> definitions) {
+        RoutePathIndex.Builder<Route> builder = RoutePathIndex.builder(routes);
+        List<String> ids = new ArrayList<>(routes.size());
+        int indexed = 0;
+        for (int i = 0; i < routes.size(); i++) {
+            Route route = routes.get(i);
+            ids.add(route.getId());
+            if (index(builder, i, definitions.get(route.getId()))) {
+                indexed++;
+            } else {
+                builder.always(i);
+            }
+        }
+        this.routeIndex = builder.build();
+        this.routeIds = List.copyOf(ids);
+        log.info("路由索引已重建: routes={}, indexed={}", routes.size(), indexed);
+        publish();
+    }
+
+    /**
+     * 登记路由的 Path 模式；路由没有 Path 断言或任一模式不可索引时返回 false
+     */
+    private static boolean index(RoutePathIndex.Builder<Route> builder, int position, RouteDefinition definition) {
+        if (definition == null) {
+            return false;
+        }
+        for (PredicateDefinition predicate : definition.getPredicates()) {
+            if (!PATH_PREDICATE.equals(predicate.getName())) {
+                continue;
+            }
+            // 多个 Path 断言之间是“与”的关系，只按第一个索引即可
+            List<String> patterns = new ArrayList<>();
+            for (Map.Entry<String, String> arg : predicate.getArgs().entrySet()) {
+                String value = arg.getValue();
+                if (MATCH_TRAILING_SLASH.equals(arg.getKey()) || "true".equals(value) || "false".equals(value)) {
+                    continue;
+                }
+                patterns.add(value);
+            }
+            if (patterns.isEmpty()) {
+                return false;
+            }
+            // 同一断言的多个模式之间是“或”的关系，任一模式不可索引即整条路由不可索引
+            if (!patterns.stream().allMatch(RoutePathIndex.Builder::isIndexable)) {
+                return false;
+            }
+            for (String pattern : patterns) {
+                builder.add(pattern, position);
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void publish() {
+        RateLimitRule.checkLimit("hkd.rate-limit.ip",
+                ipRateLimitProperties.getCapacity(), ipRateLimitProperties.getRefillRate());
+        GatewayPolicySnapshot next = new GatewayPolicySnapshot(
+                version + 1,
+                routeIndex,
+                PathPatternTrie.compile(whitelistProperties.getWhitelist()),
+                ipRateLimitProperties.getCapacity(),
+                ipRateLimitProperties.getRefillRate(),
+                ApiRateLimitPolicies.compile(apiRateLimitProperties, routeIds));
+        this.version = next.getVersion();
+        this.snapshot = next;
+        log.info("网关策略快照已更新: version={}, whitelist={}, ip={}/{}, apiPolicies={}",
+                next.getVersion(), whitelistProperties.getWhitelist(), next.getIpCapacity(),
+                next.getIpRefillRate(), next.getApiPolicies().size());
+    }
+}
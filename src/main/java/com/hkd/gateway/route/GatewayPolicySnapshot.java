@@ -0,0 +1,76 @@
+package com.hkd.gateway.route;
+
+import com.hkd.gateway.service.ApiRateLimitPolicies;
+import com.hkd.gateway.util.PathPatternTrie;
+import org.springframework.cloud.gateway.route.Route;
+
+import java.util.List;
+
+/**
+ * 网关策略快照（不可变）
+ *
+ * 把路由表索引、认证白名单、IP限流和按路由预编译的API限流策略编译到同一个对象里。
+ * 配置或路由变更时整体重新编译后原子替换，单个请求从头到尾读取同一个快照，不会看到新旧策略混用
+ *
+ * @author HKD Team
+ */
+public final class GatewayPolicySnapshot {
+
+    private final long version;
+    private final RoutePathIndex<Route> routeIndex;
+    private final PathPatternTrie whitelist;
+    private final int ipCapacity;
+    private final int ipRefillRate;
+    private final ApiRateLimitPolicies apiPolicies;
+
+    /**
+     * @param routeIndex 路由索引；路由表尚未加载时为 null
+     */
+    GatewayPolicySnapshot(long version, RoutePathIndex<Route> routeIndex, PathPatternTrie whitelist,
+                          int ipCapacity, int ipRefillRate, ApiRateLimitPolicies apiPolicies) {
+        this.version = version;
+        this.routeIndex = routeIndex;
+        this.whitelist = whitelist;
+        this.ipCapacity = ipCapacity;
+        this.ipRefillRate = ipRefillRate;
+        this.apiPolicies = apiPolicies;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 路由表是否已加载（未加载时路由匹配回退为逐条评估）
+     */
+    public boolean hasRouteIndex() {
+        return routeIndex != null;
+    }
+
+    RoutePathIndex<Route> getRouteIndex() {
+        return routeIndex;
+    }
+
+    /**
+     * 按原顺序返回可能命中的候选路由
+     */
+    public List<Route> candidateRoutes(String rawPath) {
+        return routeIndex.candidates(rawPath);
+    }
+
+    public boolean isWhitelisted(String path) {
+        return whitelist.matches(path);
+    }
+
+    public int getIpCapacity() {
+        return ipCapacity;
+    }
+
+    public int getIpRefillRate() {
+        return ipRefillRate;
+    }
+
+    public ApiRateLimitPolicies getApiPolicies() {
+        return apiPolicies;
+    }
+}
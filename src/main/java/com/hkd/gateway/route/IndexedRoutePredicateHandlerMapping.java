@@ -0,0 +1,67 @@
+package com.hkd.gateway.route;
+
+import com.hkd.gateway.config.RouteIndexProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.config.GlobalCorsProperties;
+import org.springframework.cloud.gateway.handler.FilteringWebHandler;
+import org.springframework.cloud.gateway.handler.RoutePredicateHandlerMapping;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.core.env.Environment;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_PREDICATE_ROUTE_ATTR;
+
+/**
+ * 基于路由索引的路由匹配
+ *
+ * SCG 默认对每个请求按顺序逐条评估所有路由的断言；这里先用策略快照中的路径索引筛出候选路由，
+ * 再按原顺序只评估候选路由的完整断言，匹配结果与默认实现一致。路由表尚未加载或关闭
+ * hkd.route-index.enabled 时回退为默认实现
+ *
+ * @author HKD Team
+ */
+@Slf4j
+public class IndexedRoutePredicateHandlerMapping extends RoutePredicateHandlerMapping {
+
+    private final GatewayPolicyRegistry policyRegistry;
+    private final RouteIndexProperties properties;
+
+    public IndexedRoutePredicateHandlerMapping(FilteringWebHandler webHandler, RouteLocator routeLocator,
+                                               GlobalCorsProperties globalCorsProperties, Environment environment,
+                                               GatewayPolicyRegistry policyRegistry, RouteIndexProperties properties) {
+        super(webHandler, routeLocator, globalCorsProperties, environment);
+        this.policyRegistry = policyRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    protected Mono<Route> lookupRoute(ServerWebExchange exchange) {
+        GatewayPolicySnapshot snapshot = policyRegistry.current();
+        if (!properties.isEnabled() || !snapshot.hasRouteIndex()) {
+            return super.lookupRoute(exchange);
+        }
+        // 与 Path 断言一致，使用未解码的原始路径
+        List<Route> candidates = snapshot.candidateRoutes(exchange.getRequest().getURI().getRawPath());
+        if (candidates.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.fromIterable(candidates)
+                .concatMap(route -> Mono.just(route)
+                        .filterWhen(r -> {
+                            exchange.getAttributes().put(GATEWAY_PREDICATE_ROUTE_ATTR, r.getId());
+                            return r.getPredicate().apply(exchange);
+                        })
+                        .doOnError(e -> log.error("路由断言执行异常: routeId={}", route.getId(), e))
+                        .onErrorResume(e -> Mono.empty()))
+                .next()
+                .map(route -> {
+                    validateRoute(route, exchange);
+                    return route;
+                });
+    }
+}
@@ -0,0 +1,314 @@
+package com.hkd.gateway.route;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 路由路径索引（不可变）
+ *
+ * 按 Path 断言的模式把路由挂到路径段前缀树上，请求只需按 '/' 逐段走一遍树，即得到可能命中的候选路由，
+ * 复杂度 O(路径段数)，与路由数量无关。索引只做预筛选：候选路由仍按原顺序完整评估全部断言（Method、Header 等），
+ * 因此索引必须保守——宁可多给候选，不能漏掉可能命中的路由：
+ * - 可索引的模式：纯字面段，末段可为 *、** 或 {*var}
+ * - 其余模式（中间段含 {var}、*、? 等）以及没有 Path 断言的路由，对所有请求都是候选
+ * - 含百分号编码、矩阵参数（;）、"." / ".." 或空段的请求路径，与 PathPattern 的解码 / 匹配语义可能不同，直接返回全部路由
+ *
+ * @param <T> 路由类型
+ * @author HKD Team
+ */
+public final class RoutePathIndex<T> {
+
+    private final List<T> values;
+    private final Node root;
+    private final long[] always;
+
+    private RoutePathIndex(List<T> values, Node root, long[] always) {
+        this.values = values;
+        this.root = root;
+        this.always = always;
+    }
+
+    /**
+     * @param values 路由列表（顺序即匹配优先级）
+     */
+    public static <T> Builder<T> builder(List<T> values) {
+        return new Builder<>(values);
+    }
+
+    /**
+     * 返回可能命中的候选路由，保持原顺序
+     *
+     * @param rawPath 未解码的请求路径（与 Path 断言使用的 URI rawPath 一致）
+     */
+    public List<T> candidates(String rawPath) {
+        if (values.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (needsFullScan(rawPath)) {
+            return values;
+        }
+        long[] hits = always.clone();
+        Node node = root;
+        int length = rawPath.length();
+        int start = rawPath.startsWith("/") ? 1 : 0;
+
+        while (true) {
+            or(hits, node.allBelow);
+            if (start >= length) {
+                // 路径已结束（含末尾 '/'）；/a/* 是否匹配 /a/ 交由断言判断
+                or(hits, node.terminal);
+                or(hits, node.oneChild);
+                break;
+            }
+            int end = rawPath.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end >= length - 1) {
+                or(hits, node.oneChild);
+            }
+            Node child = node.find(rawPath, start, end - start);
+            if (child == null) {
+                break;
+            }
+            node = child;
+            start = end + 1;
+        }
+        return select(hits);
+    }
+
+    private List<T> select(long[] hits) {
+        List<T> selected = new ArrayList<>(4);
+        for (int word = 0; word < hits.length; word++) {
+            long bits = hits[word];
+            while (bits != 0) {
+                selected.add(values.get(word * 64 + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return selected;
+    }
+
+    private static void or(long[] hits, long[] mask) {
+        if (mask == null) {
+            return;
+        }
+        for (int i = 0; i < mask.length; i++) {
+            hits[i] |= mask[i];
+        }
+    }
+
+    /**
+     * 路径含 '%'、';'、空段或 "." / ".." 段时不走索引
+     */
+    private static boolean needsFullScan(String path) {
+        int length = path.length();
+        int segmentStart = 0;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? path.charAt(i) : '/';
+            if (c == '%' || c == ';') {
+                return true;
+            }
+            if (c != '/') {
+                continue;
+            }
+            int segmentLength = i - segmentStart;
+            if (i > 0 && i < length && segmentLength == 0) {
+                return true;
+            }
+            if ((segmentLength == 1 && path.charAt(segmentStart) == '.')
+                    || (segmentLength == 2 && path.charAt(segmentStart) == '.' && path.charAt(segmentStart + 1) == '.')) {
+                return true;
+            }
+            segmentStart = i + 1;
+        }
+        return false;
+    }
+
+    /**
+     * 不可变节点；掩码为按路由位置编号的位图，null 表示为空
+     */
+    private static final class Node {
+
+        private final String[] segments;
+        private final Node[] children;
+        private final long[] terminal;
+        private final long[] oneChild;
+        private final long[] allBelow;
+
+        Node(String[] segments, Node[] children, long[] terminal, long[] oneChild, long[] allBelow) {
+            this.segments = segments;
+            this.children = children;
+            this.terminal = terminal;
+            this.oneChild = oneChild;
+            this.allBelow = allBelow;
+        }
+
+        Node find(String path, int start, int segmentLength) {
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.length() == segmentLength && path.regionMatches(start, segment, 0, segmentLength)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 编译器（非线程安全）
+     */
+    public static final class Builder<T> {
+
+        private final List<T> values;
+        private final int words;
+        private final long[] always;
+        private final NodeBuilder root;
+
+        private Builder(List<T> values) {
+            this.values = List.copyOf(values);
+            this.words = (values.size() + 63) / 64;
+            this.always = new long[words];
+            this.root = new NodeBuilder(words);
+        }
+
+        /**
+         * 模式是否可索引（纯字面段，末段可为 *、** 或 {*var}）
+         */
+        public static boolean isIndexable(String pattern) {
+            return parse(pattern) != null;
+        }
+
+        /**
+         * 登记第 position 条路由的一个 Path 模式
+         *
+         * @return 模式不可索引时返回 false（调用方应改为 {@link #always(int)}）
+         */
+        public boolean add(String pattern, int position) {
+            ParsedPattern parsed = parse(pattern);
+            if (parsed == null) {
+                return false;
+            }
+            NodeBuilder node = root;
+            for (String literal : parsed.literals()) {
+                node = node.child(literal, words);
+            }
+            long[] mask = switch (parsed.wildcard()) {
+                case ONE_CHILD -> node.oneChild;
+                case ALL_BELOW -> node.allBelow;
+                case NONE -> node.terminal;
+            };
+            set(mask, position);
+            return true;
+        }
+
+        /**
+         * 第 position 条路由对所有请求都是候选
+         */
+        public void always(int position) {
+            set(always, position);
+        }
+
+        public RoutePathIndex<T> build() {
+            return new RoutePathIndex<>(values, root.build(), always.clone());
+        }
+
+        private static ParsedPattern parse(String rawPattern) {
+            String pattern = rawPattern == null ? "" : rawPattern.trim();
+            if (!pattern.startsWith("/")) {
+                return null;
+            }
+            String[] segments = pattern.split("/");
+            List<String> literals = new ArrayList<>(segments.length);
+            Wildcard wildcard = Wildcard.NONE;
+            for (int i = 1; i < segments.length; i++) {
+                String segment = segments[i];
+                boolean last = i == segments.length - 1;
+                if (segment.isEmpty()) {
+                    return null;
+                }
+                if (last && "**".equals(segment)) {
+                    wildcard = Wildcard.ALL_BELOW;
+                } else if (last && "*".equals(segment)) {
+                    wildcard = Wildcard.ONE_CHILD;
+                } else if (last && segment.startsWith("{*") && segment.endsWith("}")) {
+                    wildcard = Wildcard.ALL_BELOW;
+                } else if (isLiteral(segment)) {
+                    literals.add(segment);
+                } else {
+                    return null;
+                }
+            }
+            return new ParsedPattern(literals, wildcard);
+        }
+
+        private static boolean isLiteral(String segment) {
+            for (int i = 0; i < segment.length(); i++) {
+                char c = segment.charAt(i);
+                if (c == '*' || c == '?' || c == '{' || c == '}' || c == '%' || c == ';') {
+                    return false;
+                }
+            }
+            return !".".equals(segment) && !"..".equals(segment);
+        }
+
+        private static void set(long[] mask, int position) {
+            mask[position >>> 6] |= 1L << (position & 63);
+        }
+    }
+
+    private enum Wildcard {
+        NONE, ONE_CHILD, ALL_BELOW
+    }
+
+    private record ParsedPattern(List<String> literals, Wildcard wildcard) {
+    }
+
+    /**
+     * 编译期使用的可变节点
+     */
+    private static final class NodeBuilder {
+
+        private final List<String> segments = new ArrayList<>();
+        private final List<NodeBuilder> children = new ArrayList<>();
+        private final long[] terminal;
+        private final long[] oneChild;
+        private final long[] allBelow;
+
+        NodeBuilder(int words) {
+            this.terminal = new long[words];
+            this.oneChild = new long[words];
+            this.allBelow = new long[words];
+        }
+
+        NodeBuilder child(String segment, int words) {
+            int index = segments.indexOf(segment);
+            if (index >= 0) {
+                return children.get(index);
+            }
+            NodeBuilder child = new NodeBuilder(words);
+            segments.add(segment);
+            children.add(child);
+            return child;
+        }
+
+        Node build() {
+            Node[] built = new Node[children.size()];
+            for (int i = 0; i < built.length; i++) {
+                built[i] = children.get(i).build();
+            }
+            return new Node(segments.toArray(new String[0]), built,
+                    orNull(terminal), orNull(oneChild), orNull(allBelow));
+        }
+
+        private static long[] orNull(long[] mask) {
+            for (long word : mask) {
+                if (word != 0) {
+                    return mask;
+                }
+            }
+            return null;
+        }
+    }
+}
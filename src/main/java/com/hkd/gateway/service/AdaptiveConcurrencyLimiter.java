@@ -0,0 +1,238 @@
+package com.hkd.gateway.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单条路由的自适应并发限制器（梯度算法，参考 Netflix concurrency-limits Gradient2 / Vegas）
+ *
+ * 不预设后端容量，而是根据后端 RTT 的变化估计其可承受的在途请求数：
+ * - 每个窗口计算短期 RTT（窗口内平均值），基准 RTT 为上次探测以来各窗口短期 RTT 的最小值
+ * - gradient = clamp(tolerance × 基准RTT / 短期RTT, 0.5, 1)：RTT 未明显膨胀时为 1，排队变长时小于 1
+ * - 新上限 = 上限 × gradient + √上限（允许少量排队以继续探测），再按 smoothing 平滑
+ * - 窗口内出现后端错误时按 backoff-ratio 乘性收缩
+ * - 在途请求不足上限一半时不扩张（流量本身不足，RTT 无法反映容量）
+ * - 每 probe-interval 个窗口将并发上限减半两个窗口：第一个窗口排空队列，第二个窗口的 RTT 作为新的基准。
+ *   基准若跟随负载下的 RTT 缓慢上升（如 EWMA），上限会随之持续膨胀；后端本身变慢时也靠探测更新基准
+ *
+ * 准入按优先级使用不同比例的上限：LOW 最先被拒绝，CRITICAL 可略超估计上限
+ *
+ * 请求路径上只有一次 CAS（在途计数）和几次 LongAdder 累加；上限调整在窗口结束时由单个线程完成
+ *
+ * @author HKD Team
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final long windowNanos;
+    private final int minWindowSamples;
+    private final int probeInterval;
+    private final double[] priorityRatios;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder[] shed = new LongAdder[RequestPriority.values().length];
+
+    private final LongAdder windowRttNanos = new LongAdder();
+    private final LongAdder windowSamples = new LongAdder();
+    private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+    private volatile boolean windowDropped;
+    private volatile long windowStart = System.nanoTime();
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    private double baselineRttNanos;
+    private int windowsUntilProbe;
+
+    /**
+     * 探测剩余窗口数：2 = 排空队列，1 = 测量基准 RTT，0 = 未在探测
+     */
+    private int probeWindows;
+
+    private volatile double limit;
+
+    /**
+     * 各优先级可用的在途上限（按 RequestPriority 序号），随 limit 一起更新
+     */
+    private volatile int[] thresholds;
+
+    /**
+     * @param initialLimit     初始并发上限
+     * @param minLimit         并发上限下界
+     * @param maxLimit         并发上限上界
+     * @param smoothing        新估计值权重
+     * @param tolerance        容忍的 RTT 膨胀倍数
+     * @param backoffRatio     出现错误时的收缩比例
+     * @param windowMillis     采样窗口时长 (毫秒)
+     * @param minWindowSamples 窗口最少样本数
+     * @param probeInterval    两次基准 RTT 探测之间的窗口数
+     * @param lowRatio         LOW 优先级可用的上限比例
+     * @param criticalRatio    CRITICAL 优先级可用的上限比例
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double smoothing,
+                                      double tolerance, double backoffRatio, long windowMillis,
+                                      int minWindowSamples, int probeInterval, double lowRatio, double criticalRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.minWindowSamples = minWindowSamples;
+        this.probeInterval = probeInterval;
+        this.windowsUntilProbe = nextProbeDelay();
+        this.priorityRatios = new double[RequestPriority.values().length];
+        priorityRatios[RequestPriority.CRITICAL.ordinal()] = criticalRatio;
+        priorityRatios[RequestPriority.NORMAL.ordinal()] = 1.0;
+        priorityRatios[RequestPriority.LOW.ordinal()] = lowRatio;
+        for (int i = 0; i < shed.length; i++) {
+            shed[i] = new LongAdder();
+        }
+        setLimit(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     *
+     * @param priority 请求优先级
+     * @return true 已占用（完成后必须调用 {@link #onComplete} 或 {@link #onCancel}）；false 应拒绝请求
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        int threshold = thresholds[priority.ordinal()];
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= threshold) {
+                shed[priority.ordinal()].increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        windowMaxInFlight.accumulateAndGet(current + 1, Math::max);
+        return true;
+    }
+
+    /**
+     * 请求完成，释放名额并记录 RTT 样本
+     *
+     * @param rttNanos 后端往返耗时
+     * @param dropped  是否为后端错误（5xx / 超时 / 连接失败）
+     */
+    public void onComplete(long rttNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        if (dropped) {
+            windowDropped = true;
+        } else {
+            windowRttNanos.add(rttNanos);
+            windowSamples.increment();
+        }
+
+        long now = System.nanoTime();
+        if (now - windowStart >= windowNanos && (dropped || windowSamples.sum() >= minWindowSamples)
+                && updateLock.tryLock()) {
+            try {
+                if (now - windowStart >= windowNanos) {
+                    update(now);
+                }
+            } finally {
+                updateLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 请求被客户端取消，只释放名额，不作为样本
+     */
+    public void onCancel() {
+        inFlight.decrementAndGet();
+    }
+
+    private void update(long now) {
+        long samples = windowSamples.sumThenReset();
+        long rttSum = windowRttNanos.sumThenReset();
+        int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+        boolean dropped = windowDropped;
+        windowDropped = false;
+        windowStart = now;
+
+        double current = limit;
+        double shortRtt = samples > 0 ? (double) rttSum / samples : 0;
+        if (probeWindows > 0) {
+            if (--probeWindows == 0) {
+                if (shortRtt > 0) {
+                    baselineRttNanos = shortRtt;
+                }
+                windowsUntilProbe = nextProbeDelay();
+                setLimit(current);
+            }
+            return;
+        }
+
+        double next;
+        if (dropped) {
+            next = current * backoffRatio;
+        } else {
+            if (samples == 0) {
+                return;
+            }
+            baselineRttNanos = baselineRttNanos == 0 ? shortRtt : Math.min(baselineRttNanos, shortRtt);
+            if (--windowsUntilProbe <= 0) {
+                probeWindows = 2;
+                setThresholds(Math.max(minLimit, current / 2));
+                return;
+            }
+            if (maxInFlight < current / 2) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRttNanos / shortRtt));
+            double estimate = current * gradient + Math.sqrt(current);
+            next = current * (1 - smoothing) + estimate * smoothing;
+        }
+        setLimit(Math.max(minLimit, Math.min(maxLimit, next)));
+    }
+
+    private void setLimit(double newLimit) {
+        setThresholds(newLimit);
+        this.limit = newLimit;
+    }
+
+    private void setThresholds(double newLimit) {
+        int[] updated = new int[priorityRatios.length];
+        for (int i = 0; i < updated.length; i++) {
+            updated[i] = Math.max(1, (int) Math.ceil(newLimit * priorityRatios[i]));
+        }
+        this.thresholds = updated;
+    }
+
+    /**
+     * 探测间隔加入最多 20% 的随机抖动，避免多个网关节点同时探测
+     */
+    private int nextProbeDelay() {
+        return probeInterval + ThreadLocalRandom.current().nextInt(Math.max(1, probeInterval / 5));
+    }
+
+    /**
+     * 当前估计的并发上限（NORMAL 优先级）
+     */
+    public double getLimit() {
+        return limit;
+    }
+
+    /**
+     * 当前在途请求数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 累计拒绝数
+     */
+    public long getShedCount(RequestPriority priority) {
+        return shed[priority.ordinal()].sum();
+    }
+}
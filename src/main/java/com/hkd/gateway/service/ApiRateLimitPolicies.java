@@ -0,0 +1,120 @@
+package com.hkd.gateway.service;
+
+import com.hkd.gateway.config.ApiRateLimitProperties;
+import com.hkd.gateway.config.ApiRateLimitProperties.RouteLimit;
+import com.hkd.gateway.service.RateLimitRule.Dimension;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API限流策略表（不可变）
+ *
+ * 按路由ID（而非原始路径）划分API限流Key，URL 中的订单ID、交易对等不再产生新Key：
+ * ratelimit:api:{routeId}:{userId} 或 ratelimit:api:{routeId}:{pattern}:{userId}
+ *
+ * Key 前缀和路径模板在编译策略快照时预编译（含所有已知路由的默认策略），请求路径上只做一次字符串拼接（前缀 + 用户ID）。
+ * 配置变更时整体重新编译并随 {@link com.hkd.gateway.route.GatewayPolicySnapshot} 原子替换
+ *
+ * @author HKD Team
+ */
+public final class ApiRateLimitPolicies {
+
+    /**
+     * 未匹配到路由的请求（如 /fallback、/actuator）使用的路由ID
+     */
+    public static final String UNROUTED = "unrouted";
+
+    private static final String KEY_PREFIX = "ratelimit:api:";
+
+    private final Map<String, RoutePolicy> policies;
+    private final int defaultCapacity;
+
+    private ApiRateLimitPolicies(Map<String, RoutePolicy> policies, int defaultCapacity) {
+        this.policies = policies;
+        this.defaultCapacity = defaultCapacity;
+    }
+
+    /**
+     * 编译策略表
+     *
+     * @param properties 限流配置
+     * @param routeIds   当前路由表中的路由ID，未单独配置的按 default-capacity 预编译
+     */
+    public static ApiRateLimitPolicies compile(ApiRateLimitProperties properties, Collection<String> routeIds) {
+        Map<String, RoutePolicy> policies = new HashMap<>();
+        properties.getRoutes().forEach((routeId, limit) -> policies.put(routeId, compile(routeId, limit)));
+        int defaultCapacity = properties.getDefaultCapacity();
+        for (String routeId : routeIds) {
+            policies.computeIfAbsent(routeId, id -> defaultPolicy(id, defaultCapacity));
+        }
+        policies.computeIfAbsent(UNROUTED, id -> defaultPolicy(id, defaultCapacity));
+        return new ApiRateLimitPolicies(Map.copyOf(policies), defaultCapacity);
+    }
+
+    /**
+     * 生成API维度的限流规则
+     *
+     * @param routeId 命中的路由ID
+     * @param path    请求路径（已解析的 PathContainer）
+     * @param userId  用户ID
+     * @return 限流规则
+     */
+    public RateLimitRule resolve(String routeId, PathContainer path, String userId) {
+        RoutePolicy policy = policies.get(routeId);
+        if (policy == null) {
+            // 路由表刚刷新、策略快照尚未替换的短暂窗口内才会出现，临时编译默认策略，不缓存
+            policy = defaultPolicy(routeId, defaultCapacity);
+        }
+        return policy.rule(path, userId);
+    }
+
+    public int size() {
+        return policies.size();
+    }
+
+    private static RoutePolicy defaultPolicy(String routeId, int defaultCapacity) {
+        RouteLimit limit = new RouteLimit();
+        limit.setCapacity(defaultCapacity);
+        return compile(routeId, limit);
+    }
+
+    private static RoutePolicy compile(String routeId, RouteLimit limit) {
+        int capacity = limit.getCapacity();
+        int refillRate = limit.getRefillRate() != null ? limit.getRefillRate() : capacity;
+        RateLimitRule.checkLimit("hkd.rate-limit.api.routes." + routeId, capacity, refillRate);
+        List<TemplatePolicy> templates = new ArrayList<>(limit.getPatterns().size());
+        for (String pattern : limit.getPatterns()) {
+            templates.add(new TemplatePolicy(PathPatternParser.defaultInstance.parse(pattern),
+                    KEY_PREFIX + routeId + ":" + pattern + ":"));
+        }
+        return new RoutePolicy(KEY_PREFIX + routeId + ":", capacity, refillRate, List.copyOf(templates));
+    }
+
+    /**
+     * 单条路由的预编译策略
+     */
+    private record RoutePolicy(String keyPrefix, int capacity, int refillRate, List<TemplatePolicy> templates) {
+
+        RateLimitRule rule(PathContainer path, String userId) {
+            String prefix = keyPrefix;
+            for (int i = 0; i < templates.size(); i++) {
+                TemplatePolicy template = templates.get(i);
+                if (template.pattern().matches(path)) {
+                    prefix = template.keyPrefix();
+                    break;
+                }
+            }
+            return new RateLimitRule(Dimension.API, prefix.concat(userId), capacity, refillRate);
+        }
+    }
+
+    private record TemplatePolicy(PathPattern pattern, String keyPrefix) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.hkd.gateway.service;
+
+import com.hkd.gateway.route.GatewayPolicyRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 认证白名单
+ * 白名单编译为 {@link com.hkd.gateway.util.PathPatternTrie}，作为网关策略快照的一部分，
+ * 启动时及配置刷新（如 Nacos 推送）后随快照原子替换
+ *
+ * @author HKD Team
+ */
+@Component
+public class AuthWhitelist {
+
+    @Autowired
+    private GatewayPolicyRegistry policyRegistry;
+
+    /**
+     * 检查路径是否在白名单中
+     */
+    public boolean matches(String path) {
+        return policyRegistry.current().isWhitelisted(path);
+    }
+}
@@ -0,0 +1,113 @@
+package com.hkd.gateway.service;
+
+import io.netty.buffer.ByteBuf;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 微缓存条目：状态码、后端响应头和引用计数的响应体
+ *
+ * 响应体是按实际大小分配的一块直接内存，命中时写出其 retainedDuplicate（共享内存、独立读写索引），不复制内容。
+ * 条目自身的引用计数由缓存持有一次；被淘汰或替换后，正在写出的响应仍持有各自的 ByteBuf 引用，写完后才真正释放。
+ * 读取方通过 {@link #retainBody()} 获取响应体，条目已被淘汰释放时返回 null，不会访问已释放的内存
+ *
+ * @author HKD Team
+ */
+public final class CachedResponse {
+
+    /**
+     * 每个响应头估算的额外开销（字节），计入内存上限
+     */
+    private static final int HEADER_OVERHEAD = 32;
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final ByteBuf body;
+    private final long storedNanos;
+    private final long freshNanos;
+    private final long lifetimeNanos;
+    private final int weight;
+
+    private final AtomicInteger refs = new AtomicInteger(1);
+
+    /**
+     * @param body          响应体，条目接管其一次引用
+     * @param freshNanos    新鲜期
+     * @param staleNanos    新鲜期过后仍可作为陈旧副本返回的时长
+     */
+    public CachedResponse(HttpStatusCode status, HttpHeaders headers, ByteBuf body,
+                          long storedNanos, long freshNanos, long staleNanos) {
+        this.status = status;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.storedNanos = storedNanos;
+        this.freshNanos = freshNanos;
+        this.lifetimeNanos = freshNanos + staleNanos;
+        this.weight = body.readableBytes() + estimateHeaderBytes(headers);
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public boolean isFresh(long nowNanos) {
+        return nowNanos - storedNanos < freshNanos;
+    }
+
+    public long getLifetimeNanos() {
+        return lifetimeNanos;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * 获取响应体的一个 retainedDuplicate，由调用方负责释放（写出到 Netty 后由 Netty 释放）
+     *
+     * @return 响应体，条目已释放时返回 null
+     */
+    public ByteBuf retainBody() {
+        for (;;) {
+            int current = refs.get();
+            if (current == 0) {
+                return null;
+            }
+            if (refs.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        try {
+            return body.retainedDuplicate();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * 释放一次引用（缓存淘汰 / 替换条目时调用）
+     */
+    public void release() {
+        if (refs.decrementAndGet() == 0) {
+            body.release();
+        }
+    }
+
+    private static int estimateHeaderBytes(HttpHeaders headers) {
+        int size = 0;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            for (String value : header.getValue()) {
+                size += header.getKey().length() + value.length() + HEADER_OVERHEAD;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,66 @@
+package com.hkd.gateway.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 全局对冲预算（令牌桶，按请求数而不是时间补充）
+ *
+ * 每个可对冲的首发请求存入 ratio 个令牌，每个对冲请求取出 1 个，余额不超过 burst：
+ * 对冲请求数长期不超过首发请求数的 ratio。后端整体变慢时所有请求都会超过对冲延迟，
+ * 预算保证对冲不会把负载放大一倍、进一步拖慢后端
+ *
+ * @author HKD Team
+ */
+public final class HedgeBudget {
+
+    /**
+     * 令牌以千分之一为单位存储
+     */
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance = new AtomicLong();
+
+    /**
+     * @param ratio 每个首发请求存入的令牌数
+     * @param burst 最多积累的令牌数
+     */
+    public HedgeBudget(double ratio, int burst) {
+        this.deposit = Math.max(0, Math.round(ratio * SCALE));
+        this.capacity = Math.max(1, burst) * SCALE;
+    }
+
+    /**
+     * 首发请求存入额度；可能略微超过上限，不影响长期比例
+     */
+    public void deposit() {
+        if (balance.get() < capacity) {
+            balance.addAndGet(deposit);
+        }
+    }
+
+    /**
+     * 取出一次对冲的额度
+     *
+     * @return 余额不足时返回 false，不发送对冲请求
+     */
+    public boolean tryAcquire() {
+        for (;;) {
+            long current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前可用的对冲次数
+     */
+    public double getAvailable() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,132 @@
+package com.hkd.gateway.service;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个目标（auth-service 或一条路由）的对冲策略
+ *
+ * 首发请求超过对冲延迟仍未返回时再发一次对冲请求，取先返回的结果，另一个随即取消：
+ * - 对冲延迟 = 首发请求延迟的分位数（{@link LatencyWindow}），限制在 [minDelay, maxDelay]；样本不足时不对冲
+ * - 首发请求在对冲延迟内失败时直接返回错误，不做对冲（对冲针对慢请求，不是重试）
+ * - 对冲延迟不小于剩余截止时间时不对冲，对冲请求来不及返回
+ * - 全局预算（{@link HedgeBudget}）不足时不对冲
+ *
+ * 延迟样本只取首发请求：被对冲取消的首发请求按已等待的时间计入，这部分样本本来就在分位数之上，不会压低对冲延迟
+ *
+ * @author HKD Team
+ */
+public final class HedgePolicy {
+
+    private final String target;
+    private final HedgeBudget budget;
+    private final LatencyWindow latency;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder won = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    /**
+     * @param target        目标名（指标标签）
+     * @param budget        全局对冲预算
+     * @param latency       首发请求延迟统计
+     * @param minDelayNanos 对冲延迟下限
+     * @param maxDelayNanos 对冲延迟上限
+     */
+    public HedgePolicy(String target, HedgeBudget budget, LatencyWindow latency,
+                       long minDelayNanos, long maxDelayNanos) {
+        this.target = target;
+        this.budget = budget;
+        this.latency = latency;
+        this.minDelayNanos = minDelayNanos;
+        this.maxDelayNanos = maxDelayNanos;
+    }
+
+    /**
+     * 执行一次可对冲的请求
+     *
+     * 两个 Mono 都必须是惰性的（订阅时才发出请求），取消时放弃请求；
+     * 两个请求几乎同时返回时，落选的结果按 discard 丢弃，调用方需通过 doOnDiscard 释放其资源
+     *
+     * @param primary        首发请求
+     * @param hedge          对冲请求（发往另一个实例）；无法对冲时可以直接完成而不发出元素
+     * @param remainingNanos 距离截止时间的剩余时间，无截止时间时为 Long.MAX_VALUE
+     * @return 先返回的结果
+     */
+    public <T> Mono<T> execute(Mono<T> primary, Mono<T> hedge, long remainingNanos) {
+        return Mono.defer(() -> {
+            budget.deposit();
+            long startNanos = System.nanoTime();
+            Mono<T> measured = primary.doFinally(signal -> {
+                if (signal != SignalType.ON_ERROR) {
+                    latency.record(System.nanoTime() - startNanos);
+                }
+            });
+
+            long delayNanos = getDelayNanos();
+            if (delayNanos == LatencyWindow.UNKNOWN || delayNanos >= remainingNanos) {
+                return measured;
+            }
+
+            Sinks.One<Boolean> primaryDone = Sinks.one();
+            Mono<T> first = measured.doFinally(signal -> primaryDone.tryEmitValue(Boolean.TRUE));
+            Mono<T> second = Mono.delay(Duration.ofNanos(delayNanos))
+                    .takeUntilOther(primaryDone.asMono())
+                    .flatMap(tick -> {
+                        if (!budget.tryAcquire()) {
+                            throttled.increment();
+                            return Mono.empty();
+                        }
+                        hedged.increment();
+                        return hedge.doOnNext(value -> won.increment());
+                    });
+            return Flux.mergeDelayError(2, first, second)
+                    .next()
+                    .onErrorMap(Exceptions::isMultiple, e -> Exceptions.unwrapMultiple(e).get(0));
+        });
+    }
+
+    /**
+     * 当前对冲延迟，样本不足时为 {@link LatencyWindow#UNKNOWN}
+     */
+    public long getDelayNanos() {
+        long percentile = latency.getPercentileNanos();
+        if (percentile == LatencyWindow.UNKNOWN) {
+            return LatencyWindow.UNKNOWN;
+        }
+        return Math.min(maxDelayNanos, Math.max(minDelayNanos, percentile));
+    }
+
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * 触发的对冲次数（含找不到其他实例、实际未发出的）
+     */
+    public long getHedged() {
+        return hedged.sum();
+    }
+
+    /**
+     * 对冲请求先于首发请求返回的次数
+     */
+    public long getWon() {
+        return won.sum();
+    }
+
+    /**
+     * 达到对冲延迟但预算不足、未发出对冲的次数
+     */
+    public long getThrottled() {
+        return throttled.sum();
+    }
+}
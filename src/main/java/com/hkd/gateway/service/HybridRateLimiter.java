@@ -0,0 +1,264 @@
+package com.hkd.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hkd.gateway.service.RateLimitRule.Dimension;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本地 + Redis 两级令牌桶限流器
+ *
+ * 对可租约维度（默认 IP、用户）中的热点 Key，每个网关节点从 Redis 全局桶中租借一部分令牌，
+ * 在本地用无锁计数器消费，直到租约用完或过期；剩余令牌低于一半时异步续租。
+ * 本地有令牌的维度不产生任何网络 I/O，其余维度仍通过 {@link TokenBucketRateLimiter} 在 Redis 中原子检查。
+ *
+ * - 热点判定：Key 在本节点 hot-window 内的请求数达到 hot-threshold 后才开始租借，冷 Key 只做远程检查，
+ *   不会因首个请求多一次租借往返，也不会从全局桶中预扣令牌
+ * - 租借量 L = min(容量 × fraction, 容量 × 0.5 / nodes)：所有节点同时持有租约也只占全局桶的一半，
+ *   未持有租约的节点仍可放行；L 小于 min-size（如低等级用户的小桶）时不租借
+ * - 续租失败（Redis 异常）或全局桶已空时退避一段时间再续租，Redis 故障期间不叠加额外的租借请求
+ *
+ * 误差说明（N 为网关节点数，L 为单次租借量，T 为租约时长）：
+ * - 超发：租出的令牌已从全局桶扣除，总放行数不超过全局桶的放行数；但令牌可在租借后 T 内使用，
+ *   因此任意长度 W 的窗口内放行数上限为 capacity + refillRate × (W + T)
+ * - 少发：过期未用完的租约令牌直接丢弃，每个租期最多少放行 N × L 个（按上面的租借量不超过容量的一半）
+ * - 多维度组合时，本地已扣减的令牌不会因其他维度被拒绝而归还
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class HybridRateLimiter {
+
+    @Autowired
+    private TokenBucketRateLimiter tokenBucketRateLimiter;
+
+    @Value("${hkd.rate-limit.lease.enabled}")
+    private boolean enabled;
+
+    @Value("${hkd.rate-limit.lease.fraction}")
+    private double leaseFraction;
+
+    @Value("${hkd.rate-limit.lease.ttl}")
+    private long leaseTtlMillis;
+
+    @Value("${hkd.rate-limit.lease.max-keys}")
+    private long maxKeys;
+
+    @Value("${hkd.rate-limit.lease.nodes}")
+    private int nodes;
+
+    @Value("${hkd.rate-limit.lease.min-size}")
+    private int minLeaseSize;
+
+    @Value("${hkd.rate-limit.lease.hot-threshold}")
+    private int hotThreshold;
+
+    @Value("${hkd.rate-limit.lease.hot-window}")
+    private long hotWindowMillis;
+
+    @Value("#{'${hkd.rate-limit.lease.dimensions}'.split(',')}")
+    private List<String> leaseDimensionNames;
+
+    private Set<Dimension> leaseDimensions;
+
+    private Cache<String, LocalLease> leases;
+
+    @PostConstruct
+    public void init() {
+        this.leaseDimensions = EnumSet.noneOf(Dimension.class);
+        for (String name : leaseDimensionNames) {
+            leaseDimensions.add(Dimension.valueOf(name.trim().toUpperCase()));
+        }
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(leaseTtlMillis * 2, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 尝试在所有维度上各获取1个令牌
+     *
+     * @param rules 各维度限流规则
+     * @return 检查结果
+     */
+    public Mono<RateLimitResult> tryAcquire(List<RateLimitRule> rules) {
+        if (!enabled) {
+            return tokenBucketRateLimiter.tryAcquire(rules);
+        }
+
+        long now = System.nanoTime();
+        List<RateLimitRule> remote = null;
+        for (RateLimitRule rule : rules) {
+            int size = leaseDimensions.contains(rule.dimension()) ? leaseSize(rule) : 0;
+            if (size > 0) {
+                LocalLease lease = leases.get(rule.key(), key -> new LocalLease(size, now));
+                if (lease.size != size) {
+                    // 容量变化（如用户等级调整），按新容量重建租约
+                    lease = new LocalLease(size, now);
+                    leases.put(rule.key(), lease);
+                }
+                if (lease.recordHit(now, hotWindowNanos(), hotThreshold)) {
+                    boolean served = lease.tryTake(now);
+                    if (lease.needsRenewal(now)) {
+                        renew(rule, lease);
+                    }
+                    if (served) {
+                        continue;
+                    }
+                }
+            }
+            if (remote == null) {
+                remote = new ArrayList<>(rules.size());
+            }
+            remote.add(rule);
+        }
+
+        // 全部维度均由本地租约放行，零网络 I/O
+        if (remote == null) {
+            return Mono.just(RateLimitResult.allowed());
+        }
+        return tokenBucketRateLimiter.tryAcquire(remote);
+    }
+
+    /**
+     * 单次租借量，0 表示该规则不租借（桶太小，租借会让其他节点无令牌可用）
+     */
+    private int leaseSize(RateLimitRule rule) {
+        double perNodeCap = rule.capacity() * 0.5 / Math.max(1, nodes);
+        int size = (int) Math.min(rule.capacity() * leaseFraction, perNodeCap);
+        return size >= Math.max(1, minLeaseSize) ? size : 0;
+    }
+
+    private long hotWindowNanos() {
+        return TimeUnit.MILLISECONDS.toNanos(hotWindowMillis);
+    }
+
+    /**
+     * 异步续租，同一Key同时只有一个续租请求
+     */
+    private void renew(RateLimitRule rule, LocalLease lease) {
+        if (!lease.renewing.compareAndSet(false, true)) {
+            return;
+        }
+        tokenBucketRateLimiter.lease(rule, lease.size)
+                .subscribe(granted -> {
+                    long at = System.nanoTime();
+                    if (granted > 0) {
+                        lease.grant(granted, at + TimeUnit.MILLISECONDS.toNanos(leaseTtlMillis));
+                    } else {
+                        // 全局桶已空：等待补充出一个租约的时间后再尝试，避免拒绝风暴下放大 Redis 压力
+                        long refillNanos = rule.refillRate() > 0
+                                ? TimeUnit.SECONDS.toNanos(lease.size) / rule.refillRate()
+                                : TimeUnit.MILLISECONDS.toNanos(leaseTtlMillis);
+                        lease.backoffUntil(at + Math.min(refillNanos, TimeUnit.MILLISECONDS.toNanos(leaseTtlMillis)));
+                    }
+                    lease.renewing.set(false);
+                }, e -> {
+                    // Redis 异常：一个租期内不再续租，避免故障期间每个请求都额外发起一次租借
+                    log.debug("续租失败，退避后重试: key={}, error={}", rule.key(), e.getMessage());
+                    lease.backoffUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseTtlMillis));
+                    lease.renewing.set(false);
+                });
+    }
+
+    /**
+     * 单个Key在本节点上的令牌租约
+     */
+    private static final class LocalLease {
+
+        private final int size;
+        private final AtomicLong tokens = new AtomicLong();
+        private final AtomicBoolean renewing = new AtomicBoolean();
+        private volatile long expiresAt;
+        private volatile long nextRenewalAt;
+
+        /**
+         * 热点判定窗口内的请求数
+         */
+        private final AtomicInteger hits = new AtomicInteger();
+        private volatile long hitWindowStart;
+        private volatile boolean hot;
+
+        LocalLease(int size, long now) {
+            this.size = size;
+            // 初始为已过期、可立即续租
+            this.expiresAt = now - 1;
+            this.nextRenewalAt = now;
+            this.hitWindowStart = now;
+        }
+
+        /**
+         * 记录一次请求并判断 Key 是否为热点：当前窗口或紧邻的上一个窗口内请求数达到阈值。
+         * 流量回落后下一个窗口即退出热点，不再续租，剩余租约自然过期
+         */
+        boolean recordHit(long now, long windowNanos, int threshold) {
+            long elapsed = now - hitWindowStart;
+            if (elapsed >= windowNanos) {
+                // 窗口切换时的并发计数可能落入任一窗口，只影响判定时机
+                hot = elapsed < 2 * windowNanos && hits.get() >= threshold;
+                hitWindowStart = now;
+                hits.set(0);
+            }
+            if (hits.incrementAndGet() >= threshold && !hot) {
+                hot = true;
+            }
+            return hot;
+        }
+
+        /**
+         * 无锁扣减1个本地令牌
+         */
+        boolean tryTake(long now) {
+            if (now - expiresAt > 0) {
+                return false;
+            }
+            long current;
+            do {
+                current = tokens.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        /**
+         * 租约过期或剩余令牌低于一半时需要续租
+         */
+        boolean needsRenewal(long now) {
+            if (renewing.get() || now - nextRenewalAt < 0) {
+                return false;
+            }
+            return now - expiresAt > 0 || tokens.get() <= size / 2;
+        }
+
+        void grant(long granted, long newExpiresAt) {
+            if (System.nanoTime() - expiresAt > 0) {
+                // 旧租约已过期，剩余令牌作废
+                tokens.set(granted);
+            } else {
+                tokens.addAndGet(granted);
+            }
+            expiresAt = newExpiresAt;
+        }
+
+        void backoffUntil(long at) {
+            nextRenewalAt = at;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.hkd.gateway.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按时间窗口统计的延迟分位数
+ *
+ * 样本按对数分桶计数（每个 2 的幂区间 4 个桶，相对误差不超过 25%），记录只有一次原子自增；
+ * 窗口结束后的第一次记录负责计算分位数并清空计数，读取分位数只读一个 volatile 字段。
+ * 窗口内样本数不足 minSamples 时保留计数、窗口顺延，低流量目标的窗口自然变长
+ *
+ * @author HKD Team
+ */
+public final class LatencyWindow {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = 64 * SUB_BUCKETS;
+
+    /**
+     * 尚无足够样本
+     */
+    public static final long UNKNOWN = -1;
+
+    private final double percentile;
+    private final long windowNanos;
+    private final int minSamples;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong windowEnd;
+
+    private volatile long percentileNanos = UNKNOWN;
+
+    /**
+     * @param percentile 统计的分位数，如 0.95
+     * @param windowNanos 窗口长度
+     * @param minSamples 计算分位数所需的最少样本数
+     */
+    public LatencyWindow(double percentile, long windowNanos, int minSamples) {
+        this.percentile = percentile;
+        this.windowNanos = windowNanos;
+        this.minSamples = Math.max(1, minSamples);
+        this.windowEnd = new AtomicLong(System.nanoTime() + windowNanos);
+    }
+
+    /**
+     * 记录一个延迟样本
+     */
+    public void record(long latencyNanos) {
+        counts.incrementAndGet(bucketOf(latencyNanos));
+        samples.incrementAndGet();
+
+        long now = System.nanoTime();
+        long end = windowEnd.get();
+        if (now - end >= 0 && windowEnd.compareAndSet(end, now + windowNanos)) {
+            rotate();
+        }
+    }
+
+    /**
+     * 最近一个完整窗口的延迟分位数（桶上界），样本从未达到 minSamples 时为 {@link #UNKNOWN}
+     */
+    public long getPercentileNanos() {
+        return percentileNanos;
+    }
+
+    /**
+     * 只由赢得窗口 CAS 的线程调用；与之并发的记录可能落入上一个或下一个窗口，不影响估计
+     */
+    private void rotate() {
+        long total = samples.get();
+        if (total < minSamples) {
+            return;
+        }
+        long[] snapshot = new long[BUCKETS];
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.getAndSet(i, 0);
+            sum += snapshot[i];
+        }
+        samples.addAndGet(-sum);
+
+        long rank = (long) Math.ceil(sum * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                percentileNanos = upperBound(i);
+                return;
+            }
+        }
+    }
+
+    private static int bucketOf(long nanos) {
+        long value = Math.max(nanos, SUB_BUCKETS);
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return exponent * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        int exponent = bucket / SUB_BUCKETS;
+        int sub = bucket % SUB_BUCKETS;
+        long upper = (long) (SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS);
+        return upper > 0 ? upper : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,201 @@
+package com.hkd.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hkd.auth.grpc.ValidateTokenResponse;
+import com.hkd.gateway.client.AuthRevocationSubscriber;
+import com.hkd.gateway.service.SigningKeyStore.VerificationKey;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本地 JWT 验签（hkd.auth.mode=local-verify）
+ * 使用 auth-service 下发的公钥在网关进程内校验签名和有效期，
+ * 吊销状态由 auth-service 推送的吊销事件维护
+ *
+ * 以下情况仍调用 auth-service（经 {@link TokenValidationCache}）：
+ * - kid 未知（同时触发公钥刷新，支持密钥轮换）
+ * - 吊销推送流未连接，或 Token 签发于本次连接建立之前（期间的吊销事件可能未送达）
+ *
+ * Token Claims 约定：sub=用户ID，username、email、roles(数组)，iat/exp 为标准字段
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "hkd.auth.mode", havingValue = "local-verify")
+public class LocalJwtVerifier implements TokenRevocationListener {
+
+    private static final ValidateTokenResponse INVALID = ValidateTokenResponse.newBuilder()
+            .setValid(false)
+            .build();
+
+    @Autowired
+    private SigningKeyStore signingKeyStore;
+
+    @Autowired
+    private TokenValidationCache tokenValidationCache;
+
+    @Autowired
+    private AuthRevocationSubscriber revocationSubscriber;
+
+    @Value("${hkd.auth.local-verify.clock-skew}")
+    private long clockSkewSeconds;
+
+    @Value("${hkd.jwt.access-token-expire}")
+    private long accessTokenExpireSeconds;
+
+    private JwtParser parser;
+
+    /**
+     * 已吊销的 Token 哈希，保留一个 Access Token 有效期即可
+     */
+    private Cache<String, Boolean> revokedTokens;
+
+    /**
+     * 用户级吊销时间（userId → 吊销时间毫秒），签发时间不晚于此的 Token 均失效
+     */
+    private Cache<String, Long> userRevocations;
+
+    @PostConstruct
+    public void init() {
+        this.parser = Jwts.parser()
+                .keyLocator(new SigningKeyLocator())
+                .clockSkewSeconds(clockSkewSeconds)
+                .build();
+        this.revokedTokens = Caffeine.newBuilder()
+                .expireAfterWrite(accessTokenExpireSeconds + clockSkewSeconds, TimeUnit.SECONDS)
+                .build();
+        this.userRevocations = Caffeine.newBuilder()
+                .expireAfterWrite(accessTokenExpireSeconds + clockSkewSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 验证Token：优先本地验签，无法本地判断时回退到 auth-service
+     *
+     * @param accessToken JWT Access Token
+     * @return ValidateTokenResponse 验证结果
+     */
+    public Mono<ValidateTokenResponse> validate(String accessToken) {
+        if (!revocationSubscriber.isConnected()) {
+            return tokenValidationCache.validate(accessToken);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(accessToken).getPayload();
+        } catch (UnknownSigningKeyException e) {
+            log.debug("未知的JWT签名密钥，回退到 auth-service: kid={}", e.getMessage());
+            signingKeyStore.requestRefresh();
+            return tokenValidationCache.validate(accessToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("本地验签失败: {}", e.getMessage());
+            return Mono.just(INVALID);
+        }
+
+        Date issuedAt = claims.getIssuedAt();
+        if (issuedAt == null || issuedAt.getTime() < revocationSubscriber.getConnectedSince()) {
+            return tokenValidationCache.validate(accessToken);
+        }
+        if (isRevoked(accessToken, claims.getSubject(), issuedAt.getTime())) {
+            return Mono.just(INVALID);
+        }
+        return Mono.just(toResponse(claims));
+    }
+
+    private boolean isRevoked(String accessToken, String userId, long issuedAtMillis) {
+        if (revokedTokens.estimatedSize() > 0
+                && revokedTokens.getIfPresent(TokenValidationCache.hashToken(accessToken)) != null) {
+            return true;
+        }
+        if (userRevocations.estimatedSize() > 0 && userId != null) {
+            Long revokedAt = userRevocations.getIfPresent(userId);
+            return revokedAt != null && issuedAtMillis <= revokedAt;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValidateTokenResponse toResponse(Claims claims) {
+        ValidateTokenResponse.Builder builder = ValidateTokenResponse.newBuilder()
+                .setValid(true)
+                .setUserId(claims.getSubject() != null ? claims.getSubject() : "")
+                .setExpiresAt(TimeUnit.MILLISECONDS.toSeconds(claims.getExpiration().getTime()));
+        String username = claims.get("username", String.class);
+        if (username != null) {
+            builder.setUsername(username);
+        }
+        String email = claims.get("email", String.class);
+        if (email != null) {
+            builder.setEmail(email);
+        }
+        Object roles = claims.get("roles");
+        if (roles instanceof List<?> list) {
+            for (Object role : list) {
+                builder.addRoles(String.valueOf(role));
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void onTokenRevoked(String tokenHash) {
+        revokedTokens.put(tokenHash, Boolean.TRUE);
+    }
+
+    @Override
+    public void onUserRevoked(String userId, long revokedAtMillis) {
+        userRevocations.asMap().merge(userId, revokedAtMillis, Math::max);
+    }
+
+    @Override
+    public void onRevocationStreamReset() {
+        // 重连后签发时间早于 connectedSince 的 Token 会回退到 auth-service，无需额外处理
+    }
+
+    /**
+     * 按 kid 查找验签公钥，并要求 JWT header 的 alg 与公钥声明的算法一致
+     */
+    private class SigningKeyLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            VerificationKey key = signingKeyStore.find(header.getKeyId());
+            if (key == null) {
+                throw new UnknownSigningKeyException(header.getKeyId());
+            }
+            if (!key.algorithm().equals(header.getAlgorithm())) {
+                throw new JwtException("JWT algorithm " + header.getAlgorithm()
+                        + " does not match signing key " + header.getKeyId());
+            }
+            return key.publicKey();
+        }
+    }
+
+    /**
+     * kid 未知（或公钥已过期）
+     */
+    private static class UnknownSigningKeyException extends JwtException {
+
+        UnknownSigningKeyException(String kid) {
+            super(kid);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.hkd.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.hkd.gateway.config.MicroCacheProperties;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Sinks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 边缘微缓存存储（所有挂载 MicroCache 过滤器的路由共享）
+ *
+ * - 按条目权重（响应体 + 响应头估算字节数）限制总内存，超出时由 Caffeine 淘汰，淘汰 / 替换时同步释放条目引用
+ * - 条目在 TTL + stale-ttl 后过期；TTL 内为新鲜副本，之后只在回源期间或回源失败时作为陈旧副本返回
+ * - 同一 Key 同时只有一个回源请求（single-flight），其余请求等待其结果
+ *
+ * @author HKD Team
+ */
+@Component
+public class MicroCache {
+
+    @Autowired
+    private MicroCacheProperties properties;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    private Cache<String, CachedResponse> cache;
+
+    /**
+     * Key → 回源中的请求结果；回源完成（无论是否可缓存）后移除
+     */
+    private final Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((String key, CachedResponse entry) -> entry.getWeight())
+                .expireAfter(new LifetimeExpiry())
+                .executor(Runnable::run)
+                .removalListener((String key, CachedResponse entry, RemovalCause cause) -> {
+                    if (entry != null) {
+                        entry.release();
+                    }
+                })
+                .build();
+        gatewayMetrics.registerMicroCache(this);
+    }
+
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, CachedResponse entry) {
+        cache.put(key, entry);
+    }
+
+    /**
+     * 尝试成为 Key 的回源请求
+     *
+     * @return 已有回源请求时返回其结果，否则登记 leader 并返回 null
+     */
+    public Sinks.One<CachedResponse> joinInFlight(String key, Sinks.One<CachedResponse> leader) {
+        return inFlight.putIfAbsent(key, leader);
+    }
+
+    /**
+     * 回源结束：移除登记并通知等待者，entry 为 null 表示结果不可缓存，等待者需自行回源
+     */
+    public void completeInFlight(String key, Sinks.One<CachedResponse> leader, CachedResponse entry) {
+        inFlight.remove(key, leader);
+        if (entry != null) {
+            leader.tryEmitValue(entry);
+        } else {
+            leader.tryEmitEmpty();
+        }
+    }
+
+    /**
+     * 熔断器是否处于打开状态；熔断器尚未创建（路由还没有请求经过）视为关闭
+     */
+    public boolean isCircuitOpen(String circuitBreakerName) {
+        if (circuitBreakerName == null) {
+            return false;
+        }
+        return circuitBreakerRegistry.find(circuitBreakerName)
+                .map(CircuitBreaker::getState)
+                .map(state -> state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN)
+                .orElse(false);
+    }
+
+    public long getEntryCount() {
+        return cache.estimatedSize();
+    }
+
+    public long getWeightedSize() {
+        return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 条目存活 TTL + stale-ttl，读取不延长
+     */
+    private static final class LifetimeExpiry implements Expiry<String, CachedResponse> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedResponse value, long currentTime) {
+            return value.getLifetimeNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return value.getLifetimeNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedResponse value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.hkd.gateway.service;
+
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * 限流算法 SPI
+ * 每种算法提供两段 Redis Lua 脚本，由 {@link TokenBucketRateLimiter} 通过 EVALSHA 执行。
+ * 当前时间统一取 Redis 服务器时间（TIME），避免各网关节点时钟偏差。
+ *
+ * 脚本参数约定：
+ * - acquire：KEYS[i] 为各维度的Key，ARGV[2i-1] / ARGV[2i] 为第 i 个Key的容量 / 每秒补充数；
+ *   返回 {序号, 重试等待毫秒数}：任一Key被拒绝则不修改任何Key并返回其序号（从1开始）
+ *   和该Key下一个令牌可用的等待时间，全部通过返回 {0, 0}
+ * - lease：KEYS[1] 为Key，ARGV[1] / ARGV[2] / ARGV[3] 为容量 / 每秒补充数 / 期望租借数；
+ *   返回实际租到的数量
+ *
+ * 注意：不同算法的Key存储结构不同，切换算法后旧Key在过期前会导致脚本报错（按 Fail Open 放行）
+ *
+ * @author HKD Team
+ */
+public interface RateLimitAlgorithm {
+
+    /**
+     * 算法名称，对应 hkd.rate-limit.algorithm 配置
+     */
+    String name();
+
+    /**
+     * 多Key原子获取1个令牌的脚本
+     */
+    RedisScript<List<Long>> acquireScript();
+
+    /**
+     * 单Key租借多个令牌的脚本
+     */
+    RedisScript<Long> leaseScript();
+
+    /**
+     * 返回整数数组的脚本
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static RedisScript<List<Long>> multiScript(String script) {
+        return (RedisScript) RedisScript.of(script, List.class);
+    }
+}
@@ -0,0 +1,25 @@
+package com.hkd.gateway.service;
+
+/**
+ * 多维度限流检查结果
+ *
+ * @param rejected         被拒绝的规则；全部通过时为 null
+ * @param retryAfterMillis 被拒绝时，该规则下一个令牌可用还需等待的毫秒数
+ * @author HKD Team
+ */
+public record RateLimitResult(RateLimitRule rejected, long retryAfterMillis) {
+
+    private static final RateLimitResult ALLOWED = new RateLimitResult(null, 0);
+
+    public static RateLimitResult allowed() {
+        return ALLOWED;
+    }
+
+    public static RateLimitResult rejected(RateLimitRule rule, long retryAfterMillis) {
+        return new RateLimitResult(rule, retryAfterMillis);
+    }
+
+    public boolean isAllowed() {
+        return rejected == null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.hkd.gateway.service;
+
+/**
+ * 单个维度的限流规则
+ *
+ * 容量和每秒补充数必须为正：Lua 脚本以补充数为除数计算重试时间和 Key 过期时间，
+ * 为 0 时得到 inf/NaN，PEXPIRE / SET PX 报错后限流降级为放行
+ *
+ * @param dimension  限流维度
+ * @param key        限流Key
+ * @param capacity   令牌桶容量
+ * @param refillRate 每秒补充令牌数
+ * @author HKD Team
+ */
+public record RateLimitRule(Dimension dimension, String key, int capacity, int refillRate) {
+
+    public RateLimitRule {
+        checkLimit(key, capacity, refillRate);
+    }
+
+    /**
+     * 校验容量和每秒补充数，供编译策略时提前拒绝非法配置
+     *
+     * @param name       配置项名称（用于错误信息）
+     * @param capacity   令牌桶容量
+     * @param refillRate 每秒补充令牌数
+     * @throws IllegalArgumentException 任一值不为正
+     */
+    public static void checkLimit(String name, int capacity, int refillRate) {
+        if (capacity <= 0 || refillRate <= 0) {
+            throw new IllegalArgumentException("限流容量和每秒补充数必须为正: " + name
+                    + ", capacity=" + capacity + ", refillRate=" + refillRate);
+        }
+    }
+
+    /**
+     * 限流维度
+     */
+    public enum Dimension {
+        IP,
+        USER,
+        API
+    }
+}
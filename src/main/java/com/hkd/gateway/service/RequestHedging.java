@@ -0,0 +1,87 @@
+package com.hkd.gateway.service;
+
+import com.hkd.gateway.config.HedgingProperties;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲策略注册表：auth-service 和 hkd.hedging.routes 中每条路由各一个 {@link HedgePolicy}，共用一个全局预算
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class RequestHedging {
+
+    /**
+     * auth-service 对冲策略的目标名
+     */
+    public static final String AUTH_TARGET = "auth-service";
+
+    @Autowired
+    private HedgingProperties properties;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    private HedgeBudget budget;
+
+    private HedgePolicy authPolicy;
+
+    /**
+     * 路由ID → 对冲策略
+     */
+    private final Map<String, HedgePolicy> routePolicies = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        this.budget = new HedgeBudget(properties.getBudgetRatio(), properties.getBudgetBurst());
+        gatewayMetrics.registerHedgeBudget(budget);
+        if (properties.isAuth()) {
+            this.authPolicy = createPolicy(AUTH_TARGET);
+        }
+        for (String routeId : properties.getRoutes()) {
+            routePolicies.put(routeId, createPolicy(routeId));
+        }
+        log.info("对冲请求已启用: auth={}, routes={}, budgetRatio={}, percentile={}",
+                properties.isAuth(), properties.getRoutes(), properties.getBudgetRatio(), properties.getPercentile());
+    }
+
+    /**
+     * auth-service 的对冲策略
+     *
+     * @return 未启用时返回 null
+     */
+    public HedgePolicy forAuth() {
+        return authPolicy;
+    }
+
+    /**
+     * 路由的对冲策略
+     *
+     * @return 路由未配置对冲时返回 null
+     */
+    public HedgePolicy forRoute(String routeId) {
+        return routeId != null ? routePolicies.get(routeId) : null;
+    }
+
+    private HedgePolicy createPolicy(String target) {
+        LatencyWindow latency = new LatencyWindow(properties.getPercentile(),
+                TimeUnit.MILLISECONDS.toNanos(properties.getWindow()), properties.getMinSamples());
+        HedgePolicy policy = new HedgePolicy(target, budget, latency,
+                TimeUnit.MILLISECONDS.toNanos(properties.getMinDelay()),
+                TimeUnit.MILLISECONDS.toNanos(properties.getMaxDelay()));
+        gatewayMetrics.registerHedgePolicy(policy);
+        return policy;
+    }
+}
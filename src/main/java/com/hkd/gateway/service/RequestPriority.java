@@ -0,0 +1,24 @@
+package com.hkd.gateway.service;
+
+/**
+ * 请求优先级，过载时按 LOW → NORMAL → CRITICAL 的顺序拒绝
+ *
+ * @author HKD Team
+ */
+public enum RequestPriority {
+
+    /**
+     * 关键请求（如撤单）
+     */
+    CRITICAL,
+
+    /**
+     * 普通请求
+     */
+    NORMAL,
+
+    /**
+     * 低优先级请求（如历史查询）
+     */
+    LOW
+}
@@ -0,0 +1,87 @@
+package com.hkd.gateway.service;
+
+import com.hkd.gateway.config.ConcurrencyLimitProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 请求优先级分类
+ *
+ * 规则在启动时预编译为 (方法, PathPattern)，按 critical → low 的顺序匹配，均未命中为 NORMAL；
+ * 匹配使用原始请求路径（StripPrefix 之前）
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class RequestPriorityClassifier {
+
+    @Autowired
+    private ConcurrencyLimitProperties properties;
+
+    private List<Rule> critical;
+
+    private List<Rule> low;
+
+    @PostConstruct
+    public void init() {
+        this.critical = compile(properties.getPriorities().getCritical());
+        this.low = compile(properties.getPriorities().getLow());
+        log.info("请求优先级规则已加载: critical={}, low={}",
+                properties.getPriorities().getCritical(), properties.getPriorities().getLow());
+    }
+
+    /**
+     * 判断请求优先级
+     *
+     * @param method 请求方法
+     * @param path   原始请求路径
+     * @return 优先级
+     */
+    public RequestPriority classify(HttpMethod method, PathContainer path) {
+        if (matches(critical, method, path)) {
+            return RequestPriority.CRITICAL;
+        }
+        if (matches(low, method, path)) {
+            return RequestPriority.LOW;
+        }
+        return RequestPriority.NORMAL;
+    }
+
+    private static boolean matches(List<Rule> rules, HttpMethod method, PathContainer path) {
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if ((rule.method() == null || rule.method().equals(method)) && rule.pattern().matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Rule> compile(List<String> definitions) {
+        List<Rule> rules = new ArrayList<>(definitions.size());
+        for (String definition : definitions) {
+            String trimmed = definition.trim();
+            int space = trimmed.indexOf(' ');
+            HttpMethod method = space > 0 ? HttpMethod.valueOf(trimmed.substring(0, space)) : null;
+            String pattern = space > 0 ? trimmed.substring(space + 1).trim() : trimmed;
+            rules.add(new Rule(method, PathPatternParser.defaultInstance.parse(pattern)));
+        }
+        return List.copyOf(rules);
+    }
+
+    /**
+     * @param method 请求方法，null 表示任意方法
+     */
+    private record Rule(HttpMethod method, PathPattern pattern) {
+    }
+}
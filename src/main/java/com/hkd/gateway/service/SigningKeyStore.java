@@ -0,0 +1,152 @@
+package com.hkd.gateway.service;
+
+import com.hkd.auth.grpc.GetSigningKeysResponse;
+import com.hkd.auth.grpc.SigningKey;
+import com.hkd.gateway.client.AuthServiceClient;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JWT 验签公钥存储
+ * 定期从 auth-service 拉取公钥（GetSigningKeys），auth-service 仍是密钥的唯一来源
+ *
+ * - 公钥表整体替换，读路径无锁
+ * - 遇到未知 kid 时触发一次限频的即时刷新，支持密钥轮换
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "hkd.auth.mode", havingValue = "local-verify")
+public class SigningKeyStore {
+
+    @Autowired
+    private AuthServiceClient authServiceClient;
+
+    @Value("${hkd.auth.local-verify.key-refresh-interval}")
+    private long refreshIntervalSeconds;
+
+    @Value("${hkd.auth.local-verify.unknown-kid-refresh-interval}")
+    private long unknownKidRefreshIntervalSeconds;
+
+    private volatile Map<String, VerificationKey> keys = Map.of();
+
+    private final AtomicLong lastOnDemandRefresh = new AtomicLong();
+
+    private Disposable refreshTask;
+
+    @PostConstruct
+    public void start() {
+        refreshTask = Flux.interval(Duration.ZERO, Duration.ofSeconds(refreshIntervalSeconds))
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh())
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refreshTask != null) {
+            refreshTask.dispose();
+        }
+    }
+
+    /**
+     * 查找验签公钥
+     *
+     * @param kid JWT header 中的 kid
+     * @return 公钥；未知或已过期返回 null
+     */
+    public VerificationKey find(String kid) {
+        VerificationKey key = kid != null ? keys.get(kid) : null;
+        if (key == null || key.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return key;
+    }
+
+    /**
+     * 请求即时刷新（遇到未知 kid 时调用），按 unknown-kid-refresh-interval 限频
+     */
+    public void requestRefresh() {
+        long now = System.currentTimeMillis();
+        long last = lastOnDemandRefresh.get();
+        if (now - last >= TimeUnit.SECONDS.toMillis(unknownKidRefreshIntervalSeconds)
+                && lastOnDemandRefresh.compareAndSet(last, now)) {
+            refresh().subscribe();
+        }
+    }
+
+    private Mono<Void> refresh() {
+        return authServiceClient.getSigningKeys()
+                .doOnNext(this::apply)
+                .onErrorResume(e -> {
+                    log.warn("拉取JWT验签公钥失败，继续使用现有公钥: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void apply(GetSigningKeysResponse response) {
+        Map<String, VerificationKey> loaded = new HashMap<>();
+        for (SigningKey key : response.getKeysList()) {
+            try {
+                PublicKey publicKey = KeyFactory.getInstance(keyFamily(key.getAlgorithm()))
+                        .generatePublic(new X509EncodedKeySpec(key.getPublicKey().toByteArray()));
+                long notAfterMillis = TimeUnit.SECONDS.toMillis(key.getNotAfter());
+                loaded.put(key.getKid(), new VerificationKey(key.getAlgorithm(), publicKey, notAfterMillis));
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.error("无法解析JWT验签公钥: kid={}, algorithm={}", key.getKid(), key.getAlgorithm(), e);
+            }
+        }
+        this.keys = Map.copyOf(loaded);
+        log.info("JWT验签公钥已更新: kids={}", loaded.keySet());
+    }
+
+    /**
+     * JWS 算法对应的 KeyFactory 算法族
+     */
+    private static String keyFamily(String algorithm) {
+        if (algorithm.startsWith("RS") || algorithm.startsWith("PS")) {
+            return "RSA";
+        }
+        if (algorithm.startsWith("ES")) {
+            return "EC";
+        }
+        if ("EdDSA".equals(algorithm)) {
+            return "EdDSA";
+        }
+        throw new IllegalArgumentException("Unsupported signing algorithm: " + algorithm);
+    }
+
+    /**
+     * 验签公钥
+     *
+     * @param algorithm      JWS 算法（须与 JWT header 中的 alg 一致）
+     * @param publicKey      公钥
+     * @param notAfterMillis 停止接受该密钥的时间（毫秒），0 表示不限
+     */
+    public record VerificationKey(String algorithm, PublicKey publicKey, long notAfterMillis) {
+
+        boolean isExpired(long nowMillis) {
+            return notAfterMillis > 0 && nowMillis > notAfterMillis;
+        }
+    }
+}
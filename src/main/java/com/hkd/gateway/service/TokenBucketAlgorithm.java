@@ -0,0 +1,89 @@
+package com.hkd.gateway.service;
+
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 令牌桶算法（小数令牌）
+ *
+ * - 令牌按毫秒级经过时间精确补充，不取整，部分补充不会丢失
+ * - 状态为 Hash（tokens, ts），拒绝时状态可由 (tokens, ts) 精确推算，无需写回
+ * - Key 过期时间为桶补满所需时间，过期后等价于满桶
+ *
+ * @author HKD Team
+ */
+@Component
+public class TokenBucketAlgorithm implements RateLimitAlgorithm {
+
+    private static final String ACQUIRE_LUA_SCRIPT =
+            "local time = redis.call('TIME')\n" +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n" +
+            "local remaining = {}\n" +
+            "\n" +
+            "for i = 1, #KEYS do\n" +
+            "    local capacity = tonumber(ARGV[i * 2 - 1])\n" +
+            "    local refill_rate = tonumber(ARGV[i * 2])\n" +
+            "\n" +
+            "    local bucket = redis.call('HMGET', KEYS[i], 'tokens', 'ts')\n" +
+            "    local tokens = tonumber(bucket[1]) or capacity\n" +
+            "    local ts = tonumber(bucket[2]) or now\n" +
+            "\n" +
+            "    -- 按经过的毫秒数精确补充（保留小数部分）\n" +
+            "    tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_rate / 1000)\n" +
+            "    if tokens < 1 then\n" +
+            "        -- 拒绝：返回序号和攒够1个令牌还需的毫秒数\n" +
+            "        return {i, math.ceil((1 - tokens) * 1000 / refill_rate)}\n" +
+            "    end\n" +
+            "    remaining[i] = tokens - 1\n" +
+            "end\n" +
+            "\n" +
+            "-- 所有维度均有令牌，统一扣减；过期时间为补满所需时间\n" +
+            "for i = 1, #KEYS do\n" +
+            "    local capacity = tonumber(ARGV[i * 2 - 1])\n" +
+            "    local refill_rate = tonumber(ARGV[i * 2])\n" +
+            "    redis.call('HSET', KEYS[i], 'tokens', remaining[i], 'ts', now)\n" +
+            "    redis.call('PEXPIRE', KEYS[i], math.max(1, math.ceil((capacity - remaining[i]) * 1000 / refill_rate)))\n" +
+            "end\n" +
+            "return {0, 0}  -- 允许";
+
+    private static final String LEASE_LUA_SCRIPT =
+            "local time = redis.call('TIME')\n" +
+            "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)\n" +
+            "local capacity = tonumber(ARGV[1])\n" +
+            "local refill_rate = tonumber(ARGV[2])\n" +
+            "local wanted = tonumber(ARGV[3])\n" +
+            "\n" +
+            "local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')\n" +
+            "local tokens = tonumber(bucket[1]) or capacity\n" +
+            "local ts = tonumber(bucket[2]) or now\n" +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_rate / 1000)\n" +
+            "\n" +
+            "local granted = math.min(wanted, math.floor(tokens))\n" +
+            "if granted > 0 then\n" +
+            "    tokens = tokens - granted\n" +
+            "    redis.call('HSET', KEYS[1], 'tokens', tokens, 'ts', now)\n" +
+            "    redis.call('PEXPIRE', KEYS[1], math.max(1, math.ceil((capacity - tokens) * 1000 / refill_rate)))\n" +
+            "end\n" +
+            "return granted";
+
+    private static final RedisScript<List<Long>> ACQUIRE_SCRIPT = RateLimitAlgorithm.multiScript(ACQUIRE_LUA_SCRIPT);
+
+    private static final RedisScript<Long> LEASE_SCRIPT = RedisScript.of(LEASE_LUA_SCRIPT, Long.class);
+
+    @Override
+    public String name() {
+        return "token-bucket";
+    }
+
+    @Override
+    public RedisScript<List<Long>> acquireScript() {
+        return ACQUIRE_SCRIPT;
+    }
+
+    @Override
+    public RedisScript<Long> leaseScript() {
+        return LEASE_SCRIPT;
+    }
+}
@@ -1,16 +1,28 @@
 package com.hkd.gateway.service;
 
+import com.hkd.gateway.metrics.GatewayMetrics;
+import com.hkd.gateway.metrics.GatewayMetrics.RedisOperation;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * 令牌桶限流器
- * 使用Redis + Lua脚本实现分布式限流
+ * 使用Redis + Lua脚本实现分布式限流，算法通过 {@link RateLimitAlgorithm} 插拔
+ * （token-bucket 小数令牌桶 / gcra），由 hkd.rate-limit.algorithm 选择
+ *
+ * - 多个维度（IP/用户/API）在同一个脚本中原子检查，每个请求一次 Redis 往返
+ * - 脚本只加载一次，通过 EVALSHA 执行（NOSCRIPT 时自动回退 EVAL）
+ * - 基于响应式 Redis 客户端，不阻塞事件循环
+ *
+ * 注意：多Key脚本要求所有Key位于同一节点（单机/哨兵模式；集群模式需使用 hash tag）
  *
  * @author HKD Team
  */
@@ -19,68 +31,88 @@ import java.util.Collections;
 public class TokenBucketRateLimiter {
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private ReactiveStringRedisTemplate redisTemplate;
 
-    /**
-     * Lua脚本：令牌桶算法
-     */
-    private static final String LUA_SCRIPT =
-            "local key = KEYS[1]\n" +
-            "local capacity = tonumber(ARGV[1])\n" +
-            "local refill_rate = tonumber(ARGV[2])\n" +
-            "local now = tonumber(ARGV[3])\n" +
-            "\n" +
-            "local bucket = redis.call('HMGET', key, 'tokens', 'last_refill')\n" +
-            "local tokens = tonumber(bucket[1]) or capacity\n" +
-            "local last_refill = tonumber(bucket[2]) or now\n" +
-            "\n" +
-            "-- 计算应补充的令牌数\n" +
-            "local time_passed = now - last_refill\n" +
-            "local refill = math.floor(time_passed * refill_rate)\n" +
-            "tokens = math.min(capacity, tokens + refill)\n" +
-            "\n" +
-            "-- 尝试获取1个令牌\n" +
-            "if tokens >= 1 then\n" +
-            "    tokens = tokens - 1\n" +
-            "    redis.call('HMSET', key, 'tokens', tokens, 'last_refill', now)\n" +
-            "    redis.call('EXPIRE', key, 60)\n" +
-            "    return 1  -- 允许\n" +
-            "else\n" +
-            "    return 0  -- 拒绝\n" +
-            "end";
+    @Autowired
+    private List<RateLimitAlgorithm> algorithms;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    @Value("${hkd.rate-limit.algorithm}")
+    private String algorithmName;
+
+    private RateLimitAlgorithm algorithm;
+
+    @PostConstruct
+    public void init() {
+        this.algorithm = algorithms.stream()
+                .filter(a -> a.name().equals(algorithmName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown rate limit algorithm: " + algorithmName));
+        log.info("限流算法: {}", algorithm.name());
+    }
 
     /**
-     * 尝试获取令牌
+     * 尝试在所有维度上各获取1个令牌（原子操作）
      *
-     * @param key         限流Key
-     * @param capacity    令牌桶容量
-     * @param refillRate  每秒补充令牌数
-     * @return true if 获取成功, false otherwise
+     * @param rules 各维度限流规则
+     * @return 检查结果，被拒绝时携带首个令牌不足的规则及其重试等待时间
      */
-    public boolean tryAcquire(String key, int capacity, int refillRate) {
-        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
-        script.setScriptText(LUA_SCRIPT);
-        script.setResultType(Long.class);
-
-        try {
-            Long result = redisTemplate.execute(
-                    script,
-                    Collections.singletonList(key),
-                    String.valueOf(capacity),
-                    String.valueOf(refillRate),
-                    String.valueOf(System.currentTimeMillis() / 1000.0)
-            );
+    public Mono<RateLimitResult> tryAcquire(List<RateLimitRule> rules) {
+        List<String> keys = new ArrayList<>(rules.size());
+        List<String> args = new ArrayList<>(rules.size() * 2);
+        for (RateLimitRule rule : rules) {
+            keys.add(rule.key());
+            args.add(String.valueOf(rule.capacity()));
+            args.add(String.valueOf(rule.refillRate()));
+        }
 
-            boolean allowed = result != null && result == 1;
-            if (!allowed) {
-                log.debug("限流触发: key={}, capacity={}, refillRate={}", key, capacity, refillRate);
-            }
-            return allowed;
+        long startNanos = System.nanoTime();
+        return redisTemplate.execute(algorithm.acquireScript(), keys, args)
+                .next()
+                .map(result -> {
+                    gatewayMetrics.recordRedis(RedisOperation.ACQUIRE, false, System.nanoTime() - startNanos);
+                    int rejected = result.isEmpty() ? 0 : result.get(0).intValue();
+                    if (rejected == 0) {
+                        return RateLimitResult.allowed();
+                    }
+                    RateLimitRule rule = rules.get(rejected - 1);
+                    long retryAfterMillis = result.size() > 1 ? result.get(1) : 0;
+                    log.debug("限流触发: key={}, capacity={}, refillRate={}, retryAfter={}ms",
+                            rule.key(), rule.capacity(), rule.refillRate(), retryAfterMillis);
+                    return RateLimitResult.rejected(rule, retryAfterMillis);
+                })
+                .defaultIfEmpty(RateLimitResult.allowed())
+                .onErrorResume(e -> {
+                    gatewayMetrics.recordRedis(RedisOperation.ACQUIRE, true, System.nanoTime() - startNanos);
+                    log.error("限流检查失败: keys={}", keys, e);
+                    // 出错时默认允许通过（Fail Open策略）
+                    return Mono.just(RateLimitResult.allowed());
+                });
+    }
 
-        } catch (Exception e) {
-            log.error("限流检查失败: key={}", key, e);
-            // 出错时默认允许通过（Fail Open策略）
-            return true;
-        }
+    /**
+     * 从令牌桶中租借一批令牌，供网关节点本地消费
+     *
+     * @param rule   限流规则
+     * @param wanted 期望租借的令牌数
+     * @return 实际租到的令牌数（可能为0）；Redis 异常时为0
+     */
+    public Mono<Long> lease(RateLimitRule rule, int wanted) {
+        long startNanos = System.nanoTime();
+        return redisTemplate.execute(algorithm.leaseScript(), List.of(rule.key()),
+                        List.of(String.valueOf(rule.capacity()),
+                                String.valueOf(rule.refillRate()),
+                                String.valueOf(wanted)))
+                .next()
+                .defaultIfEmpty(0L)
+                .doOnNext(granted -> gatewayMetrics.recordRedis(RedisOperation.LEASE, false,
+                        System.nanoTime() - startNanos))
+                .onErrorResume(e -> {
+                    gatewayMetrics.recordRedis(RedisOperation.LEASE, true, System.nanoTime() - startNanos);
+                    log.error("令牌租借失败: key={}", rule.key(), e);
+                    return Mono.just(0L);
+                });
     }
 }
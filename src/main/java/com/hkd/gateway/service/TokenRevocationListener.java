@@ -0,0 +1,31 @@
+package com.hkd.gateway.service;
+
+/**
+ * Token吊销事件监听器
+ * 网关侧所有持有Token验证结果的缓存都应实现此接口，
+ * 由 {@link com.hkd.gateway.client.AuthRevocationSubscriber} 推送吊销事件
+ *
+ * @author HKD Team
+ */
+public interface TokenRevocationListener {
+
+    /**
+     * 单个Token被吊销（登出）
+     *
+     * @param tokenHash hex(SHA-256(access_token))
+     */
+    void onTokenRevoked(String tokenHash);
+
+    /**
+     * 用户的全部Token被吊销（logout-all / 强制下线）
+     *
+     * @param userId          用户ID
+     * @param revokedAtMillis 吊销时间（毫秒），此前签发或验证的结果均失效
+     */
+    void onUserRevoked(String userId, long revokedAtMillis);
+
+    /**
+     * 吊销推送流中断后重新连接，期间可能丢失事件，应清空全部缓存
+     */
+    void onRevocationStreamReset();
+}
@@ -0,0 +1,212 @@
+package com.hkd.gateway.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.hash.Hashing;
+import com.hkd.auth.grpc.ValidateTokenResponse;
+import com.hkd.gateway.client.AuthRevocationSubscriber;
+import com.hkd.gateway.client.AuthServiceClient;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token验证结果本地缓存
+ * 位于 auth-service 之前，减少重复的 ValidateToken gRPC 调用
+ *
+ * - Key 为 Token 的 SHA-256 哈希，内存中不保存原始 Token
+ * - 有效Token缓存至 min(expires_at, max-ttl)，无效Token缓存 negative-ttl
+ * - 同一Token的并发未命中合并为一次 RPC（single-flight）
+ * - 调用失败不缓存，下次请求重新验证
+ * - 接收 auth-service 推送的吊销事件，实时剔除对应条目
+ * - 吊销推送流断开（含启动后尚未连上）期间推送的事件会丢失，此时只使用 disconnected-ttl 内验证过的有效结果，
+ *   更早的条目回源重新验证；每次连上（含首次）后缓存整体清空，连上之前发起的验证结果也不再使用
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class TokenValidationCache implements TokenRevocationListener {
+
+    @Autowired
+    private AuthServiceClient authServiceClient;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    /**
+     * 订阅器持有所有 TokenRevocationListener（含本类），延迟注入避免循环依赖
+     */
+    @Lazy
+    @Autowired
+    private AuthRevocationSubscriber revocationSubscriber;
+
+    @Value("${hkd.auth.token-cache.max-size}")
+    private long maxSize;
+
+    @Value("${hkd.auth.token-cache.max-ttl}")
+    private long maxTtlSeconds;
+
+    @Value("${hkd.auth.token-cache.negative-ttl}")
+    private long negativeTtlSeconds;
+
+    @Value("${hkd.auth.token-cache.disconnected-ttl}")
+    private long disconnectedTtlSeconds;
+
+    private AsyncCache<String, CachedValidation> cache;
+
+    /**
+     * 用户级吊销时间（userId → 吊销时间毫秒）
+     * 用于拦截吊销发生时仍在途的验证结果；条目只需保留 max-ttl
+     */
+    private Cache<String, Long> userRevocations;
+
+    @PostConstruct
+    public void init() {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ValidationExpiry())
+                .recordStats()
+                .buildAsync();
+        this.userRevocations = Caffeine.newBuilder()
+                .expireAfterWrite(maxTtlSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 验证Token，优先使用本地缓存
+     *
+     * @param accessToken JWT Access Token
+     * @return ValidateTokenResponse 验证结果
+     */
+    public Mono<ValidateTokenResponse> validate(String accessToken) {
+        String key = hashToken(accessToken);
+
+        // 已完成的缓存命中直接返回，避免订阅 Future 的开销
+        CompletableFuture<CachedValidation> cached = cache.getIfPresent(key);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            CachedValidation validation = cached.join();
+            if (!isRevoked(validation) && !isStale(validation)) {
+                gatewayMetrics.recordTokenCache(true);
+                return Mono.just(validation.response());
+            }
+            cache.asMap().remove(key, cached);
+        }
+
+        // 未命中：同一Key的并发请求共享同一个 in-flight Future；
+        // 单个订阅者取消不会取消共享的 RPC
+        gatewayMetrics.recordTokenCache(false);
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> load(accessToken)), true)
+                .map(CachedValidation::response);
+    }
+
+    private CompletableFuture<CachedValidation> load(String accessToken) {
+        long startedAt = System.currentTimeMillis();
+        return authServiceClient.validateToken(accessToken)
+                .map(response -> new CachedValidation(response, startedAt))
+                .toFuture();
+    }
+
+    /**
+     * 吊销推送流未覆盖的有效结果可能已被吊销（事件丢失），不再直接使用：
+     * - 已连接时：本次连接建立之前发起的验证（清空缓存时仍在途的结果会在之后写入）
+     * - 断开时：超过 disconnected-ttl 的验证
+     */
+    private boolean isStale(CachedValidation validation) {
+        if (!validation.response().getValid() || !revocationSubscriber.isEnabled()) {
+            return false;
+        }
+        if (revocationSubscriber.isConnected()) {
+            return validation.validatedAt() < revocationSubscriber.getConnectedSince();
+        }
+        return System.currentTimeMillis() - validation.validatedAt()
+                > TimeUnit.SECONDS.toMillis(disconnectedTtlSeconds);
+    }
+
+    private boolean isRevoked(CachedValidation validation) {
+        ValidateTokenResponse response = validation.response();
+        if (!response.getValid() || userRevocations.estimatedSize() == 0) {
+            return false;
+        }
+        Long revokedAt = userRevocations.getIfPresent(response.getUserId());
+        return revokedAt != null && revokedAt >= validation.validatedAt();
+    }
+
+    @Override
+    public void onTokenRevoked(String tokenHash) {
+        // 在途的 Future 也一并移除，完成后不会再写回缓存
+        if (cache.asMap().remove(tokenHash) != null) {
+            log.debug("Token已吊销，剔除缓存: tokenHash={}", tokenHash);
+        }
+    }
+
+    @Override
+    public void onUserRevoked(String userId, long revokedAtMillis) {
+        userRevocations.asMap().merge(userId, revokedAtMillis, Math::max);
+        cache.asMap().values().removeIf(future -> future.isDone()
+                && !future.isCompletedExceptionally()
+                && userId.equals(future.join().response().getUserId()));
+        log.info("用户Token已全部吊销，剔除缓存: userId={}", userId);
+    }
+
+    @Override
+    public void onRevocationStreamReset() {
+        cache.synchronous().invalidateAll();
+        log.warn("吊销推送流已连接，清空此前的Token验证缓存");
+    }
+
+    /**
+     * 计算Token的缓存Key（SHA-256 十六进制）
+     */
+    public static String hashToken(String accessToken) {
+        return Hashing.sha256().hashString(accessToken, StandardCharsets.UTF_8).toString();
+    }
+
+    /**
+     * 缓存条目：验证结果 + 发起验证的时间（毫秒）
+     */
+    private record CachedValidation(ValidateTokenResponse response, long validatedAt) {
+    }
+
+    /**
+     * 按 expires_at 与配置的最大TTL计算每个条目的过期时间
+     */
+    private class ValidationExpiry implements Expiry<String, CachedValidation> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedValidation validation, long currentTime) {
+            ValidateTokenResponse response = validation.response();
+            if (!response.getValid()) {
+                return TimeUnit.SECONDS.toNanos(negativeTtlSeconds);
+            }
+            long maxTtlMillis = TimeUnit.SECONDS.toMillis(maxTtlSeconds);
+            long remainingMillis = response.getExpiresAt() > 0
+                    ? TimeUnit.SECONDS.toMillis(response.getExpiresAt()) - System.currentTimeMillis()
+                    : maxTtlMillis;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(remainingMillis, maxTtlMillis)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedValidation validation,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, validation, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedValidation validation,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.hkd.gateway.service;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 流量等级的在途请求通道
+ *
+ * 在途请求数不超过 maxInFlight；达到上限后最多 maxQueue 个请求排队等待名额，排队超过 queueTimeout 或队列已满时拒绝。
+ * 名额未用满且无人排队时只有一次 CAS，不加锁、不分配排队对象；入队、出队在锁内完成（只在饱和时发生），授予名额在锁外
+ *
+ * 排队策略：
+ * - FIFO：先到先得，适合交易请求（每个请求都要处理，排队时间短）
+ * - LIFO：后到先得。过载时队头的请求多半已接近超时，客户端也可能已放弃，优先处理新请求可以让大部分请求在时限内完成，
+ *   而不是所有请求一起变慢
+ * - ADAPTIVE_LIFO：队列不足 maxQueue 一半时按 FIFO，超过一半（持续过载）时按 LIFO
+ *
+ * @author HKD Team
+ */
+public final class TrafficLane {
+
+    private final String name;
+    private final int maxInFlight;
+    private final int maxQueue;
+    private final QueuePolicy queuePolicy;
+    private final long queueTimeoutMillis;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * 仍在等待（未授予、未超时、未取消）的排队请求数；deque 中可能残留已超时 / 已取消的条目，出队时跳过
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder rejectedQueueFull = new LongAdder();
+    private final LongAdder rejectedTimeout = new LongAdder();
+
+    /**
+     * @param name         等级名
+     * @param maxInFlight  在途请求上限
+     * @param maxQueue     最多排队请求数
+     * @param queuePolicy  排队策略
+     * @param queueTimeout 最长排队时间 (毫秒)
+     */
+    public TrafficLane(String name, int maxInFlight, int maxQueue, QueuePolicy queuePolicy, long queueTimeout) {
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        this.maxQueue = maxQueue;
+        this.queuePolicy = queuePolicy;
+        this.queueTimeoutMillis = queueTimeout;
+    }
+
+    /**
+     * 申请一个在途名额
+     *
+     * @return 名额；{@link Permit#isGranted()} 为 false 表示被拒绝（队列已满或排队超时）。
+     *         获得的名额在请求结束时必须调用 {@link Permit#release()}
+     */
+    public Mono<Permit> acquire() {
+        if (queued.get() == 0 && tryIncrement()) {
+            return Mono.just(new Permit(this));
+        }
+        if (maxQueue <= 0) {
+            rejectedQueueFull.increment();
+            return Mono.just(Permit.REJECTED);
+        }
+        return Mono.create(this::enqueue);
+    }
+
+    private boolean tryIncrement() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxInFlight) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void enqueue(MonoSink<Permit> sink) {
+        Waiter waiter = new Waiter(sink);
+        boolean full;
+        lock.lock();
+        try {
+            full = queued.get() >= maxQueue;
+            if (!full) {
+                if (waiters.size() >= maxQueue * 2) {
+                    waiters.removeIf(Waiter::isDone);
+                }
+                waiters.addLast(waiter);
+                queued.incrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            rejectedQueueFull.increment();
+            sink.success(Permit.REJECTED);
+            return;
+        }
+        waiter.timeoutTask = Schedulers.parallel().schedule(() -> onTimeout(waiter),
+                queueTimeoutMillis, TimeUnit.MILLISECONDS);
+        sink.onCancel(() -> onCancel(waiter));
+        // 入队前可能恰好有请求完成：入队后再检查一次，避免名额空闲而请求仍在排队
+        drain();
+    }
+
+    private void onTimeout(Waiter waiter) {
+        if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) {
+            queued.decrementAndGet();
+            rejectedTimeout.increment();
+            waiter.sink.success(Permit.REJECTED);
+        }
+    }
+
+    private void onCancel(Waiter waiter) {
+        if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) {
+            queued.decrementAndGet();
+            disposeTimeout(waiter);
+        } else if (waiter.state.get() == Waiter.GRANTED) {
+            // 已授予名额但订阅方在收到前取消，名额不会再被使用
+            waiter.permit.release();
+        }
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        if (queued.get() > 0) {
+            drain();
+        }
+    }
+
+    /**
+     * 有空闲名额时按排队策略授予等待中的请求。只在出队时持有锁，授予（下游开始转发请求）在锁外完成
+     */
+    private void drain() {
+        while (queued.get() > 0 && tryIncrement()) {
+            Waiter waiter;
+            lock.lock();
+            try {
+                waiter = pollLocked();
+            } finally {
+                lock.unlock();
+            }
+            if (waiter == null) {
+                // 等待者已被其他线程授予或刚好超时 / 取消：归还名额后重新检查
+                inFlight.decrementAndGet();
+                continue;
+            }
+            disposeTimeout(waiter);
+            waiter.sink.success(waiter.permit);
+        }
+    }
+
+    /**
+     * 取出下一个仍在等待的请求并标记为已授予（持有锁时调用）
+     */
+    private Waiter pollLocked() {
+        boolean lifo = queuePolicy == QueuePolicy.LIFO
+                || queuePolicy == QueuePolicy.ADAPTIVE_LIFO && queued.get() * 2 > maxQueue;
+        Waiter waiter;
+        while ((waiter = lifo ? waiters.pollLast() : waiters.pollFirst()) != null) {
+            // 先写入名额再改状态：取消回调看到 GRANTED 时一定能取到名额
+            waiter.permit = new Permit(this);
+            if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.GRANTED)) {
+                queued.decrementAndGet();
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    private static void disposeTimeout(Waiter waiter) {
+        Disposable task = waiter.timeoutTask;
+        if (task != null) {
+            task.dispose();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前在途请求数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 当前排队请求数
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    /**
+     * 因队列已满（或不允许排队）被拒绝的累计请求数
+     */
+    public long getRejectedQueueFull() {
+        return rejectedQueueFull.sum();
+    }
+
+    /**
+     * 因排队超时被拒绝的累计请求数
+     */
+    public long getRejectedTimeout() {
+        return rejectedTimeout.sum();
+    }
+
+    /**
+     * 排队策略
+     */
+    public enum QueuePolicy {
+        FIFO,
+        LIFO,
+        ADAPTIVE_LIFO
+    }
+
+    /**
+     * 在途名额，release 可重复调用（只生效一次）
+     */
+    public static final class Permit {
+
+        static final Permit REJECTED = new Permit(null);
+
+        private final TrafficLane lane;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(TrafficLane lane) {
+            this.lane = lane;
+        }
+
+        public boolean isGranted() {
+            return lane != null;
+        }
+
+        public void release() {
+            if (lane != null && released.compareAndSet(false, true)) {
+                lane.release();
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        static final int WAITING = 0;
+        static final int GRANTED = 1;
+        static final int CANCELLED = 2;
+
+        final MonoSink<Permit> sink;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        volatile Permit permit;
+        volatile Disposable timeoutTask;
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        boolean isDone() {
+            return state.get() != WAITING;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.hkd.gateway.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hkd.gateway.config.UserRateLimitProperties;
+import com.hkd.gateway.config.UserRateLimitProperties.TierLimit;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户等级查询（用于分级限流）
+ *
+ * 用户VIP等级存于 Redis（{tier-key-prefix}{userId} → 整数等级），经本地缓存读取：
+ * - 缓存命中直接返回，不增加请求延迟
+ * - 写入超过 refresh 秒后，下次访问触发异步刷新（refresh-ahead），等级变更在数秒内生效
+ * - 未命中时先按默认等级放行，同时异步加载，后续请求使用真实等级
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class UserTierService {
+
+    private static final int DEFAULT_TIER = 0;
+
+    @Autowired
+    private ReactiveStringRedisTemplate redisTemplate;
+
+    @Autowired
+    private UserRateLimitProperties properties;
+
+    private AsyncLoadingCache<String, Integer> tiers;
+
+    private Limit defaultLimit;
+
+    private Limit vipLimit;
+
+    private Map<Integer, Limit> tierLimits;
+
+    @PostConstruct
+    public void init() {
+        this.defaultLimit = new Limit(properties.getDefaultCapacity(), properties.getDefaultCapacity());
+        this.vipLimit = new Limit(properties.getVipCapacity(), properties.getVipCapacity());
+        Map<Integer, Limit> limits = new HashMap<>();
+        properties.getTiers().forEach((tier, limit) -> limits.put(tier, toLimit(limit)));
+        this.tierLimits = Map.copyOf(limits);
+
+        this.tiers = Caffeine.newBuilder()
+                .maximumSize(properties.getTierCache().getMaxSize())
+                .refreshAfterWrite(properties.getTierCache().getRefresh(), TimeUnit.SECONDS)
+                .expireAfterWrite(properties.getTierCache().getExpire(), TimeUnit.SECONDS)
+                .buildAsync(new TierLoader());
+    }
+
+    /**
+     * 获取用户VIP等级（不阻塞），尚未加载完成时为默认等级
+     *
+     * @param userId 用户ID
+     * @return VIP等级
+     */
+    public int tierOf(String userId) {
+        CompletableFuture<Integer> tier = tiers.get(userId);
+        if (!tier.isDone() || tier.isCompletedExceptionally()) {
+            return DEFAULT_TIER;
+        }
+        return tier.join();
+    }
+
+    /**
+     * VIP等级对应的限流配置
+     *
+     * @param tier VIP等级
+     * @return 容量 / 每秒补充数
+     */
+    public Limit limitOf(int tier) {
+        if (tier <= DEFAULT_TIER) {
+            return defaultLimit;
+        }
+        return tierLimits.getOrDefault(tier, vipLimit);
+    }
+
+    private Mono<Integer> queryTier(String userId) {
+        return redisTemplate.opsForValue()
+                .get(properties.getTierKeyPrefix() + userId)
+                .map(Integer::parseInt)
+                .defaultIfEmpty(DEFAULT_TIER)
+                .doOnError(e -> log.warn("查询用户等级失败: userId={}, error={}", userId, e.getMessage()));
+    }
+
+    /**
+     * 首次加载失败时按默认等级缓存（避免 Redis 故障时每个请求都查询）；
+     * 刷新失败时保留旧等级
+     */
+    private class TierLoader implements AsyncCacheLoader<String, Integer> {
+
+        @Override
+        public CompletableFuture<Integer> asyncLoad(String userId, Executor executor) {
+            return queryTier(userId)
+                    .onErrorReturn(DEFAULT_TIER)
+                    .toFuture();
+        }
+
+        @Override
+        public CompletableFuture<Integer> asyncReload(String userId, Integer oldTier, Executor executor) {
+            return queryTier(userId).toFuture();
+        }
+    }
+
+    private static Limit toLimit(TierLimit limit) {
+        int refillRate = limit.getRefillRate() != null ? limit.getRefillRate() : limit.getCapacity();
+        return new Limit(limit.getCapacity(), refillRate);
+    }
+
+    /**
+     * 限流配置
+     *
+     * @param capacity   令牌桶容量
+     * @param refillRate 每秒补充令牌数
+     */
+    public record Limit(int capacity, int refillRate) {
+
+        public Limit {
+            RateLimitRule.checkLimit("hkd.rate-limit.user", capacity, refillRate);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.hkd.gateway.util;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import java.net.InetSocketAddress;
+
+/**
+ * 客户端IP解析
+ *
+ * @author HKD Team
+ */
+public final class ClientIps {
+
+    public static final String UNKNOWN = "unknown";
+
+    private ClientIps() {
+    }
+
+    /**
+     * 获取客户端IP地址
+     * 依次取 X-Forwarded-For 的第一个IP、X-Real-IP、连接的远端地址
+     */
+    public static String resolve(ServerHttpRequest request) {
+        HttpHeaders headers = request.getHeaders();
+
+        // 先从X-Forwarded-For获取（通过代理的情况）
+        String ip = headers.getFirst("X-Forwarded-For");
+        if (ip != null && !ip.isEmpty() && !UNKNOWN.equalsIgnoreCase(ip)) {
+            // 多次代理的情况，取第一个IP
+            int index = ip.indexOf(',');
+            if (index != -1) {
+                return ip.substring(0, index).trim();
+            }
+            return ip.trim();
+        }
+
+        // X-Real-IP
+        ip = headers.getFirst("X-Real-IP");
+        if (ip != null && !ip.isEmpty() && !UNKNOWN.equalsIgnoreCase(ip)) {
+            return ip.trim();
+        }
+
+        // 直接从RemoteAddress获取
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress != null && remoteAddress.getAddress() != null) {
+            return remoteAddress.getAddress().getHostAddress();
+        }
+
+        return UNKNOWN;
+    }
+}
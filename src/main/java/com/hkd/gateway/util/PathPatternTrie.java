@@ -0,0 +1,210 @@
+package com.hkd.gateway.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路径模式前缀树（不可变）
+ *
+ * 支持三种模式：
+ * - /a/b      精确匹配
+ * - /a/*      匹配 /a 下的任意一级子路径（如 /a/x，不含 /a/x/y）
+ * - /a/**     匹配 /a 本身及其下任意层级
+ *
+ * 匹配时按 '/' 逐段在原字符串上比较，不创建子串，复杂度 O(路径长度)，与模式数量无关。
+ * 含 "." / ".." 或空段（"//"）的路径一律视为不匹配，防止借助路径归一化绕过；末尾的 '/' 会被忽略。
+ * 匹配的是未解码的原始路径，因此编码形式的点（"%2e"）以及带路径参数的段（"..;x"、";x"）按去掉参数、解码后的内容判断。
+ *
+ * @author HKD Team
+ */
+public final class PathPatternTrie {
+
+    private final Node root;
+
+    private PathPatternTrie(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 编译路径模式列表
+     *
+     * @param patterns 路径模式（首尾空白会被去除，空串忽略）
+     * @return 前缀树
+     */
+    public static PathPatternTrie compile(List<String> patterns) {
+        Builder root = new Builder();
+        for (String raw : patterns) {
+            String pattern = raw == null ? "" : raw.trim();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            Builder node = root;
+            String[] segments = pattern.split("/");
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                boolean last = i == segments.length - 1;
+                if (last && "**".equals(segment)) {
+                    node.matchAllBelow = true;
+                    node = null;
+                    break;
+                }
+                if (last && "*".equals(segment)) {
+                    node.matchOneChild = true;
+                    node = null;
+                    break;
+                }
+                node = node.child(segment);
+            }
+            if (node != null) {
+                node.terminal = true;
+            }
+        }
+        return new PathPatternTrie(root.build());
+    }
+
+    /**
+     * 判断路径是否命中任一模式
+     *
+     * @param path 请求路径（以 '/' 开头）
+     */
+    public boolean matches(String path) {
+        Node node = root;
+        int length = path.length();
+        int start = path.startsWith("/") ? 1 : 0;
+
+        while (true) {
+            if (node.matchAllBelow) {
+                return isSafeRemainder(path, start, length);
+            }
+            if (start >= length) {
+                // 路径已结束（含末尾 '/'）
+                return node.terminal;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            int segmentLength = end - start;
+            if (isUnsafeSegment(path, start, segmentLength)) {
+                return false;
+            }
+            boolean lastSegment = end >= length - 1;
+            if (node.matchOneChild && lastSegment) {
+                return true;
+            }
+            Node child = node.find(path, start, segmentLength);
+            if (child == null) {
+                return false;
+            }
+            node = child;
+            start = end + 1;
+        }
+    }
+
+    /**
+     * /** 之后剩余部分不能包含 "." / ".." 或空段（末尾单个 '/' 除外）
+     */
+    private static boolean isSafeRemainder(String path, int start, int length) {
+        while (start < length) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (isUnsafeSegment(path, start, end - start)) {
+                return false;
+            }
+            start = end + 1;
+        }
+        return true;
+    }
+
+    /**
+     * 空段、"." / ".." 段（含 "%2e" 编码形式），路径参数（';' 之后）不计入
+     */
+    private static boolean isUnsafeSegment(String path, int start, int segmentLength) {
+        int end = start + segmentLength;
+        int params = path.indexOf(';', start);
+        if (params >= 0 && params < end) {
+            end = params;
+        }
+        int dots = 0;
+        int i = start;
+        while (i < end) {
+            if (path.charAt(i) == '.') {
+                i++;
+            } else if (path.regionMatches(true, i, "%2e", 0, 3) && i + 3 <= end) {
+                i += 3;
+            } else {
+                return false;
+            }
+            if (++dots > 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 不可变节点；子节点数量很少，线性扫描比哈希查找更省（无需截取子串计算哈希）
+     */
+    private static final class Node {
+
+        private final String[] segments;
+        private final Node[] children;
+        private final boolean terminal;
+        private final boolean matchOneChild;
+        private final boolean matchAllBelow;
+
+        Node(String[] segments, Node[] children, boolean terminal, boolean matchOneChild, boolean matchAllBelow) {
+            this.segments = segments;
+            this.children = children;
+            this.terminal = terminal;
+            this.matchOneChild = matchOneChild;
+            this.matchAllBelow = matchAllBelow;
+        }
+
+        Node find(String path, int start, int segmentLength) {
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.length() == segmentLength && path.regionMatches(start, segment, 0, segmentLength)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 编译期使用的可变节点
+     */
+    private static final class Builder {
+
+        private final List<String> segments = new ArrayList<>();
+        private final List<Builder> children = new ArrayList<>();
+        private boolean terminal;
+        private boolean matchOneChild;
+        private boolean matchAllBelow;
+
+        Builder child(String segment) {
+            int index = segments.indexOf(segment);
+            if (index >= 0) {
+                return children.get(index);
+            }
+            Builder child = new Builder();
+            segments.add(segment);
+            children.add(child);
+            return child;
+        }
+
+        Node build() {
+            Node[] built = new Node[children.size()];
+            for (int i = 0; i < built.length; i++) {
+                built[i] = children.get(i).build();
+            }
+            return new Node(segments.toArray(new String[0]), built, terminal, matchOneChild, matchAllBelow);
+        }
+    }
+}
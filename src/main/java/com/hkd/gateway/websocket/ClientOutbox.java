@@ -0,0 +1,186 @@
+package com.hkd.gateway.websocket;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个客户端连接的待发送队列
+ *
+ * 队列中保存的是上游帧 ByteBuf 的 retainedDuplicate（共享内存、独立读写索引），发送时直接包装为 WebSocketMessage，
+ * 不复制内容；发送、丢弃或连接关闭时各自释放一次引用。
+ * 客户端读得慢时 Reactor Netty 停止请求数据，队列达到上限后按 {@link OverflowPolicy} 处理，不会无限堆积
+ *
+ * @author HKD Team
+ */
+public final class ClientOutbox {
+
+    private static final NettyDataBufferFactory BUFFER_FACTORY = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
+    private final int capacity;
+    private final OverflowPolicy policy;
+    private final LongAdder droppedFrames;
+
+    /**
+     * 待发送帧，访问时以自身加锁
+     */
+    private final ArrayDeque<Frame> queue = new ArrayDeque<>();
+    private boolean closed;
+
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile FluxSink<WebSocketMessage> sink;
+
+    ClientOutbox(int capacity, OverflowPolicy policy, LongAdder droppedFrames) {
+        this.capacity = capacity;
+        this.policy = policy;
+        this.droppedFrames = droppedFrames;
+    }
+
+    /**
+     * 发送给客户端的消息流（只能订阅一次）
+     */
+    Flux<WebSocketMessage> messages() {
+        return Flux.create(emitter -> {
+            this.sink = emitter;
+            emitter.onRequest(n -> drain());
+            emitter.onDispose(this::close);
+            drain();
+        }, FluxSink.OverflowStrategy.IGNORE);
+    }
+
+    /**
+     * 放入一帧，接管 frame 的一次引用
+     */
+    void offer(String topic, WebSocketMessage.Type type, ByteBuf frame) {
+        ByteBuf dropped = null;
+        boolean overflow = false;
+        synchronized (queue) {
+            if (closed) {
+                dropped = frame;
+            } else if (queue.size() < capacity) {
+                queue.addLast(new Frame(topic, type, frame));
+            } else {
+                overflow = true;
+                dropped = switch (policy) {
+                    case DROP_NEWEST -> frame;
+                    case DROP_OLDEST -> replaceOldest(topic, type, frame);
+                    case CONFLATE -> conflate(topic, type, frame);
+                };
+            }
+        }
+        if (dropped != null) {
+            dropped.release();
+            if (overflow) {
+                droppedFrames.increment();
+            }
+        }
+        drain();
+    }
+
+    /**
+     * 丢弃最早的一帧，新帧入队尾（持有锁时调用）
+     */
+    private ByteBuf replaceOldest(String topic, WebSocketMessage.Type type, ByteBuf frame) {
+        ByteBuf oldest = queue.pollFirst().buf;
+        queue.addLast(new Frame(topic, type, frame));
+        return oldest;
+    }
+
+    /**
+     * 同一主题尚未发送的帧直接替换为最新帧（保留其在队列中的位置），没有则退化为丢弃最早的一帧（持有锁时调用）。
+     * 行情快照类数据只有最新值有意义，慢客户端收到的是更少但最新的数据
+     */
+    private ByteBuf conflate(String topic, WebSocketMessage.Type type, ByteBuf frame) {
+        Iterator<Frame> it = queue.descendingIterator();
+        while (it.hasNext()) {
+            Frame pending = it.next();
+            if (pending.topic.equals(topic)) {
+                ByteBuf replaced = pending.buf;
+                pending.buf = frame;
+                pending.type = type;
+                return replaced;
+            }
+        }
+        return replaceOldest(topic, type, frame);
+    }
+
+    private void drain() {
+        FluxSink<WebSocketMessage> emitter = sink;
+        if (emitter == null || wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            while (emitter.requestedFromDownstream() > 0) {
+                Frame frame;
+                synchronized (queue) {
+                    frame = queue.pollFirst();
+                }
+                if (frame == null) {
+                    break;
+                }
+                emitter.next(new WebSocketMessage(frame.type, BUFFER_FACTORY.wrap(frame.buf)));
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * 客户端断开：不再接收新帧，释放队列中的帧
+     */
+    void close() {
+        synchronized (queue) {
+            closed = true;
+            Frame frame;
+            while ((frame = queue.pollFirst()) != null) {
+                frame.buf.release();
+            }
+        }
+        FluxSink<WebSocketMessage> emitter = sink;
+        if (emitter != null) {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * 客户端队列已满时的处理策略
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * 同一主题只保留最新的待发送帧，其他情况丢弃最早的帧
+         */
+        CONFLATE,
+
+        /**
+         * 丢弃最早的待发送帧
+         */
+        DROP_OLDEST,
+
+        /**
+         * 丢弃新到的帧
+         */
+        DROP_NEWEST
+    }
+
+    private static final class Frame {
+
+        final String topic;
+        WebSocketMessage.Type type;
+        ByteBuf buf;
+
+        Frame(String topic, WebSocketMessage.Type type, ByteBuf buf) {
+            this.topic = topic;
+            this.type = type;
+            this.buf = buf;
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.hkd.gateway.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hkd.gateway.config.MarketFanOutProperties;
+import com.hkd.gateway.metrics.GatewayMetrics;
+import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakeException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactiveLoadBalancer;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.CloseStatus;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import org.springframework.web.reactive.socket.client.WebSocketClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 行情 WebSocket 扇出中心
+ *
+ * 每个主题在本节点只保持一条到行情服务的上游连接，帧到达后广播给所有本地订阅者，
+ * 5 万个订阅 BTC-HKD 的客户端对应 1 条上游连接，而不是 5 万条内容相同的连接。
+ *
+ * 客户端协议：
+ * - 连接 /ws/market/{topic} 时自动订阅 {topic}（与原 1:1 代理的路径保持兼容）
+ * - 连接后发送 {"op":"subscribe","topic":"ticker/BTC-HKD"} / {"op":"unsubscribe","topic":"..."} 增减订阅，
+ *   同一连接可订阅多个主题，收到的是上游原始帧
+ * - 主题的最后一个订阅者离开时关闭上游连接；上游断开时按指数退避重连，订阅者保持不变
+ * - 本节点的主题总数不超过 max-topics，超出后新主题的订阅被忽略（每个主题对应一条上游连接）
+ *
+ * 上游连接不携带任何客户端身份，只适用于所有用户内容相同的公共行情主题
+ *
+ * @author HKD Team
+ */
+@Component
+@Slf4j
+public class MarketDataHub {
+
+    /**
+     * 主题只允许由字母、数字、"."、"_"、"-" 组成的路径段，直接拼接到上游路径；
+     * 只由 "." 组成的段（"."、".."）会被上游按相对路径归一化、跳出上游路径前缀，不允许
+     */
+    private static final String TOPIC_SEGMENT = "(?!\\.+(?:/|$))[A-Za-z0-9._-]+";
+    private static final Pattern TOPIC_PATTERN = Pattern.compile(TOPIC_SEGMENT + "(/" + TOPIC_SEGMENT + ")*");
+
+    private static final int MAX_TOPIC_LENGTH = 128;
+
+    @Autowired
+    private MarketFanOutProperties properties;
+
+    @Autowired
+    private WebSocketClient webSocketClient;
+
+    @Autowired
+    private LoadBalancerClientFactory clientFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private GatewayMetrics gatewayMetrics;
+
+    /**
+     * 主题 → 上游连接与订阅者；增减订阅者都在 compute 中进行，保证最后一个订阅者离开与新订阅者加入互斥，
+     * 上游连接在 compute 返回后由 {@link TopicChannel#startUpstream} 建立
+     */
+    private final Map<String, TopicChannel> topics = new ConcurrentHashMap<>();
+
+    private final AtomicInteger sessions = new AtomicInteger();
+
+    private final LongAdder droppedFrames = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        gatewayMetrics.registerMarketDataHub(this);
+    }
+
+    /**
+     * 从客户端请求路径解析初始主题，路径中没有主题时返回 null
+     */
+    public String topicFromPath(String path) {
+        String prefix = properties.getClientPathPrefix();
+        if (path == null || !path.startsWith(prefix) || path.length() == prefix.length()) {
+            return null;
+        }
+        return path.substring(prefix.length());
+    }
+
+    /**
+     * 处理一个客户端连接
+     *
+     * @param session      客户端会话
+     * @param initialTopic 连接路径中的主题，可为 null
+     */
+    public Mono<Void> handle(WebSocketSession session, String initialTopic) {
+        if (initialTopic != null && !isValidTopic(initialTopic)) {
+            log.debug("非法的行情主题: session={}, topic={}", session.getId(), initialTopic);
+            return session.close(CloseStatus.BAD_DATA);
+        }
+
+        ClientOutbox outbox = new ClientOutbox(
+                properties.getClientQueueSize(), properties.getOverflowPolicy(), droppedFrames);
+        Set<String> subscribed = ConcurrentHashMap.newKeySet();
+        sessions.incrementAndGet();
+        if (initialTopic != null) {
+            subscribe(session, outbox, subscribed, initialTopic);
+        }
+
+        Mono<Void> input = session.receive()
+                .doOnNext(message -> onClientMessage(session, outbox, subscribed, message))
+                .then()
+                .doFinally(signal -> {
+                    for (String topic : subscribed) {
+                        unsubscribe(outbox, topic);
+                    }
+                    subscribed.clear();
+                    outbox.close();
+                    sessions.decrementAndGet();
+                });
+        return Mono.when(input, session.send(outbox.messages()));
+    }
+
+    private void onClientMessage(WebSocketSession session, ClientOutbox outbox, Set<String> subscribed,
+                                 WebSocketMessage message) {
+        if (message.getType() != WebSocketMessage.Type.TEXT) {
+            return;
+        }
+        String op;
+        String topic;
+        try {
+            JsonNode command = objectMapper.readTree(message.getPayloadAsText());
+            op = command.path("op").asText();
+            topic = command.path("topic").asText();
+        } catch (Exception e) {
+            log.debug("无法解析的客户端消息: session={}, error={}", session.getId(), e.getMessage());
+            return;
+        }
+        if (!isValidTopic(topic)) {
+            log.debug("非法的行情主题: session={}, topic={}", session.getId(), topic);
+            return;
+        }
+        switch (op) {
+            case "subscribe" -> subscribe(session, outbox, subscribed, topic);
+            case "unsubscribe" -> {
+                if (subscribed.remove(topic)) {
+                    unsubscribe(outbox, topic);
+                }
+            }
+            default -> log.debug("未知的客户端操作: session={}, op={}", session.getId(), op);
+        }
+    }
+
+    private void subscribe(WebSocketSession session, ClientOutbox outbox, Set<String> subscribed, String topic) {
+        if (subscribed.size() >= properties.getMaxTopicsPerClient()) {
+            log.debug("订阅主题数超限: session={}, topic={}", session.getId(), topic);
+            return;
+        }
+        if (!subscribed.add(topic)) {
+            return;
+        }
+        TopicChannel channel = topics.compute(topic, (key, existing) -> {
+            if (existing == null && topics.size() >= properties.getMaxTopics()) {
+                return null;
+            }
+            TopicChannel current = existing != null ? existing : new TopicChannel(key);
+            current.addSubscriber(outbox);
+            return current;
+        });
+        if (channel == null) {
+            subscribed.remove(topic);
+            log.warn("行情主题总数已达上限，忽略订阅: session={}, topic={}, maxTopics={}",
+                    session.getId(), topic, properties.getMaxTopics());
+            return;
+        }
+        // 上游连接在 compute 之外建立：选择实例等操作不占用 ConcurrentHashMap 的桶锁，已建立过的主题直接返回
+        if (channel.startUpstream(() -> connectUpstream(channel))) {
+            log.info("建立行情上游订阅: topic={}", topic);
+        }
+    }
+
+    private void unsubscribe(ClientOutbox outbox, String topic) {
+        topics.computeIfPresent(topic, (key, channel) -> {
+            channel.removeSubscriber(outbox);
+            if (channel.hasSubscribers()) {
+                return channel;
+            }
+            channel.close();
+            log.info("关闭行情上游订阅: topic={}", key);
+            return null;
+        });
+    }
+
+    /**
+     * 建立并维持主题的上游连接，直到主题被关闭：断开或连接失败后重新选择实例重连，
+     * 间隔从 reconnect-delay 起每次失败翻倍、不超过 max-reconnect-delay，握手成功后恢复；
+     * 上游以 4xx 拒绝握手（如主题不存在）时直接按 max-reconnect-delay 重试
+     */
+    private Disposable connectUpstream(TopicChannel channel) {
+        String topic = channel.getTopic();
+        long minDelay = properties.getReconnectDelay();
+        long maxDelay = Math.max(minDelay, properties.getMaxReconnectDelay());
+        // 重连循环串行执行，只用作可变的当前间隔
+        AtomicLong nextDelay = new AtomicLong(minDelay);
+        return Mono.defer(() -> resolveUpstream(topic))
+                .flatMap(uri -> webSocketClient.execute(uri, upstream -> {
+                    nextDelay.set(minDelay);
+                    return upstream.receive()
+                            .doOnNext(channel::broadcast)
+                            .then();
+                }))
+                .doOnSuccess(v -> log.info("行情上游连接已关闭: topic={}", topic))
+                .onErrorResume(e -> {
+                    int status = handshakeStatus(e);
+                    if (status >= 400 && status < 500) {
+                        nextDelay.set(maxDelay);
+                        log.warn("行情上游拒绝订阅: topic={}, status={}", topic, status);
+                    } else {
+                        log.warn("行情上游连接失败: topic={}, error={}", topic, e.getMessage());
+                    }
+                    return Mono.empty();
+                })
+                .then(Mono.defer(() -> {
+                    long delay = nextDelay.get();
+                    nextDelay.set(Math.min(maxDelay, delay * 2));
+                    return Mono.delay(Duration.ofMillis(delay));
+                }))
+                .repeat()
+                .subscribe();
+    }
+
+    /**
+     * 上游握手失败时的 HTTP 状态码，其他错误返回 -1
+     */
+    private static int handshakeStatus(Throwable error) {
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof WebSocketClientHandshakeException handshake && handshake.response() != null) {
+                return handshake.response().status().code();
+            }
+        }
+        return -1;
+    }
+
+    private Mono<URI> resolveUpstream(String topic) {
+        String serviceId = properties.getServiceId();
+        ReactiveLoadBalancer<ServiceInstance> loadBalancer = clientFactory.getInstance(serviceId);
+        if (loadBalancer == null) {
+            return Mono.error(new IllegalStateException("No load balancer for " + serviceId));
+        }
+        return Mono.from(loadBalancer.choose()).map(response -> {
+            if (!response.hasServer()) {
+                throw new IllegalStateException("No available instance for " + serviceId);
+            }
+            ServiceInstance instance = response.getServer();
+            return UriComponentsBuilder.newInstance()
+                    .scheme(instance.isSecure() ? "wss" : "ws")
+                    .host(instance.getHost())
+                    .port(instance.getPort())
+                    .path(properties.getUpstreamPathPrefix() + topic)
+                    .build(true)
+                    .toUri();
+        });
+    }
+
+    private static boolean isValidTopic(String topic) {
+        return topic != null && topic.length() <= MAX_TOPIC_LENGTH && TOPIC_PATTERN.matcher(topic).matches();
+    }
+
+    public int getTopicCount() {
+        return topics.size();
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.sum();
+    }
+
+    @PreDestroy
+    public void destroy() {
+        topics.values().forEach(TopicChannel::close);
+        topics.clear();
+    }
+}
@@ -0,0 +1,96 @@
+package com.hkd.gateway.websocket;
+
+import io.netty.buffer.ByteBuf;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.web.reactive.socket.WebSocketMessage;
+import reactor.core.Disposable;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 单个行情主题：一条上游连接 + 本节点的订阅者
+ *
+ * 上游每收到一帧，给每个订阅者放入同一 ByteBuf 的 retainedDuplicate：内容只有一份，
+ * 各订阅者持有独立的读写索引（同一 ByteBuf 实例不能并发写入多个 Channel）和一次引用计数。
+ * 上游帧本身由 Reactor Netty 在回调返回后释放
+ *
+ * @author HKD Team
+ */
+final class TopicChannel {
+
+    private final String topic;
+
+    private final Set<ClientOutbox> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    private volatile Disposable upstream;
+
+    TopicChannel(String topic) {
+        this.topic = topic;
+    }
+
+    String getTopic() {
+        return topic;
+    }
+
+    /**
+     * 建立上游连接，只有第一次调用生效；在 compute 之外调用，与 {@link #close()} 并发时连接随即被取消
+     *
+     * @return 本次调用建立了上游连接时返回 true
+     */
+    boolean startUpstream(Supplier<Disposable> connector) {
+        if (closed || !started.compareAndSet(false, true)) {
+            return false;
+        }
+        Disposable current = connector.get();
+        this.upstream = current;
+        if (closed) {
+            current.dispose();
+        }
+        return true;
+    }
+
+    /**
+     * 以下三个方法只在 MarketDataHub 对该主题的 compute 中调用，与创建 / 移除主题互斥
+     */
+    void addSubscriber(ClientOutbox outbox) {
+        subscribers.add(outbox);
+    }
+
+    void removeSubscriber(ClientOutbox outbox) {
+        subscribers.remove(outbox);
+    }
+
+    boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * 将上游帧扇出给所有订阅者（在上游连接的事件循环线程上执行）
+     */
+    void broadcast(WebSocketMessage message) {
+        ByteBuf frame = NettyDataBufferFactory.toByteBuf(message.getPayload());
+        WebSocketMessage.Type type = message.getType();
+        for (ClientOutbox subscriber : subscribers) {
+            subscriber.offer(topic, type, frame.retainedDuplicate());
+        }
+    }
+
+    void close() {
+        closed = true;
+        Disposable current = upstream;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+}
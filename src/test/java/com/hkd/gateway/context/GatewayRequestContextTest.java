@@ -0,0 +1,35 @@
+package com.hkd.gateway.context;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+/**
+ * @author HKD Team
+ */
+class GatewayRequestContextTest {
+
+    @Test
+    void requireFailsWhenRequestContextFilterHasNotRun() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/orders"));
+
+        assertThat(GatewayRequestContext.get(exchange)).isNull();
+        assertThatIllegalStateException()
+                .isThrownBy(() -> GatewayRequestContext.require(exchange))
+                .withMessageContaining("/api/v1/orders");
+    }
+
+    @Test
+    void requireReturnsAttachedContext() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/orders"));
+        GatewayRequestContext context = new GatewayRequestContext(System.nanoTime(), "GET",
+                exchange.getRequest().getPath().pathWithinApplication(), "127.0.0.1", "order-gateway",
+                GatewayRequestContext.NO_DEADLINE);
+        exchange.getAttributes().put(GatewayRequestContext.ATTRIBUTE, context);
+
+        assertThat(GatewayRequestContext.require(exchange)).isSameAs(context);
+    }
+}
@@ -0,0 +1,78 @@
+package com.hkd.gateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * GCRA 脚本：发射间隔、突发容忍、重试时间、Key 过期
+ *
+ * @author HKD Team
+ */
+class GcraAlgorithmTest extends RedisScriptTestSupport {
+
+    private static final List<Long> ALLOWED = List.of(0L, 0L);
+
+    private final GcraAlgorithm algorithm = new GcraAlgorithm();
+
+    @Test
+    void allowsBurstUpToCapacityThenRejectsWithRetryAfter() {
+        // 10 个/秒：发射间隔 100ms，突发容忍 5 × 100ms
+        RateLimitRule rule = rule("gcra:burst", 5, 10);
+        for (int i = 0; i < 5; i++) {
+            assertThat(acquire(algorithm, rule)).isEqualTo(ALLOWED);
+        }
+
+        List<Long> rejected = acquire(algorithm, rule);
+        assertThat(rejected.get(0)).isEqualTo(1L);
+        assertThat(rejected.get(1)).isBetween(1L, 100L);
+    }
+
+    @Test
+    void allowsOneRequestPerEmissionInterval() throws InterruptedException {
+        // 4 个/秒：发射间隔 250ms
+        RateLimitRule rule = rule("gcra:interval", 1, 4);
+        assertThat(acquire(algorithm, rule)).isEqualTo(ALLOWED);
+
+        Thread.sleep(150);
+        List<Long> rejected = acquire(algorithm, rule);
+        assertThat(rejected.get(0)).isEqualTo(1L);
+        assertThat(rejected.get(1)).isBetween(1L, 110L);
+
+        Thread.sleep(rejected.get(1) + 20);
+        assertThat(acquire(algorithm, rule)).isEqualTo(ALLOWED);
+    }
+
+    @Test
+    void rejectsAllDimensionsWithoutConsumingAny() {
+        RateLimitRule ip = rule("gcra:ip", 10, 1);
+        RateLimitRule user = rule("gcra:user", 1, 1);
+        assertThat(acquire(algorithm, ip, user)).isEqualTo(ALLOWED);
+
+        List<Long> rejected = acquire(algorithm, ip, user);
+        assertThat(rejected.get(0)).isEqualTo(2L);
+        assertThat(rejected.get(1)).isBetween(500L, 1000L);
+        // 第一个维度只记了一次：TAT 不超过 now + 1 个发射间隔（记两次则为 2000ms）
+        assertThat(pttl(ip.key())).isBetween(1L, 1000L);
+    }
+
+    @Test
+    void expiresKeyAtTheoreticalArrivalTime() {
+        RateLimitRule rule = rule("gcra:expire", 10, 20);
+        acquire(algorithm, rule);
+        // 发射间隔 50ms
+        assertThat(pttl(rule.key())).isBetween(1L, 50L);
+
+        assertThat(lease(algorithm, rule, 9)).isEqualTo(9L);
+        assertThat(pttl(rule.key())).isBetween(450L, 500L);
+    }
+
+    @Test
+    void leaseGrantsOnlyWithinBurstTolerance() {
+        RateLimitRule rule = rule("gcra:lease", 3, 1);
+        assertThat(lease(algorithm, rule, 5)).isEqualTo(3L);
+        assertThat(lease(algorithm, rule, 1)).isZero();
+    }
+}
@@ -0,0 +1,73 @@
+package com.hkd.gateway.service;
+
+import com.hkd.gateway.config.ApiRateLimitProperties;
+import com.hkd.gateway.config.ApiRateLimitProperties.RouteLimit;
+import com.hkd.gateway.config.IpRateLimitProperties;
+import com.hkd.gateway.config.UserRateLimitProperties;
+import com.hkd.gateway.service.RateLimitRule.Dimension;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * 非正的容量 / 补充数在绑定配置和编译策略时即被拒绝，不会传给 Lua 脚本
+ *
+ * @author HKD Team
+ */
+class RateLimitRuleTest {
+
+    @Test
+    void rejectsNonPositiveRefillRate() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new RateLimitRule(Dimension.IP, "k", 10, 0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new RateLimitRule(Dimension.IP, "k", 10, -1));
+        assertThatIllegalArgumentException().isThrownBy(() -> new RateLimitRule(Dimension.IP, "k", 0, 10));
+    }
+
+    @Test
+    void rejectsRoutePolicyWithZeroRefillRate() {
+        RouteLimit limit = new RouteLimit();
+        limit.setCapacity(10);
+        limit.setRefillRate(0);
+        ApiRateLimitProperties properties = new ApiRateLimitProperties();
+        properties.setRoutes(Map.of("order-gateway", limit));
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ApiRateLimitPolicies.compile(properties, List.of("order-gateway")))
+                .withMessageContaining("order-gateway");
+    }
+
+    @Test
+    void rejectsZeroDefaultCapacity() {
+        ApiRateLimitProperties properties = new ApiRateLimitProperties();
+        properties.setDefaultCapacity(0);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> ApiRateLimitPolicies.compile(properties, List.of("market-service-http")));
+    }
+
+    @Test
+    void rejectsZeroRefillRateWhenBinding() {
+        ApplicationContextRunner runner = new ApplicationContextRunner().withUserConfiguration(Properties.class);
+
+        runner.withPropertyValues("hkd.rate-limit.ip.refill-rate=0")
+                .run(context -> assertThat(context).hasFailed());
+        runner.withPropertyValues("hkd.rate-limit.user.tiers.1.capacity=100", "hkd.rate-limit.user.tiers.1.refill-rate=0")
+                .run(context -> assertThat(context).hasFailed());
+        runner.withPropertyValues("hkd.rate-limit.api.routes.order-gateway.capacity=0")
+                .run(context -> assertThat(context).hasFailed());
+        runner.withPropertyValues("hkd.rate-limit.api.routes.order-gateway.capacity=10",
+                        "hkd.rate-limit.api.routes.order-gateway.refill-rate=5")
+                .run(context -> assertThat(context).hasNotFailed());
+    }
+
+    @EnableConfigurationProperties({IpRateLimitProperties.class, UserRateLimitProperties.class,
+            ApiRateLimitProperties.class})
+    static class Properties {
+    }
+}
@@ -0,0 +1,94 @@
+package com.hkd.gateway.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 在内嵌 Redis 上直接执行限流 Lua 脚本的测试基类
+ *
+ * @author HKD Team
+ */
+abstract class RedisScriptTestSupport {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private static RedisServer redis;
+    private static LettuceConnectionFactory connectionFactory;
+    protected static ReactiveStringRedisTemplate redisTemplate;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redis = RedisServer.newRedisServer()
+                .port(port)
+                .setting("bind 127.0.0.1")
+                .setting("save \"\"")
+                .setting("appendonly no")
+                .build();
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new ReactiveStringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @BeforeEach
+    void flush() {
+        redisTemplate.execute(connection -> connection.serverCommands().flushAll()).blockLast(TIMEOUT);
+    }
+
+    /**
+     * 执行算法的 acquire 脚本
+     *
+     * @return [0, 0] 表示放行；[i, retryAfterMillis] 表示第 i 个规则拒绝
+     */
+    protected static List<Long> acquire(RateLimitAlgorithm algorithm, RateLimitRule... rules) {
+        List<String> keys = new ArrayList<>(rules.length);
+        List<String> args = new ArrayList<>(rules.length * 2);
+        for (RateLimitRule rule : rules) {
+            keys.add(rule.key());
+            args.add(String.valueOf(rule.capacity()));
+            args.add(String.valueOf(rule.refillRate()));
+        }
+        return redisTemplate.execute(algorithm.acquireScript(), keys, args).blockFirst(TIMEOUT);
+    }
+
+    /**
+     * 执行算法的 lease 脚本
+     *
+     * @return 实际批到的令牌数
+     */
+    protected static long lease(RateLimitAlgorithm algorithm, RateLimitRule rule, int wanted) {
+        return redisTemplate.execute(algorithm.leaseScript(), List.of(rule.key()),
+                List.of(String.valueOf(rule.capacity()), String.valueOf(rule.refillRate()), String.valueOf(wanted)))
+                .blockFirst(TIMEOUT);
+    }
+
+    protected static long pttl(String key) {
+        return redisTemplate.getExpire(key).block(TIMEOUT).toMillis();
+    }
+
+    protected static RateLimitRule rule(String key, int capacity, int refillRate) {
+        return new RateLimitRule(RateLimitRule.Dimension.API, key, capacity, refillRate);
+    }
+}
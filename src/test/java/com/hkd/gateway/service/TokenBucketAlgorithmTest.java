@@ -0,0 +1,80 @@
+package com.hkd.gateway.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 小数令牌桶脚本：补充计算、重试时间、Key 过期
+ *
+ * @author HKD Team
+ */
+class TokenBucketAlgorithmTest extends RedisScriptTestSupport {
+
+    private static final List<Long> ALLOWED = List.of(0L, 0L);
+
+    private final TokenBucketAlgorithm algorithm = new TokenBucketAlgorithm();
+
+    @Test
+    void allowsBurstUpToCapacityThenRejectsWithRetryAfter() {
+        RateLimitRule rule = rule("tb:burst", 5, 10);
+        for (int i = 0; i < 5; i++) {
+            assertThat(acquire(algorithm, rule)).isEqualTo(ALLOWED);
+        }
+
+        List<Long> rejected = acquire(algorithm, rule);
+        assertThat(rejected.get(0)).isEqualTo(1L);
+        // 10 个/秒：攒够 1 个令牌最多 100ms
+        assertThat(rejected.get(1)).isBetween(1L, 100L);
+    }
+
+    @Test
+    void keepsFractionalRefillAcrossCalls() throws InterruptedException {
+        // 4 个/秒：每 250ms 补 1 个令牌
+        RateLimitRule rule = rule("tb:fraction", 1, 4);
+        assertThat(acquire(algorithm, rule)).isEqualTo(ALLOWED);
+
+        Thread.sleep(150);
+        // 补了约 0.6 个，仍拒绝；剩余等待时间按小数令牌推算，而不是重新等一整个周期
+        List<Long> rejected = acquire(algorithm, rule);
+        assertThat(rejected.get(0)).isEqualTo(1L);
+        assertThat(rejected.get(1)).isBetween(1L, 110L);
+
+        Thread.sleep(rejected.get(1) + 20);
+        assertThat(acquire(algorithm, rule)).isEqualTo(ALLOWED);
+    }
+
+    @Test
+    void rejectsAllDimensionsWithoutConsumingAny() {
+        RateLimitRule ip = rule("tb:ip", 10, 10);
+        RateLimitRule user = rule("tb:user", 1, 1);
+        assertThat(acquire(algorithm, ip, user)).isEqualTo(ALLOWED);
+
+        List<Long> rejected = acquire(algorithm, ip, user);
+        assertThat(rejected.get(0)).isEqualTo(2L);
+        assertThat(rejected.get(1)).isBetween(500L, 1000L);
+        // 被第二个维度拒绝时第一个维度不扣减：仍剩 9 个令牌（连同补充不超过 10）
+        assertThat(lease(algorithm, ip, 100)).isBetween(9L, 10L);
+    }
+
+    @Test
+    void expiresKeyWhenBucketWouldBeFull() {
+        RateLimitRule rule = rule("tb:expire", 10, 20);
+        acquire(algorithm, rule);
+        // 缺 1 个令牌，20 个/秒 → 50ms 后补满
+        assertThat(pttl(rule.key())).isBetween(1L, 50L);
+
+        assertThat(lease(algorithm, rule, 9)).isEqualTo(9L);
+        // 缺 10 个令牌 → 500ms 后补满
+        assertThat(pttl(rule.key())).isBetween(450L, 500L);
+    }
+
+    @Test
+    void leaseGrantsOnlyWholeTokens() {
+        RateLimitRule rule = rule("tb:lease", 3, 1);
+        assertThat(lease(algorithm, rule, 5)).isEqualTo(3L);
+        assertThat(lease(algorithm, rule, 1)).isZero();
+    }
+}
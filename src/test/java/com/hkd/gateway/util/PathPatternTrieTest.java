@@ -0,0 +1,134 @@
+package com.hkd.gateway.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 白名单匹配决定请求是否跳过认证：既要覆盖应命中的路径，更要覆盖不应命中的路径
+ *
+ * @author HKD Team
+ */
+class PathPatternTrieTest {
+
+    private static PathPatternTrie trie(String... patterns) {
+        return PathPatternTrie.compile(List.of(patterns));
+    }
+
+    @Test
+    void doubleWildcardMatchesItselfAndAllDescendants() {
+        PathPatternTrie trie = trie("/a/**");
+
+        assertThat(trie.matches("/a")).isTrue();
+        assertThat(trie.matches("/a/")).isTrue();
+        assertThat(trie.matches("/a/b")).isTrue();
+        assertThat(trie.matches("/a/b/c")).isTrue();
+        assertThat(trie.matches("/a/b/c/")).isTrue();
+    }
+
+    @Test
+    void doubleWildcardDoesNotMatchSiblingOrPrefix() {
+        PathPatternTrie trie = trie("/a/**");
+
+        assertThat(trie.matches("/")).isFalse();
+        assertThat(trie.matches("/ab")).isFalse();
+        assertThat(trie.matches("/b/a")).isFalse();
+    }
+
+    @Test
+    void segmentPrefixIsNotAMatch() {
+        PathPatternTrie trie = trie("/api/v1/auth/**");
+
+        assertThat(trie.matches("/api/v1/auth")).isTrue();
+        assertThat(trie.matches("/api/v1/auth/login")).isTrue();
+        assertThat(trie.matches("/api/v1/authx")).isFalse();
+        assertThat(trie.matches("/api/v1/authx/login")).isFalse();
+        assertThat(trie.matches("/api/v1/aut")).isFalse();
+        assertThat(trie.matches("/api/v1/AUTH/login")).isFalse();
+    }
+
+    @Test
+    void singleWildcardMatchesExactlyOneSegment() {
+        PathPatternTrie trie = trie("/a/*");
+
+        assertThat(trie.matches("/a/x")).isTrue();
+        assertThat(trie.matches("/a/x/")).isTrue();
+        assertThat(trie.matches("/a/x/y")).isFalse();
+        assertThat(trie.matches("/a")).isFalse();
+        assertThat(trie.matches("/a/")).isFalse();
+    }
+
+    @Test
+    void exactPatternIgnoresTrailingSlashOnly() {
+        PathPatternTrie trie = trie("/api/v1/market/ticker");
+
+        assertThat(trie.matches("/api/v1/market/ticker")).isTrue();
+        assertThat(trie.matches("/api/v1/market/ticker/")).isTrue();
+        assertThat(trie.matches("/api/v1/market/ticker/x")).isFalse();
+        assertThat(trie.matches("/api/v1/market")).isFalse();
+    }
+
+    @Test
+    void patternsShareCommonPrefixes() {
+        PathPatternTrie trie = trie("/api/v1/auth/**", "/api/v1/market/*", "/api/v1/market/symbols");
+
+        assertThat(trie.matches("/api/v1/auth/refresh")).isTrue();
+        assertThat(trie.matches("/api/v1/market/ticker")).isTrue();
+        assertThat(trie.matches("/api/v1/market/symbols")).isTrue();
+        assertThat(trie.matches("/api/v1/market")).isFalse();
+        assertThat(trie.matches("/api/v1/orders")).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "/api/v1/auth/../orders",
+            "/api/v1/auth/./login",
+            "/api/v1/auth/..",
+            "/api/v1/auth/login/..",
+            "/api/v1/auth//login",
+            "/api/v1/auth/login//",
+            "/api/v1//auth/login",
+            "/api/v1/auth/%2e%2e/orders",
+            "/api/v1/auth/%2E%2e/orders",
+            "/api/v1/auth/.%2e/orders",
+            "/api/v1/auth/%2e/login",
+            "/api/v1/auth/..;/orders",
+            "/api/v1/auth/..;jsessionid=x/orders",
+            "/api/v1/auth/;x/orders"
+    })
+    void dotAndEmptySegmentsNeverMatch(String path) {
+        assertThat(trie("/api/v1/auth/**", "/api/v1/market/*", "/api/v1/auth/login").matches(path)).isFalse();
+    }
+
+    @Test
+    void dotSegmentsAreRejectedBeforeReachingWildcard() {
+        assertThat(trie("/a/*").matches("/a/..")).isFalse();
+        assertThat(trie("/a/*").matches("/a/.")).isFalse();
+        assertThat(trie("/a/b").matches("/a/./b")).isFalse();
+        assertThat(trie("/a/b").matches("/x/../a/b")).isFalse();
+    }
+
+    @Test
+    void segmentsThatMerelyContainDotsStillMatch() {
+        PathPatternTrie trie = trie("/static/**", "/files/*");
+
+        assertThat(trie.matches("/static/app.min.js")).isTrue();
+        assertThat(trie.matches("/static/...")).isTrue();
+        assertThat(trie.matches("/static/.well-known/x")).isTrue();
+        assertThat(trie.matches("/files/a..b")).isTrue();
+    }
+
+    @Test
+    void blankAndNullPatternsAreIgnored() {
+        PathPatternTrie trie = PathPatternTrie.compile(Arrays.asList("", "  ", null, " /health "));
+
+        assertThat(trie.matches("/health")).isTrue();
+        assertThat(trie.matches("/")).isFalse();
+        assertThat(trie.matches("/other")).isFalse();
+    }
+}